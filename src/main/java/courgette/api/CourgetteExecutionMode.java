@@ -0,0 +1,8 @@
+package courgette.api;
+
+public enum CourgetteExecutionMode {
+    PROCESS,
+    WORKER_POOL,
+    IN_PROCESS,
+    DISTRIBUTED
+}
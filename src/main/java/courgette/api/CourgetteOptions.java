@@ -16,10 +16,45 @@ public @interface CourgetteOptions {
     int threads() default 5;
 
     /**
-     * @return the run level (feature or scenario level)
+     * @return true to adjust the number of parallel threads to the container CPU and memory limits and the system load
+     */
+    boolean adaptiveThreads() default false;
+
+    /**
+     * @return the minimum number of parallel threads when adaptive threads is enabled
+     */
+    int minThreads() default 1;
+
+    /**
+     * @return the run level (feature, scenario or auto level)
      */
     CourgetteRunLevel runLevel() default CourgetteRunLevel.FEATURE;
 
+    /**
+     * @return the number of scenarios of the same feature to run in one invocation when using the scenario or auto run level
+     */
+    int scenarioBatchSize() default 1;
+
+    /**
+     * @return true to hand the scenarios of a long-running scenario batch that have not started yet to idle threads at the end of the test run
+     */
+    boolean splitStragglers() default false;
+
+    /**
+     * @return the order in which features or scenarios are queued for execution
+     */
+    CourgetteRunOrder runOrder() default CourgetteRunOrder.DEFAULT;
+
+    /**
+     * @return the zero-based index of the shard to run when the features or scenarios are split across several machines
+     */
+    int shardIndex() default 0;
+
+    /**
+     * @return the number of shards the features or scenarios are split into (1 means no sharding)
+     */
+    int shardCount() default 1;
+
     /**
      * @return true to re-run failed scenarios
      */
@@ -40,11 +75,106 @@ public @interface CourgetteOptions {
      */
     int rerunAttempts() default 1;
 
+    /**
+     * @return when failed features or scenarios are re-run (immediately, after all other runs or alongside them)
+     */
+    CourgetteRerunMode rerunMode() default CourgetteRerunMode.IMMEDIATE;
+
+    /**
+     * @return the number of parallel threads used to re-run failures when the re-run mode is deferred or concurrent
+     */
+    int rerunThreads() default 1;
+
+    /**
+     * @return the number of failed tests after which the remaining runs are cancelled (0 to disable)
+     */
+    int failFastCount() default 0;
+
+    /**
+     * @return the percentage of failed tests after which the remaining runs are cancelled (0 to disable)
+     */
+    int failFastPercentage() default 0;
+
+    /**
+     * @return the number of seconds a feature or scenario run may take before it is stopped (0 to disable)
+     */
+    int runTimeout() default 0;
+
+    /**
+     * @return the run timeouts in seconds for features or scenarios with matching Cucumber tags, for example "@slow=1800"
+     */
+    String[] tagTimeouts() default {};
+
+    /**
+     * @return true to skip features or scenarios that passed in a previous test run when their feature file, classpath and options have not changed
+     */
+    boolean resultCache() default false;
+
+    /**
+     * @return true to record the classes each feature or scenario loads and only run the features or scenarios affected by changes
+     */
+    boolean testImpactAnalysis() default false;
+
+    /**
+     * @return the execution mode for each test run (a new JVM process per run or a pool of reusable worker JVMs)
+     */
+    CourgetteExecutionMode executionMode() default CourgetteExecutionMode.PROCESS;
+
+    /**
+     * @return the number of runs after which a worker JVM is replaced (0 means never)
+     */
+    int workerMaxRuns() default 0;
+
+    /**
+     * @return the peak memory usage in megabytes after which a worker JVM is replaced (0 means never)
+     */
+    int workerMaxMemory() default 0;
+
+    /**
+     * @return true to replace a worker JVM after a failed run
+     */
+    boolean recycleWorkerOnFailure() default false;
+
+    /**
+     * @return the TCP port the coordinator listens on for agents when using the distributed execution mode
+     */
+    int coordinatorPort() default 9797;
+
+    /**
+     * @return the address the coordinator listens on for agents when using the distributed execution mode (this defaults to the loopback address)
+     */
+    String coordinatorAddress() default "127.0.0.1";
+
+    /**
+     * @return the token agents must send to the coordinator when they connect, which is required when using the distributed execution mode
+     */
+    String agentToken() default "";
+
+    /**
+     * @return the number of seconds the coordinator waits for an agent to connect before the runs fail
+     */
+    int agentConnectTimeout() default 300;
+
+    /**
+     * @return true to start the test run JVMs with a class data sharing archive of the classes they load
+     */
+    boolean classDataSharing() default false;
+
+    /**
+     * @return true to print the progress of the test run to the console while it runs
+     */
+    boolean liveProgress() default false;
+
     /**
      * @return the test output for each test run
      */
     CourgetteTestOutput testOutput() default CourgetteTestOutput.DISCARD;
 
+    /**
+     * @return true to save the test output of all runs to one compressed archive instead of a file per run
+     */
+    boolean testOutputArchive() default false;
+
     /**
      * @return the reportTitle for the Courgette Html report
      */
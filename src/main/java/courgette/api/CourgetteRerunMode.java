@@ -0,0 +1,7 @@
+package courgette.api;
+
+public enum CourgetteRerunMode {
+    IMMEDIATE,
+    DEFERRED,
+    CONCURRENT
+}
@@ -2,7 +2,8 @@ package courgette.api;
 
 public enum CourgetteRunLevel {
     FEATURE,
-    SCENARIO;
+    SCENARIO,
+    AUTO;
 
     @Override
     public String toString() {
@@ -10,6 +11,9 @@ public enum CourgetteRunLevel {
             case FEATURE:
                 return "Feature";
 
+            case AUTO:
+                return "Auto";
+
             default:
                 return "Scenario";
         }
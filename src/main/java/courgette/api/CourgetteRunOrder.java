@@ -0,0 +1,7 @@
+package courgette.api;
+
+public enum CourgetteRunOrder {
+    DEFAULT,
+    LONGEST_FIRST,
+    FAILED_FIRST
+}
@@ -3,5 +3,6 @@ package courgette.api;
 public enum CourgetteTestOutput {
     DISCARD,
     CONSOLE,
-    FILE
+    FILE,
+    ON_FAILURE
 }
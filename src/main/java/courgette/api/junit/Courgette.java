@@ -7,22 +7,19 @@ import courgette.runtime.CourgetteProperties;
 import courgette.runtime.CourgetteRunOptions;
 import courgette.runtime.CourgetteRunResult;
 import courgette.runtime.CourgetteRunner;
-import courgette.runtime.CourgetteRunnerInfo;
 import courgette.runtime.CourgetteSession;
 import courgette.runtime.CourgetteTestErrorException;
-import courgette.runtime.CucumberPickleLocation;
 import courgette.runtime.junit.CourgetteJUnitRunner;
-import io.cucumber.core.gherkin.Feature;
 import org.junit.runner.notification.RunNotifier;
 import org.junit.runners.model.InitializationError;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
 
 import static courgette.runtime.CourgetteException.printError;
 
 public class Courgette extends CourgetteJUnitRunner {
+    private final CourgetteLoader courgetteLoader;
 
     public Courgette(Class clazz) throws InitializationError {
         super(clazz);
@@ -32,24 +29,15 @@ public class Courgette extends CourgetteJUnitRunner {
 
         callbacks = new CourgetteCallbacks(clazz);
 
-        final CourgetteLoader courgetteLoader = new CourgetteLoader(courgetteProperties);
+        courgetteLoader = new CourgetteLoader(courgetteProperties);
         features = courgetteLoader.getFeatures();
 
-        runnerInfoList = new ArrayList<>();
-
-        if (courgetteProperties.isFeatureRunLevel()) {
-            features.forEach(feature -> runnerInfoList.add(new CourgetteRunnerInfo(courgetteProperties, feature, null)));
-        } else {
-            final Map<CucumberPickleLocation, Feature> scenarios = courgetteLoader.getCucumberScenarios();
-            scenarios
-                    .keySet()
-                    .forEach(location -> runnerInfoList.add(new CourgetteRunnerInfo(courgetteProperties, scenarios.get(location), location.getLine())));
-        }
+        runnerInfoList = courgetteLoader.getRunnerInfoList();
     }
 
     @Override
     public void run(RunNotifier notifier) {
-        final CourgetteRunner courgetteRunner = new CourgetteRunner(runnerInfoList, courgetteProperties);
+        final CourgetteRunner courgetteRunner = new CourgetteRunner(runnerInfoList, courgetteProperties, courgetteLoader);
 
         List<CourgetteRunResult> failures = new ArrayList<>();
 
@@ -9,44 +9,30 @@ import courgette.runtime.CourgetteRunnerInfo;
 import courgette.runtime.CourgetteSession;
 import courgette.runtime.CourgetteTestErrorException;
 import courgette.runtime.CourgetteTestFailureException;
-import courgette.runtime.CucumberPickleLocation;
-import io.cucumber.core.gherkin.Feature;
 import org.testng.annotations.BeforeClass;
 import org.testng.annotations.Test;
 
-import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
 
 import static courgette.runtime.CourgetteException.printError;
 
 public abstract class TestNGCourgette {
     private CourgetteProperties courgetteProperties;
     private List<CourgetteRunnerInfo> runnerInfoList;
+    private CourgetteLoader courgetteLoader;
 
     @BeforeClass(alwaysRun = true)
     public void initialize() {
         final CourgetteOptions courgetteOptions = new CourgetteRunOptions(this.getClass());
         courgetteProperties = new CourgetteProperties(courgetteOptions, CourgetteSession.current().sessionId(), courgetteOptions.threads());
 
-        CourgetteLoader courgetteFeatureLoader = new CourgetteLoader(courgetteProperties);
-        List<Feature> features = courgetteFeatureLoader.getFeatures();
-
-        runnerInfoList = new ArrayList<>();
-
-        if (courgetteProperties.isFeatureRunLevel()) {
-            features.forEach(feature -> runnerInfoList.add(new CourgetteRunnerInfo(courgetteProperties, feature, null)));
-        } else {
-            final Map<CucumberPickleLocation, Feature> scenarios = courgetteFeatureLoader.getCucumberScenarios();
-            scenarios
-                    .keySet()
-                    .forEach(location -> runnerInfoList.add(new CourgetteRunnerInfo(courgetteProperties, scenarios.get(location), location.getLine())));
-        }
+        courgetteLoader = new CourgetteLoader(courgetteProperties);
+        runnerInfoList = courgetteLoader.getRunnerInfoList();
     }
 
     @Test
     public void parallelRun() {
-        final CourgetteRunner courgetteRunner = new CourgetteRunner(runnerInfoList, courgetteProperties);
+        final CourgetteRunner courgetteRunner = new CourgetteRunner(runnerInfoList, courgetteProperties, courgetteLoader);
 
         try {
             if (courgetteRunner.canRunFeatures()) {
@@ -24,7 +24,7 @@ public class ReportPortalSender implements EventSender {
             case TEST_PASSED:
             case TEST_FAILED:
             case TEST_PASSED_AFTER_RERUN:
-                reportPortalService.addTest(runnerInfo);
+                reportPortalService.addTest(runnerInfo, eventHolder.getCourgetteRunResult().getLineId());
                 break;
             case TEST_RUN_FINISHED:
                 reportPortalService.finishTestSuite();
@@ -78,7 +78,7 @@ public class ReportPortalService {
         }
     }
 
-    public void addTest(CourgetteRunnerInfo runnerInfo) {
+    public void addTest(CourgetteRunnerInfo runnerInfo, Integer lineId) {
 
         if (testSuiteId != null) {
 
@@ -100,6 +100,7 @@ public class ReportPortalService {
 
             List<Scenario> scenarios = features.stream()
                     .flatMap(feature -> feature.getScenarios().stream())
+                    .filter(scenario -> lineId == null || scenario.getLine() == lineId)
                     .collect(Collectors.toList());
 
             for (Scenario scenario : scenarios) {
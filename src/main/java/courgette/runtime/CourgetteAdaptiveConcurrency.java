@@ -0,0 +1,124 @@
+package courgette.runtime;
+
+import java.util.OptionalLong;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static courgette.runtime.CourgetteException.printError;
+
+/**
+ * Limits the number of concurrently running Cucumber processes to what the host can currently take.
+ * <p>
+ * The limit starts at the number of CPUs available to the container and is then adjusted every few seconds:
+ * it shrinks when the load average exceeds the available CPUs or free memory runs low, and grows again when
+ * the host has spare capacity. The limit always stays within the configured minimum and maximum.
+ * <p>
+ * Waiting runs park on a lock condition rather than a monitor, so virtual threads don't pin their carrier thread.
+ */
+class CourgetteAdaptiveConcurrency {
+    private static final long MONITOR_INTERVAL_SECONDS = 5;
+    private static final double LOW_MEMORY_RATIO = 0.10;
+    private static final double SPARE_MEMORY_RATIO = 0.25;
+    private static final double IDLE_LOAD_RATIO = 0.75;
+
+    private final int minThreads;
+    private final int maxThreads;
+    private final CourgetteSystemResources systemResources;
+    private final ScheduledExecutorService monitor = Executors.newSingleThreadScheduledExecutor();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition available = lock.newCondition();
+
+    private int limit;
+    private int running;
+
+    CourgetteAdaptiveConcurrency(int minThreads, int maxThreads, CourgetteSystemResources systemResources) {
+        this.maxThreads = Math.max(maxThreads, 1);
+        this.minThreads = Math.max(Math.min(minThreads, this.maxThreads), 1);
+        this.systemResources = systemResources;
+        this.limit = clamp((int) Math.floor(systemResources.getCpuLimit()));
+    }
+
+    void start() {
+        monitor.scheduleWithFixedDelay(this::adjustLimit, MONITOR_INTERVAL_SECONDS, MONITOR_INTERVAL_SECONDS, TimeUnit.SECONDS);
+    }
+
+    void stop() {
+        monitor.shutdownNow();
+    }
+
+    void acquire() throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            while (running >= limit) {
+                available.await();
+            }
+            running++;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void release() {
+        lock.lock();
+        try {
+            running--;
+            available.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int getLimit() {
+        lock.lock();
+        try {
+            return limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void adjustLimit() {
+        final double cpuLimit = systemResources.getCpuLimit();
+        final double loadAverage = systemResources.getLoadAverage();
+        final double freeMemoryRatio = freeMemoryRatio();
+
+        final boolean overloaded = loadAverage > cpuLimit || freeMemoryRatio < LOW_MEMORY_RATIO;
+        final boolean idle = (loadAverage < 0 || loadAverage < cpuLimit * IDLE_LOAD_RATIO) && freeMemoryRatio > SPARE_MEMORY_RATIO;
+
+        lock.lock();
+        try {
+            final int currentLimit = limit;
+
+            if (overloaded) {
+                limit = clamp(limit - 1);
+            } else if (idle && running >= limit) {
+                limit = clamp(limit + 1);
+            }
+
+            if (limit != currentLimit) {
+                printError(String.format("Courgette adaptive threads: %d -> %d (load average %.2f, cpus %.2f, free memory %d%%)",
+                        currentLimit, limit, loadAverage, cpuLimit, Math.round(freeMemoryRatio * 100)));
+                available.signalAll();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private double freeMemoryRatio() {
+        final OptionalLong memoryLimit = systemResources.getMemoryLimit();
+        final OptionalLong freeMemory = systemResources.getFreeMemory();
+
+        if (memoryLimit.isPresent() && freeMemory.isPresent() && memoryLimit.getAsLong() > 0) {
+            return freeMemory.getAsLong() / (double) memoryLimit.getAsLong();
+        }
+        return 1.0;
+    }
+
+    private int clamp(int threads) {
+        return Math.max(minThreads, Math.min(maxThreads, threads));
+    }
+}
@@ -0,0 +1,250 @@
+package courgette.runtime;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.lang.management.ManagementFactory;
+import java.net.ConnectException;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static courgette.runtime.CourgetteException.printError;
+import static courgette.runtime.CourgetteException.printExceptionStackTrace;
+
+/**
+ * Entry point of an agent process that runs Cucumber jobs for a {@link CourgetteCoordinator}, usually on another host.
+ * <p>
+ * Usage: {@code java -cp <test classpath> -Dcourgette.agentToken=<agent token> courgette.runtime.CourgetteAgent <coordinator host>:<coordinator port> [threads]}
+ * <p>
+ * The agent runs its jobs in a pool of local worker JVMs started with the same classpath and system properties as the agent,
+ * without the Cucumber system properties and publishing disabled, like the JVMs of a local run.
+ * The report files of each job are written to a temporary directory and sent back to the coordinator with the worker result.
+ * While the coordinator is not available, the agent keeps trying to connect. The agent exits once the coordinator has closed
+ * all its connections at the end of the test run, or has rejected the agent token.
+ */
+public class CourgetteAgent {
+    private static final String COURGETTE_WORKER_CLASS = "courgette.runtime.CourgetteWorker";
+    private static final String AGENT_TOKEN_ENVIRONMENT_VARIABLE = "COURGETTE_AGENT_TOKEN";
+    private static final long RECONNECT_DELAY_SECONDS = 5;
+
+    private final String host;
+    private final int port;
+    private final String token;
+    private final CourgetteJobExecutor workerPool;
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final ScheduledExecutorService heartbeats = Executors.newSingleThreadScheduledExecutor();
+
+    CourgetteAgent(String host, int port, String token, CourgetteJobExecutor workerPool) {
+        this.host = host;
+        this.port = port;
+        this.token = token;
+        this.workerPool = workerPool;
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        if (args.length < 1 || !args[0].matches(".+:\\d+")) {
+            printError("Usage: courgette.runtime.CourgetteAgent <coordinator host>:<coordinator port> [threads]");
+            System.exit(1);
+        }
+
+        final String token = System.getProperty(CourgetteSystemProperty.AGENT_TOKEN, System.getenv(AGENT_TOKEN_ENVIRONMENT_VARIABLE));
+        if (token == null || token.trim().isEmpty()) {
+            printError("The agent token must be set with -D" + CourgetteSystemProperty.AGENT_TOKEN + " or the " + AGENT_TOKEN_ENVIRONMENT_VARIABLE + " environment variable");
+            System.exit(1);
+        }
+
+        final String host = args[0].substring(0, args[0].lastIndexOf(':'));
+        final int port = Integer.parseInt(args[0].substring(args[0].lastIndexOf(':') + 1));
+        final int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+
+        final CourgetteJobExecutor workerPool = new CourgetteWorkerPool(threads, CourgetteAgent::buildWorkerProcess,
+                new CourgetteWorkerRecyclePolicy(0, 0, false));
+        workerPool.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(workerPool::shutdown));
+
+        new CourgetteAgent(host, port, token, workerPool).run(threads);
+
+        printError("Courgette agent disconnected from " + host + ":" + port + ", exiting");
+        System.exit(0);
+    }
+
+    /**
+     * Serves the coordinator with one connection per thread and returns once all connections are closed.
+     */
+    void run(int threads) throws InterruptedException {
+        final ExecutorService connections = Executors.newFixedThreadPool(threads);
+        for (int i = 0; i < threads; i++) {
+            connections.execute(this::serve);
+        }
+        connections.shutdown();
+        try {
+            connections.awaitTermination(Long.MAX_VALUE, TimeUnit.DAYS);
+        } finally {
+            heartbeats.shutdownNow();
+        }
+    }
+
+    private void serve() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try (Socket socket = new Socket(host, port)) {
+                final BufferedReader jobs = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+                final BufferedWriter results = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8));
+
+                send(results, token);
+
+                if (!CourgetteAgentConnection.ACCEPTED.equals(jobs.readLine())) {
+                    printError("Courgette coordinator " + host + ":" + port + " rejected the agent token");
+                    return;
+                }
+
+                printError("Courgette agent connected to " + host + ":" + port);
+
+                String job;
+                while ((job = jobs.readLine()) != null) {
+                    final CourgetteAgentResult result = executeWithHeartbeat(mapper.readValue(job, CourgetteJob.class), results);
+                    send(results, mapper.writeValueAsString(result));
+                }
+                // the coordinator closed the connection at the end of the test run
+                return;
+            } catch (ConnectException ignored) {
+                // the coordinator is not running yet
+            } catch (IOException e) {
+                // the coordinator went away during the test run
+                return;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+
+            try {
+                TimeUnit.SECONDS.sleep(RECONNECT_DELAY_SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Runs the job while a heartbeat is sent to the coordinator, which tells a long job apart from an agent host that is gone.
+     */
+    private CourgetteAgentResult executeWithHeartbeat(CourgetteJob job, BufferedWriter results) throws IOException, InterruptedException {
+        final ScheduledFuture<?> heartbeat = heartbeats.scheduleAtFixedRate(() -> {
+            try {
+                send(results, CourgetteAgentConnection.HEARTBEAT);
+            } catch (IOException ignored) {
+                // the connection is closed, which the job result will find out
+            }
+        }, CourgetteAgentConnection.HEARTBEAT_INTERVAL_SECONDS, CourgetteAgentConnection.HEARTBEAT_INTERVAL_SECONDS, TimeUnit.SECONDS);
+
+        try {
+            return execute(job);
+        } finally {
+            heartbeat.cancel(false);
+        }
+    }
+
+    private static void send(BufferedWriter results, String line) throws IOException {
+        synchronized (results) {
+            results.write(line);
+            results.newLine();
+            results.flush();
+        }
+    }
+
+    private CourgetteAgentResult execute(CourgetteJob job) throws IOException, InterruptedException {
+        final Path jobDirectory = Files.createTempDirectory("courgette-agent");
+        try {
+            final Map<String, File> jobFiles = new HashMap<>();
+            final CourgetteWorkerResult workerResult = workerPool.execute(createLocalJob(job, jobDirectory, jobFiles));
+
+            final Map<String, String> files = new HashMap<>();
+            for (Map.Entry<String, File> jobFile : jobFiles.entrySet()) {
+                if (jobFile.getValue().isFile()) {
+                    files.put(jobFile.getKey(), Base64.getEncoder().encodeToString(Files.readAllBytes(jobFile.getValue().toPath())));
+                }
+            }
+            return new CourgetteAgentResult(workerResult, files);
+        } finally {
+            deleteDirectory(jobDirectory);
+        }
+    }
+
+    /**
+     * @return a copy of the job that writes its files to the job directory instead of the paths used by the coordinator
+     */
+    private CourgetteJob createLocalJob(CourgetteJob job, Path jobDirectory, Map<String, File> jobFiles) {
+        for (String path : CourgetteCoordinator.getJobFiles(job)) {
+            jobFiles.put(path, jobDirectory.resolve(jobFiles.size() + "_" + new File(path).getName()).toFile());
+        }
+
+        final List<String> args = new ArrayList<>();
+        for (String arg : job.getArgs()) {
+            final int separator = arg.indexOf(':');
+            final String path = separator > 0 ? arg.substring(separator + 1) : null;
+
+            args.add(path != null && jobFiles.containsKey(path)
+                    ? arg.substring(0, separator + 1) + jobFiles.get(path).getPath()
+                    : arg);
+        }
+
+        final CourgetteJob localJob = new CourgetteJob(args, job.getSystemProperties());
+        localJob.setDiscardOutput(job.isDiscardOutput());
+        localJob.setOutputOnFailure(job.isOutputOnFailure());
+        localJob.setTimeout(job.getTimeout());
+
+        if (job.getOutputFile() != null) {
+            localJob.setOutputFile(jobFiles.get(job.getOutputFile()).getPath());
+        }
+
+        if (job.getThreadDumpFile() != null) {
+            localJob.setThreadDumpFile(jobFiles.get(job.getThreadDumpFile()).getPath());
+        }
+        return localJob;
+    }
+
+    private static ProcessBuilder buildWorkerProcess() {
+        final List<String> systemProperties = new ArrayList<>();
+        ManagementFactory.getRuntimeMXBean().getInputArguments().stream()
+                .filter(argument -> argument.startsWith("-D"))
+                .forEach(systemProperties::add);
+        CourgetteFeatureRunner.replaceCucumberSystemProperties(systemProperties);
+
+        final List<String> commands = new ArrayList<>();
+        commands.add("java");
+        commands.addAll(systemProperties);
+        commands.add("-cp");
+        commands.add(System.getProperty("java.class.path"));
+        commands.add(COURGETTE_WORKER_CLASS);
+
+        final ProcessBuilder builder = new ProcessBuilder(commands).redirectError(ProcessBuilder.Redirect.INHERIT);
+        CourgetteFeatureRunner.removeCucumberEnvironmentVariables(builder);
+        return builder;
+    }
+
+    private static void deleteDirectory(Path directory) {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            paths.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        } catch (IOException e) {
+            printExceptionStackTrace(e);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package courgette.runtime;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.concurrent.TimeUnit;
+
+class CourgetteAgentConnection {
+    static final String ACCEPTED = "accepted";
+    static final String HEARTBEAT = "heartbeat";
+    static final long HEARTBEAT_INTERVAL_SECONDS = 10;
+    private static final int HANDSHAKE_TIMEOUT_MILLIS = 10000;
+    private static final int RESULT_TIMEOUT_MILLIS = (int) TimeUnit.SECONDS.toMillis(HEARTBEAT_INTERVAL_SECONDS * 6);
+
+    private final Socket socket;
+    private final BufferedWriter jobs;
+    private final BufferedReader results;
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    CourgetteAgentConnection(Socket socket) throws IOException {
+        this.socket = socket;
+        this.socket.setKeepAlive(true);
+        this.jobs = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8));
+        this.results = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return true when the agent sent the token of the coordinator as its first line, which is then acknowledged
+     */
+    boolean authenticate(String token) throws IOException {
+        socket.setSoTimeout(HANDSHAKE_TIMEOUT_MILLIS);
+
+        final String agentToken = results.readLine();
+
+        if (agentToken == null || !MessageDigest.isEqual(agentToken.getBytes(StandardCharsets.UTF_8), token.getBytes(StandardCharsets.UTF_8))) {
+            return false;
+        }
+
+        jobs.write(ACCEPTED);
+        jobs.newLine();
+        jobs.flush();
+        return true;
+    }
+
+    /**
+     * Sends the job and waits for its result; the agent sends a heartbeat while the job runs, so the read times out with a
+     * {@link SocketTimeoutException} when the agent host is gone.
+     */
+    CourgetteAgentResult execute(CourgetteJob job) throws IOException {
+        jobs.write(mapper.writeValueAsString(job));
+        jobs.newLine();
+        jobs.flush();
+
+        socket.setSoTimeout(RESULT_TIMEOUT_MILLIS);
+
+        String result;
+        do {
+            result = results.readLine();
+        } while (HEARTBEAT.equals(result));
+
+        if (result == null) {
+            throw new IOException("Courgette agent " + getAddress() + " disconnected");
+        }
+        return mapper.readValue(result, CourgetteAgentResult.class);
+    }
+
+    String getAddress() {
+        return socket.getRemoteSocketAddress().toString();
+    }
+
+    void close() {
+        try {
+            socket.close();
+        } catch (IOException ignored) {
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package courgette.runtime;
+
+import java.util.HashMap;
+import java.util.Map;
+
+public class CourgetteAgentResult {
+    private CourgetteWorkerResult workerResult = new CourgetteWorkerResult();
+    private Map<String, String> files = new HashMap<>();
+
+    public CourgetteAgentResult() {
+    }
+
+    CourgetteAgentResult(CourgetteWorkerResult workerResult, Map<String, String> files) {
+        this.workerResult = workerResult;
+        this.files = files;
+    }
+
+    /**
+     * @return the exit status, memory usage and CPU time of the worker JVM that ran the job on the agent
+     */
+    public CourgetteWorkerResult getWorkerResult() {
+        return workerResult;
+    }
+
+    public void setWorkerResult(CourgetteWorkerResult workerResult) {
+        this.workerResult = workerResult;
+    }
+
+    /**
+     * @return the base64 encoded contents of the report and output files written by the job, by their path on the coordinator
+     */
+    public Map<String, String> getFiles() {
+        return files;
+    }
+
+    public void setFiles(Map<String, String> files) {
+        this.files = files;
+    }
+}
@@ -0,0 +1,225 @@
+package courgette.runtime;
+
+import courgette.runtime.utils.ProcessUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static courgette.runtime.CourgetteException.printError;
+import static courgette.runtime.CourgetteException.printExceptionStackTrace;
+
+/**
+ * An AppCDS archive of the classes loaded by the test run JVMs, so each JVM maps them from the archive instead of loading them from the classpath.
+ * <p>
+ * The archive is created with {@code -XX:ArchiveClassesAtExit} by a dry run of the features the first time a classpath and Java version
+ * is used, and kept in {@code ${reportTargetDir}/courgette-cds}. The dry run is then timed without and with the archive to show the difference
+ * in JVM startup.
+ */
+class CourgetteClassDataSharing {
+    private static final String ARCHIVE_DIRECTORY = "courgette-cds";
+    private static final String STARTUP_WITHOUT_ARCHIVE = "startupWithoutArchive";
+    private static final String STARTUP_WITH_ARCHIVE = "startupWithArchive";
+    private static final int MIN_JAVA_VERSION = 13;
+    private static final long DRY_RUN_TIMEOUT_MINUTES = 10;
+
+    private final File archiveFile;
+    private final File statisticsFile;
+    private final File logFile;
+    private final String sessionId;
+
+    private volatile boolean archiveReady;
+    private long startupWithoutArchive;
+    private long startupWithArchive;
+
+    private CourgetteClassDataSharing(File archiveDirectory, String archiveName, String sessionId) {
+        this.archiveFile = new File(archiveDirectory, archiveName + ".jsa");
+        this.statisticsFile = new File(archiveDirectory, archiveName + ".properties");
+        this.logFile = new File(archiveDirectory, archiveName + ".log");
+        this.sessionId = sessionId;
+    }
+
+    static CourgetteClassDataSharing create(CourgetteProperties courgetteProperties) {
+        final File archiveDirectory = new File(courgetteProperties.getCourgetteOptions().reportTargetDir(), ARCHIVE_DIRECTORY);
+        return new CourgetteClassDataSharing(archiveDirectory, "courgette-" + hash(courgetteProperties), courgetteProperties.getSessionId());
+    }
+
+    /**
+     * Creates the archive when it does not exist yet for the classpath and Java version.
+     *
+     * @param dryRunProcess builds a dry run of the features with the given JVM options
+     */
+    void prepare(Function<List<String>, ProcessBuilder> dryRunProcess) {
+        if (ProcessUtils.getJavaVersion() < MIN_JAVA_VERSION) {
+            printError("Courgette class data sharing needs Java " + MIN_JAVA_VERSION + " or later, the test runs will start without an archive");
+            return;
+        }
+
+        if (archiveFile.isFile() && loadStatistics()) {
+            archiveReady = true;
+            return;
+        }
+
+        archiveReady = createArchive(dryRunProcess);
+    }
+
+    /**
+     * @return the JVM options to start a test run JVM with the archive, or none when there is no archive
+     */
+    List<String> getJvmOptions() {
+        return archiveReady ? getArchiveOptions() : Collections.emptyList();
+    }
+
+    /**
+     * @return the JVM startup time of the dry run without and with the archive, or null when there is no archive
+     */
+    String getStartupSummary() {
+        if (!archiveReady) {
+            return null;
+        }
+
+        final long saving = startupWithoutArchive > 0 ? Math.round(100.0 * (startupWithoutArchive - startupWithArchive) / startupWithoutArchive) : 0;
+        return String.format("%d ms without archive, %d ms with archive (%d%% faster)", startupWithoutArchive, startupWithArchive, saving);
+    }
+
+    private boolean createArchive(Function<List<String>, ProcessBuilder> dryRunProcess) {
+        final File trainingFile = new File(archiveFile.getPath() + "." + sessionId + ".tmp");
+
+        archiveFile.getParentFile().mkdirs();
+        logFile.delete();
+
+        System.out.println("Courgette is creating a class data sharing archive: " + archiveFile.getPath());
+
+        final long trainingTime = runDryRun(dryRunProcess, Collections.singletonList("-XX:ArchiveClassesAtExit=" + trainingFile.getPath()));
+
+        if (trainingTime < 0 || !trainingFile.isFile()) {
+            trainingFile.delete();
+            printError("Courgette could not create the class data sharing archive, see " + logFile.getPath());
+            return false;
+        }
+
+        try {
+            Files.move(trainingFile.toPath(), archiveFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            printExceptionStackTrace(e);
+            trainingFile.delete();
+            return false;
+        }
+
+        startupWithoutArchive = runDryRun(dryRunProcess, Collections.emptyList());
+        startupWithArchive = runDryRun(dryRunProcess, getArchiveOptions());
+
+        if (startupWithoutArchive < 0 || startupWithArchive < 0) {
+            archiveFile.delete();
+            printError("Courgette could not start a dry run with the class data sharing archive, see " + logFile.getPath());
+            return false;
+        }
+
+        saveStatistics();
+        return true;
+    }
+
+    /**
+     * @return the duration of the dry run in milliseconds, or -1 when it could not be run
+     */
+    private long runDryRun(Function<List<String>, ProcessBuilder> dryRunProcess, List<String> jvmOptions) {
+        final ProcessBuilder builder = dryRunProcess.apply(jvmOptions)
+                .redirectOutput(ProcessBuilder.Redirect.appendTo(logFile))
+                .redirectErrorStream(true);
+
+        final long startTime = System.currentTimeMillis();
+        try {
+            final Process process = builder.start();
+
+            if (!process.waitFor(DRY_RUN_TIMEOUT_MINUTES, TimeUnit.MINUTES)) {
+                process.destroyForcibly();
+                return -1;
+            }
+            return System.currentTimeMillis() - startTime;
+        } catch (IOException e) {
+            printExceptionStackTrace(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return -1;
+    }
+
+    private List<String> getArchiveOptions() {
+        return Arrays.asList("-XX:SharedArchiveFile=" + archiveFile.getPath(), "-Xshare:auto");
+    }
+
+    private boolean loadStatistics() {
+        if (!statisticsFile.isFile()) {
+            return false;
+        }
+
+        try (InputStream in = Files.newInputStream(statisticsFile.toPath())) {
+            final Properties statistics = new Properties();
+            statistics.load(in);
+
+            startupWithoutArchive = Long.parseLong(statistics.getProperty(STARTUP_WITHOUT_ARCHIVE, "0"));
+            startupWithArchive = Long.parseLong(statistics.getProperty(STARTUP_WITH_ARCHIVE, "0"));
+            return true;
+        } catch (IOException | NumberFormatException e) {
+            return false;
+        }
+    }
+
+    private void saveStatistics() {
+        final Properties statistics = new Properties();
+        statistics.setProperty(STARTUP_WITHOUT_ARCHIVE, String.valueOf(startupWithoutArchive));
+        statistics.setProperty(STARTUP_WITH_ARCHIVE, String.valueOf(startupWithArchive));
+
+        try (OutputStream out = Files.newOutputStream(statisticsFile.toPath())) {
+            statistics.store(out, "Courgette class data sharing dry run durations in milliseconds");
+        } catch (IOException e) {
+            printExceptionStackTrace(e);
+        }
+    }
+
+    /**
+     * @return a hash of the Java runtime, the JVM options and the classpath, as the archive can only be used with the same ones
+     */
+    private static String hash(CourgetteProperties courgetteProperties) {
+        final String[] classPath = courgetteProperties.useCustomClasspath()
+                ? courgetteProperties.getCourgetteOptions().classPath()
+                : System.getProperty("java.class.path", "").split(File.pathSeparator);
+
+        try {
+            final MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            update(digest, System.getProperty("java.home", ""));
+            update(digest, System.getProperty("java.vm.version", ""));
+            update(digest, System.getProperty(CourgetteSystemProperty.VM_OPTIONS, ""));
+
+            for (String classPathEntry : classPath) {
+                update(digest, classPathEntry);
+                update(digest, CourgetteImpactAgent.fingerprint(new File(classPathEntry)));
+            }
+
+            final StringBuilder hex = new StringBuilder();
+            for (byte b : Arrays.copyOf(digest.digest(), 8)) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new CourgetteException(e);
+        }
+    }
+
+    private static void update(MessageDigest digest, String value) {
+        digest.update(value.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+    }
+}
@@ -0,0 +1,244 @@
+package courgette.runtime;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static courgette.runtime.CourgetteException.printError;
+import static courgette.runtime.CourgetteException.printExceptionStackTrace;
+
+/**
+ * Serves Cucumber jobs over TCP to {@link CourgetteAgent} processes, which may run on other hosts.
+ * <p>
+ * Each agent opens one connection per thread and sends the agent token as its first line, otherwise the connection is closed.
+ * While a job runs, the agent sends a heartbeat line; when neither a heartbeat nor the result arrives in time, the agent is
+ * considered gone.
+ * A job is sent to an idle connection as one json document per line and the agent replies with the worker result and the contents
+ * of the report files the job wrote, which are then written to their original paths so the reports can be processed as if the job
+ * had run locally. When an agent disconnects, its job is moved to another agent. When no agent is connected for the connect timeout,
+ * the remaining jobs fail.
+ */
+class CourgetteCoordinator implements CourgetteJobExecutor {
+    private static final List<String> FILE_PLUGINS = Arrays.asList("html", "json", "junit", "message", "rerun");
+
+    private final String address;
+    private final int port;
+    private final String token;
+    private final long connectTimeoutMillis;
+    private final BlockingQueue<CourgetteAgentConnection> idleAgents = new LinkedBlockingQueue<>();
+    private final List<CourgetteAgentConnection> agents = new CopyOnWriteArrayList<>();
+    private final ExecutorService acceptExecutor = Executors.newSingleThreadExecutor();
+    private final ExecutorService handshakeExecutor = Executors.newCachedThreadPool();
+
+    private ServerSocket serverSocket;
+    private volatile boolean shutdown;
+    private volatile long disconnectedSince;
+
+    CourgetteCoordinator(String address, int port, String token, int connectTimeoutSeconds) {
+        this.address = address;
+        this.port = port;
+        this.token = token;
+        this.connectTimeoutMillis = TimeUnit.SECONDS.toMillis(connectTimeoutSeconds);
+    }
+
+    @Override
+    public void start() {
+        try {
+            serverSocket = new ServerSocket(port, 50, InetAddress.getByName(address));
+        } catch (IOException e) {
+            throw new CourgetteException("Unable to start the Courgette coordinator on " + address + ":" + port, e);
+        }
+
+        printError("Courgette coordinator listening on " + address + ":" + serverSocket.getLocalPort() + ", waiting for agents to connect");
+        disconnectedSince = System.currentTimeMillis();
+
+        acceptExecutor.execute(() -> {
+            while (!shutdown) {
+                try {
+                    final Socket socket = serverSocket.accept();
+                    handshakeExecutor.execute(() -> connect(socket));
+                } catch (SocketException e) {
+                    // the server socket was closed
+                } catch (IOException e) {
+                    if (!shutdown) {
+                        printExceptionStackTrace(e);
+                    }
+                } catch (RejectedExecutionException e) {
+                    // the coordinator was shut down
+                }
+            }
+        });
+    }
+
+    /**
+     * Authenticates an accepted connection apart from the accept thread, so a slow client does not hold up the other agents.
+     */
+    private void connect(Socket socket) {
+        CourgetteAgentConnection agent = null;
+        try {
+            agent = new CourgetteAgentConnection(socket);
+
+            if (!agent.authenticate(token)) {
+                printError("Courgette agent " + agent.getAddress() + " sent an invalid agent token, closing the connection");
+                agent.close();
+                return;
+            }
+
+            agents.add(agent);
+            idleAgents.add(agent);
+            printError("Courgette agent connected: " + agent.getAddress());
+
+            if (shutdown) {
+                agent.close();
+            }
+        } catch (IOException e) {
+            if (!shutdown) {
+                printError("Courgette agent " + socket.getRemoteSocketAddress() + " did not complete the handshake, closing the connection");
+            }
+            try {
+                socket.close();
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    @Override
+    public CourgetteWorkerResult execute(CourgetteJob job) throws InterruptedException {
+        while (!shutdown) {
+            final CourgetteAgentConnection agent = idleAgents.poll(1, TimeUnit.SECONDS);
+            if (agent == null) {
+                if (isConnectTimeoutReached()) {
+                    break;
+                }
+                continue;
+            }
+
+            try {
+                final CourgetteAgentResult result = agent.execute(job);
+                writeFiles(job, result);
+                idleAgents.add(agent);
+                return result.getWorkerResult();
+            } catch (IOException e) {
+                agents.remove(agent);
+                agent.close();
+
+                if (agents.isEmpty()) {
+                    disconnectedSince = System.currentTimeMillis();
+                }
+
+                if (!shutdown) {
+                    printError("Courgette agent " + agent.getAddress() + (e instanceof SocketTimeoutException ? " stopped responding" : " disconnected")
+                            + ", moving its run to another agent");
+                }
+            }
+        }
+        return new CourgetteWorkerResult(-1);
+    }
+
+    @Override
+    public void cancel() {
+        // runs in progress on the agents are left to complete, their results are discarded
+        shutdown = true;
+        agents.forEach(CourgetteAgentConnection::close);
+    }
+
+    @Override
+    public void shutdown() {
+        shutdown = true;
+        acceptExecutor.shutdownNow();
+        handshakeExecutor.shutdownNow();
+        if (serverSocket != null) {
+            try {
+                serverSocket.close();
+            } catch (IOException ignored) {
+            }
+        }
+        agents.forEach(CourgetteAgentConnection::close);
+        agents.clear();
+        idleAgents.clear();
+    }
+
+    /**
+     * @return the local port the coordinator listens on, which is chosen by the system when the coordinator port is 0
+     */
+    int getLocalPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    private synchronized boolean isConnectTimeoutReached() {
+        if (shutdown || !agents.isEmpty() || System.currentTimeMillis() - disconnectedSince < connectTimeoutMillis) {
+            return shutdown;
+        }
+
+        printError(String.format("No Courgette agent connected to %s:%d within %d seconds, the remaining runs will fail",
+                address, serverSocket.getLocalPort(), TimeUnit.MILLISECONDS.toSeconds(connectTimeoutMillis)));
+        shutdown = true;
+        return true;
+    }
+
+    /**
+     * @return the paths of the report, test output and thread dump files a job may write
+     */
+    static Set<String> getJobFiles(CourgetteJob job) {
+        final Set<String> files = new LinkedHashSet<>();
+
+        final List<String> args = job.getArgs();
+        for (int i = 0; i < args.size() - 1; i++) {
+            if ("--plugin".equals(args.get(i)) || "-p".equals(args.get(i))) {
+                final String plugin = args.get(i + 1);
+                final int separator = plugin.indexOf(':');
+
+                if (separator > 0 && FILE_PLUGINS.contains(plugin.substring(0, separator)) && separator < plugin.length() - 1) {
+                    files.add(plugin.substring(separator + 1));
+                }
+            }
+        }
+
+        if (job.getOutputFile() != null) {
+            files.add(job.getOutputFile());
+        }
+
+        if (job.getThreadDumpFile() != null) {
+            files.add(job.getThreadDumpFile());
+        }
+        return files;
+    }
+
+    private void writeFiles(CourgetteJob job, CourgetteAgentResult result) {
+        final Set<String> jobFiles = getJobFiles(job);
+
+        for (String path : result.getFiles().keySet()) {
+            if (!jobFiles.contains(path)) {
+                printError("Courgette agent returned an unexpected file, it will be ignored: " + path);
+                continue;
+            }
+
+            try {
+                final File file = new File(path);
+                if (file.getParentFile() != null) {
+                    Files.createDirectories(file.getParentFile().toPath());
+                }
+                Files.write(file.toPath(), Base64.getDecoder().decode(result.getFiles().get(path)));
+            } catch (IOException | IllegalArgumentException e) {
+                printExceptionStackTrace(e);
+            }
+        }
+    }
+}
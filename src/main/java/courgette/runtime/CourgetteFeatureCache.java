@@ -0,0 +1,83 @@
+package courgette.runtime;
+
+import io.cucumber.core.feature.FeatureParser;
+import io.cucumber.core.gherkin.Feature;
+import io.cucumber.core.options.RuntimeOptions;
+import io.cucumber.core.runtime.FeaturePathFeatureSupplier;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * The features parsed by a JVM that runs many jobs, so each feature file is parsed once instead of once per job.
+ * <p>
+ * Features are kept by the feature paths of the job. The scenario lines and tag filters of each job are still applied
+ * by the Cucumber runtime to the pickles of the cached features.
+ * <p>
+ * Only the features of scenario runs are kept, as the scenarios of a feature run the same feature paths in several jobs;
+ * a feature run uses its feature paths once. The least recently used features are dropped once the cache is full,
+ * so the cache does not grow with the number of jobs a long-lived JVM runs.
+ */
+class CourgetteFeatureCache {
+    static final int MAX_ENTRIES = 64;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<List<URI>, List<Feature>> features = new LinkedHashMap<List<URI>, List<Feature>>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<List<URI>, List<Feature>> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    };
+
+    List<Feature> get(RuntimeOptions runtimeOptions, Supplier<ClassLoader> classLoader) {
+        if (runtimeOptions.getLineFilters().isEmpty()) {
+            return parse(runtimeOptions, classLoader);
+        }
+
+        final List<URI> featurePaths = new ArrayList<>(runtimeOptions.getFeaturePaths());
+
+        List<Feature> parsedFeatures = get(featurePaths);
+        if (parsedFeatures == null) {
+            parsedFeatures = parse(runtimeOptions, classLoader);
+            put(featurePaths, parsedFeatures);
+        }
+        return parsedFeatures;
+    }
+
+    int size() {
+        lock.lock();
+        try {
+            return features.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private List<Feature> get(List<URI> featurePaths) {
+        lock.lock();
+        try {
+            return features.get(featurePaths);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void put(List<URI> featurePaths, List<Feature> parsedFeatures) {
+        lock.lock();
+        try {
+            features.putIfAbsent(featurePaths, parsedFeatures);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private List<Feature> parse(RuntimeOptions runtimeOptions, Supplier<ClassLoader> classLoader) {
+        return new FeaturePathFeatureSupplier(classLoader, runtimeOptions, new FeatureParser(UUID::randomUUID)).get();
+    }
+}
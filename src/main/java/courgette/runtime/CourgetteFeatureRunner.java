@@ -1,119 +1,413 @@
 package courgette.runtime;
 
 import courgette.runtime.utils.FileUtils;
+import courgette.runtime.utils.ProcessUtils;
 
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.function.Predicate;
 
+import static courgette.runtime.CourgetteException.printError;
 import static courgette.runtime.CourgetteException.printExceptionStackTrace;
 import static courgette.runtime.utils.SystemPropertyUtils.splitAndAddPropertyToList;
 
 public class CourgetteFeatureRunner {
+    private static final String CUCUMBER_MAIN_CLASS = "io.cucumber.core.cli.Main";
+    private static final String COURGETTE_WORKER_CLASS = "courgette.runtime.CourgetteWorker";
+    private static final String CUCUMBER_PROPERTY = "-Dcucumber";
+    private static final String CUCUMBER_PROPERTY_PUBLISH_DISABLED = "-Dcucumber.publish.enabled=false";
+    private static final String CUCUMBER_PROPERTY_PUBLISH_QUITE = "-Dcucumber.publish.quiet=true";
+    private static final String CUCUMBER_PUBLISH_TOKEN = "CUCUMBER_PUBLISH_TOKEN";
+
+    private static final long USAGE_SAMPLE_INTERVAL_MILLIS = 1000L;
+    private static final ScheduledExecutorService USAGE_SAMPLER = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        final Thread thread = new Thread(runnable, "courgette-usage-sampler");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    static final int TIMED_OUT_EXIT_STATUS = -2;
+
     private final Map<String, List<String>> runnerArgs;
     private final CourgetteProperties courgetteProperties;
     private final CourgettePluginService courgettePluginService;
+    private final CourgetteJobExecutor courgetteJobExecutor;
+    private final CourgetteProcessRegistry courgetteProcessRegistry;
+    private final int timeout;
+    private final String impactFootprintFile;
+    private final CourgetteJvmArguments jvmArguments;
+    private final CourgetteTestOutputArchive testOutputArchive;
+    private final CourgetteScenarioBoundary scenarioBoundary;
+    private volatile long cpuTime;
+    private volatile long peakResidentMemory;
+    private CourgetteTestOutputArchive.Entry testOutput;
 
     CourgetteFeatureRunner(Map<String, List<String>> runnerArgs, CourgetteProperties courgetteProperties, CourgettePluginService courgettePluginService) {
+        this(runnerArgs, courgetteProperties, courgettePluginService, null, new CourgetteProcessRegistry(), null, null, null, null);
+    }
+
+    CourgetteFeatureRunner(Map<String, List<String>> runnerArgs, CourgetteProperties courgetteProperties, CourgettePluginService courgettePluginService,
+                           CourgetteJobExecutor courgetteJobExecutor, CourgetteProcessRegistry courgetteProcessRegistry, CourgetteRunnerInfo runnerInfo,
+                           CourgetteJvmArguments jvmArguments, CourgetteTestOutputArchive testOutputArchive, CourgetteScenarioBoundary scenarioBoundary) {
         this.runnerArgs = runnerArgs;
         this.courgetteProperties = courgetteProperties;
         this.courgettePluginService = courgettePluginService;
+        this.courgetteJobExecutor = courgetteJobExecutor;
+        this.courgetteProcessRegistry = courgetteProcessRegistry;
+        this.timeout = runnerInfo != null ? runnerInfo.getTimeout() : 0;
+        this.impactFootprintFile = runnerInfo != null ? runnerInfo.getImpactFootprintFile() : null;
+        this.jvmArguments = jvmArguments;
+        this.testOutputArchive = testOutputArchive;
+        this.scenarioBoundary = scenarioBoundary;
     }
 
     public int run() {
+        if (courgetteJobExecutor != null) {
+            return runJob();
+        }
+
         Process process = null;
+        CourgetteOutputBuffer outputBuffer = null;
+        int exitStatus = -1;
         Builder thisBuilder = new Builder();
         try {
             final ProcessBuilder builder = thisBuilder.buildProcess();
             process = builder.start();
-            process.waitFor();
-        } catch (IOException | InterruptedException e) {
+            courgetteProcessRegistry.register(process);
+
+            if (thisBuilder.isOutputBuffered()) {
+                outputBuffer = CourgetteOutputBuffer.pump(process.getInputStream());
+            }
+
+            final CompletableFuture<Process> exit = ProcessUtils.onExit(process);
+
+            // the usage is sampled apart from the run thread, which waits once for the JVM to exit or time out
+            final Process runProcess = process;
+            final ScheduledFuture<?> sampling = USAGE_SAMPLER.scheduleAtFixedRate(() -> sampleUsage(runProcess),
+                    0, USAGE_SAMPLE_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+
+            try {
+                if (timeout > 0) {
+                    exit.get(timeout, TimeUnit.SECONDS);
+                } else {
+                    exit.get();
+                }
+            } catch (TimeoutException e) {
+                printTimeout();
+                ProcessUtils.dumpThreadsAndDestroy(process, thisBuilder.getThreadDumpFile());
+                exitStatus = TIMED_OUT_EXIT_STATUS;
+                return exitStatus;
+            } finally {
+                sampling.cancel(false);
+            }
+            exitStatus = process.exitValue();
+        } catch (IOException | InterruptedException | ExecutionException e) {
             printExceptionStackTrace(e);
         } finally {
-            if (thisBuilder.getDevice().isPresent()) {
-                courgettePluginService.getCourgetteMobileDeviceAllocatorService().deallocateDevice(thisBuilder.getDevice().get());
+            if (process != null) {
+                courgetteProcessRegistry.unregister(process);
             }
+            if (outputBuffer != null && exitStatus != 0) {
+                writeTestOutput(outputBuffer, thisBuilder.getTestOutputFile(thisBuilder.testOutputFilePrefix()));
+            }
+            archiveTestOutput(thisBuilder);
+            deallocateDevice(thisBuilder);
         }
-        return process != null ? process.exitValue() : -1;
+        return exitStatus;
     }
 
-    class Builder {
-        private static final String CUCUMBER_PROPERTY = "-Dcucumber";
-        private static final String CUCUMBER_PROPERTY_PUBLISH_DISABLED = "-Dcucumber.publish.enabled=false";
-        private static final String CUCUMBER_PROPERTY_PUBLISH_QUITE = "-Dcucumber.publish.quiet=true";
-        private static final String CUCUMBER_PUBLISH_TOKEN = "CUCUMBER_PUBLISH_TOKEN";
+    static ProcessBuilder buildWorkerProcess(CourgetteProperties courgetteProperties, CourgettePluginService courgettePluginService,
+                                             CourgetteJvmArguments jvmArguments) {
+        return new CourgetteFeatureRunner(new HashMap<>(), courgetteProperties, courgettePluginService, null, new CourgetteProcessRegistry(), null, jvmArguments, null, null)
+                .new Builder().buildWorkerProcess();
+    }
+
+    /**
+     * @return the JVM options, forwarded system properties and classpath shared by all test run JVMs of the session
+     */
+    static List<String> buildSessionJvmArguments(CourgetteProperties courgetteProperties, CourgettePluginService courgettePluginService, List<String> jvmOptions) {
+        return new CourgetteFeatureRunner(new HashMap<>(), courgetteProperties, courgettePluginService).new Builder().createSessionJvmArguments(jvmOptions);
+    }
+
+    static ProcessBuilder buildDryRunProcess(Map<String, List<String>> runnerArgs, CourgetteProperties courgetteProperties, CourgettePluginService courgettePluginService,
+                                             List<String> jvmOptions) {
+        return new CourgetteFeatureRunner(runnerArgs, courgetteProperties, courgettePluginService).new Builder().buildDryRunProcess(jvmOptions);
+    }
+
+    private int runJob() {
+        Builder thisBuilder = new Builder();
+        try {
+            final CourgetteWorkerResult result = courgetteJobExecutor.execute(thisBuilder.buildJob());
+            final int exitStatus = result.getExitStatus();
+
+            cpuTime = result.getCpuTime();
+            peakResidentMemory = result.getPeakResidentMemory();
+
+            if (exitStatus == TIMED_OUT_EXIT_STATUS) {
+                printTimeout();
+            }
+            return exitStatus;
+        } catch (InterruptedException e) {
+            printExceptionStackTrace(e);
+        } finally {
+            archiveTestOutput(thisBuilder);
+            deallocateDevice(thisBuilder);
+        }
+        return -1;
+    }
+
+    /**
+     * @return the CPU time and peak resident memory of the JVM that ran the features, which is sampled while the JVM runs,
+     * so the last second before it exits may not be included
+     */
+    CourgetteProcessUsage getProcessUsage() {
+        return new CourgetteProcessUsage(cpuTime, peakResidentMemory);
+    }
+
+    private void sampleUsage(Process process) {
+        cpuTime = Math.max(cpuTime, ProcessUtils.getCpuTime(process).orElse(0L));
+        peakResidentMemory = Math.max(peakResidentMemory, ProcessUtils.getPeakResidentMemory(process).orElse(0L));
+    }
+
+    /**
+     * @return the entry of the test output of the run in the test output archive, or null when it was not archived
+     */
+    CourgetteTestOutputArchive.Entry getTestOutput() {
+        return testOutput;
+    }
+
+    private void archiveTestOutput(Builder builder) {
+        if (testOutputArchive != null) {
+            testOutput = testOutputArchive.add(builder.getTestOutputFile(builder.testOutputFilePrefix()));
+        }
+    }
+
+    private void writeTestOutput(CourgetteOutputBuffer outputBuffer, File testOutputFile) {
+        try {
+            outputBuffer.writeTo(testOutputFile);
+        } catch (IOException e) {
+            printExceptionStackTrace(e);
+        }
+    }
+
+    private void printTimeout() {
+        printError(String.format("Courgette run timed out after %d seconds: %s", timeout, runnerArgs.get(null).get(0)));
+    }
+
+    private void deallocateDevice(Builder builder) {
+        if (builder.getDevice().isPresent()) {
+            courgettePluginService.getCourgetteMobileDeviceAllocatorService().deallocateDevice(builder.getDevice().get());
+        }
+    }
+
+    /**
+     * Removes the Cucumber system properties of the parent JVM from the system properties of a child JVM and disables publishing.
+     */
+    static void replaceCucumberSystemProperties(List<String> systemPropertyList) {
+        systemPropertyList.removeIf(cucumberSystemPropertiesRequiresRemoval());
+        systemPropertyList.add(CUCUMBER_PROPERTY_PUBLISH_DISABLED);
+        systemPropertyList.add(CUCUMBER_PROPERTY_PUBLISH_QUITE);
+    }
+
+    static void removeCucumberEnvironmentVariables(ProcessBuilder builder) {
+        builder.environment().remove(CUCUMBER_PUBLISH_TOKEN);
+    }
+
+    private static Predicate<String> cucumberSystemPropertiesRequiresRemoval() {
+        return (s) -> s.startsWith(CUCUMBER_PROPERTY) || s.contains(CUCUMBER_PUBLISH_TOKEN);
+    }
 
+    class Builder {
         private CourgetteMobileDevice device;
+        private boolean outputBuffered;
 
         ProcessBuilder buildProcess() {
             final ProcessBuilder builder = new ProcessBuilder();
 
-            environmentVariablesToRemove().forEach(builder.environment()::remove);
+            removeCucumberEnvironmentVariables(builder);
 
             switch (courgetteProperties.getCourgetteOptions().testOutput()) {
                 case CONSOLE:
                     builder.redirectOutput(ProcessBuilder.Redirect.INHERIT);
                     break;
                 case FILE:
-                    String filePrefix = (runnerArgs.get("retry") != null ? "retry_" : "");
-                    builder.redirectOutput(getTestOutputFile(filePrefix));
+                    builder.redirectOutput(getTestOutputFile(testOutputFilePrefix()));
+                    break;
+                case ON_FAILURE:
+                    if (isRerun()) {
+                        builder.redirectOutput(getTestOutputFile(testOutputFilePrefix()));
+                    } else {
+                        outputBuffered = true;
+                    }
                     break;
             }
 
             builder.redirectErrorStream(true);
-            final List<String> commands = new ArrayList<>();
-            commands.add("java");
-            splitAndAddPropertyToList(CourgetteSystemProperty.VM_OPTIONS, commands);
-            commands.addAll(getSystemProperties());
-            checkCustomClassPath(commands);
-            commands.add("io.cucumber.core.cli.Main");
+            final List<String> commands = createJvmCommands();
+            commands.addAll(getDeviceSystemProperties());
+            commands.addAll(getScenarioBoundarySystemProperties());
+            addImpactAgent(commands);
+            commands.add(CUCUMBER_MAIN_CLASS);
+            runnerArgs.forEach((key, value) -> commands.addAll(value));
+            builder.command(commands);
+            return builder;
+        }
+
+        ProcessBuilder buildWorkerProcess() {
+            final ProcessBuilder builder = new ProcessBuilder();
+
+            removeCucumberEnvironmentVariables(builder);
+
+            builder.redirectError(ProcessBuilder.Redirect.INHERIT);
+            final List<String> commands = createJvmCommands();
+            commands.add(COURGETTE_WORKER_CLASS);
+            builder.command(commands);
+            return builder;
+        }
+
+        /**
+         * Builds a Cucumber JVM that is not a test run, such as the dry run that creates the class data sharing archive.
+         */
+        ProcessBuilder buildDryRunProcess(List<String> jvmOptions) {
+            final ProcessBuilder builder = new ProcessBuilder();
+
+            removeCucumberEnvironmentVariables(builder);
+
+            final List<String> commands = createJvmCommands();
+            commands.addAll(jvmOptions);
+            commands.add(CUCUMBER_MAIN_CLASS);
             runnerArgs.forEach((key, value) -> commands.addAll(value));
             builder.command(commands);
             return builder;
         }
 
+        CourgetteJob buildJob() {
+            final List<String> args = new ArrayList<>();
+            runnerArgs.forEach((key, value) -> args.addAll(value));
+
+            final CourgetteJob job = new CourgetteJob(args, getCourgetteMobileDeviceAllocatorProperties());
+
+            if (scenarioBoundary != null) {
+                job.getSystemProperties().putAll(scenarioBoundary.getSystemProperties());
+            }
+
+            switch (courgetteProperties.getCourgetteOptions().testOutput()) {
+                case FILE:
+                    job.setOutputFile(getTestOutputFile(testOutputFilePrefix()).getPath());
+                    break;
+                case DISCARD:
+                    job.setDiscardOutput(true);
+                    break;
+                case ON_FAILURE:
+                    if (isRerun()) {
+                        job.setOutputFile(getTestOutputFile(testOutputFilePrefix()).getPath());
+                    } else {
+                        job.setOutputFile(getBufferedTestOutputFile().getPath());
+                        job.setOutputOnFailure(true);
+                    }
+                    break;
+            }
+
+            job.setTimeout(timeout);
+            job.setThreadDumpFile(getThreadDumpFile().getPath());
+            return job;
+        }
+
+        /**
+         * Attaches the test impact agent to the first attempt of a run; re-runs are not recorded.
+         */
+        private void addImpactAgent(List<String> commands) {
+            if (courgetteProperties.getCourgetteOptions().testImpactAnalysis() && impactFootprintFile != null && runnerArgs.get("retry") == null) {
+                final File agentJar = CourgetteImpactAgent.getAgentJar();
+
+                if (agentJar != null) {
+                    commands.add(String.format("-javaagent:%s=%s", agentJar.getPath(), impactFootprintFile));
+                }
+            }
+        }
+
+        /**
+         * @return true when the test output of the process is kept in memory and only written to a file when the run fails
+         */
+        boolean isOutputBuffered() {
+            return outputBuffered;
+        }
+
+        /**
+         * The test output of re-runs is always written to a file, so it can be compared with the output of the failed run.
+         */
+        private boolean isRerun() {
+            return runnerArgs.get("retry") != null;
+        }
+
         public Optional<CourgetteMobileDevice> getDevice() {
             return Optional.ofNullable(device);
         }
 
-        private List<String> getSystemProperties() {
+        private List<String> createJvmCommands() {
+            final List<String> commands = new ArrayList<>();
+            commands.add("java");
+            commands.addAll(jvmArguments != null ? jvmArguments.getArguments() : createSessionJvmArguments(Collections.emptyList()));
+            return commands;
+        }
+
+        private List<String> createSessionJvmArguments(List<String> jvmOptions) {
+            final List<String> arguments = new ArrayList<>();
+            splitAndAddPropertyToList(CourgetteSystemProperty.VM_OPTIONS, arguments);
+            arguments.addAll(jvmOptions);
+            arguments.addAll(getSessionSystemProperties());
+            checkCustomClassPath(arguments);
+            return arguments;
+        }
+
+        private List<String> getDeviceSystemProperties() {
             final List<String> systemPropertyList = new ArrayList<>();
-            System.getProperties().keySet().forEach(property -> systemPropertyList.add(String.format("-D%s=%s", property, System.getProperty(property.toString()))));
-            systemPropertyList.removeIf(cucumberSystemPropertiesRequiresRemoval());
-            addCucumberSystemProperties(systemPropertyList);
-            addCourgetteMobileDeviceAllocatorProperties(systemPropertyList);
+            getCourgetteMobileDeviceAllocatorProperties().forEach((key, value) -> systemPropertyList.add(String.format("-D%s=%s", key, value)));
             return systemPropertyList;
         }
 
-        private void addCucumberSystemProperties(final List<String> systemPropertyList) {
-            systemPropertyList.add(CUCUMBER_PROPERTY_PUBLISH_DISABLED);
-            systemPropertyList.add(CUCUMBER_PROPERTY_PUBLISH_QUITE);
+        private List<String> getScenarioBoundarySystemProperties() {
+            final List<String> systemPropertyList = new ArrayList<>();
+
+            if (scenarioBoundary != null) {
+                scenarioBoundary.getSystemProperties().forEach((key, value) -> systemPropertyList.add(String.format("-D%s=%s", key, value)));
+            }
+            return systemPropertyList;
+        }
+
+        private List<String> getSessionSystemProperties() {
+            final List<String> systemPropertyList = new ArrayList<>();
+            System.getProperties().keySet().forEach(property -> systemPropertyList.add(String.format("-D%s=%s", property, System.getProperty(property.toString()))));
+            replaceCucumberSystemProperties(systemPropertyList);
+            return systemPropertyList;
         }
 
-        private void addCourgetteMobileDeviceAllocatorProperties(final List<String> systemPropertyList) {
+        private Map<String, String> getCourgetteMobileDeviceAllocatorProperties() {
+            final Map<String, String> deviceProperties = new HashMap<>();
+
             if (courgetteProperties.isMobileDeviceAllocationPluginEnabled()) {
                 device = courgettePluginService.getCourgetteMobileDeviceAllocatorService().allocateDevice();
-                systemPropertyList.add(String.format("-D%s=%s", CourgetteSystemProperty.DEVICE_NAME_SYSTEM_PROPERTY, device.getDeviceName()));
-                systemPropertyList.add(String.format("-D%s=%s", CourgetteSystemProperty.PARALLEL_PORT_SYSTEM_PROPERTY, device.getParallelPort()));
+                deviceProperties.put(CourgetteSystemProperty.DEVICE_NAME_SYSTEM_PROPERTY, device.getDeviceName());
+                deviceProperties.put(CourgetteSystemProperty.PARALLEL_PORT_SYSTEM_PROPERTY, String.valueOf(device.getParallelPort()));
                 if (device.getUdid() != null) {
-                    systemPropertyList.add(String.format("-D%s=%s", CourgetteSystemProperty.UDID_SYSTEM_PROPERTY, device.getUdid()));
+                    deviceProperties.put(CourgetteSystemProperty.UDID_SYSTEM_PROPERTY, device.getUdid());
                 }
             }
-        }
-
-        private Predicate<String> cucumberSystemPropertiesRequiresRemoval() {
-            return (s) -> s.startsWith(CUCUMBER_PROPERTY) || s.contains(CUCUMBER_PUBLISH_TOKEN);
-        }
-
-        private List<String> environmentVariablesToRemove() {
-            final List<String> environment = new ArrayList<>();
-            environment.add(CUCUMBER_PUBLISH_TOKEN);
-            return environment;
+            return deviceProperties;
         }
 
         private void checkCustomClassPath(List<String> commands) {
@@ -124,7 +418,15 @@ public class CourgetteFeatureRunner {
             }
         }
 
+        private String testOutputFilePrefix() {
+            return runnerArgs.get("retry") != null ? "retry_" : "";
+        }
+
         private File getTestOutputFile(String prefix) {
+            if (testOutputArchive != null) {
+                return testOutputArchive.getStagingFile(testOutputFilename(prefix));
+            }
+
             final File testOutputFile = new File(testOutputDirectory() + testOutputFilename(prefix));
             if (FileUtils.createFile(testOutputFile)) {
                 return testOutputFile;
@@ -132,6 +434,21 @@ public class CourgetteFeatureRunner {
             return new File(FileUtils.formatFilePath(courgetteProperties.getCourgetteOptions().reportTargetDir()) + testOutputFilename(prefix));
         }
 
+        /**
+         * @return the test output file of a run that only writes its test output when it fails, which is not created up front
+         */
+        private File getBufferedTestOutputFile() {
+            if (testOutputArchive != null) {
+                return testOutputArchive.getStagingFile(testOutputFilename(testOutputFilePrefix()));
+            }
+            return new File(testOutputDirectory() + testOutputFilename(testOutputFilePrefix()));
+        }
+
+        private File getThreadDumpFile() {
+            final String target = courgetteProperties.getCourgetteOptions().reportTargetDir();
+            return new File(FileUtils.formatFilePath(target) + "courgette-thread-dumps" + File.separator + testOutputFilename(testOutputFilePrefix()).replace(".log", ".txt"));
+        }
+
         private String testOutputDirectory() {
             final String target = courgetteProperties.getCourgetteOptions().reportTargetDir();
             final File testOutputDirectory = new File(FileUtils.formatFilePath(target) + "courgette-test-output");
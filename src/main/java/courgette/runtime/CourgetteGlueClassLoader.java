@@ -0,0 +1,46 @@
+package courgette.runtime;
+
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.List;
+
+/**
+ * Loads the classes of the glue packages itself (child first) so each run gets its own copy of the glue
+ * and its static state. All other classes, including Cucumber, are loaded by the parent class loader.
+ */
+class CourgetteGlueClassLoader extends URLClassLoader {
+    private final List<String> gluePackages;
+
+    CourgetteGlueClassLoader(URL[] urls, List<String> gluePackages, ClassLoader parent) {
+        super(urls, parent);
+        this.gluePackages = gluePackages;
+    }
+
+    @Override
+    protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+        if (!isGlueClass(name)) {
+            return super.loadClass(name, resolve);
+        }
+
+        synchronized (getClassLoadingLock(name)) {
+            Class<?> glueClass = findLoadedClass(name);
+
+            if (glueClass == null) {
+                try {
+                    glueClass = findClass(name);
+                } catch (ClassNotFoundException e) {
+                    glueClass = super.loadClass(name, false);
+                }
+            }
+
+            if (resolve) {
+                resolveClass(glueClass);
+            }
+            return glueClass;
+        }
+    }
+
+    private boolean isGlueClass(String className) {
+        return gluePackages.stream().anyMatch(gluePackage -> className.startsWith(gluePackage + "."));
+    }
+}
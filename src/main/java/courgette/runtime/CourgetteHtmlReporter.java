@@ -82,6 +82,9 @@ public class CourgetteHtmlReporter {
         reportData.put("duration", testStatistics.duration());
         reportData.put("threads", courgetteProperties.getMaxThreads());
         reportData.put("run_level", courgetteProperties.getCourgetteOptions().runLevel().toString());
+        reportData.put("class_data_sharing", testStatistics.classDataSharing());
+        reportData.put("cpu_time", testStatistics.cpuTime());
+        reportData.put("peak_memory", testStatistics.peakMemory());
         reportData.put("cucumber_report", cucumberReportUrl);
         reportData.put("os_name", System.getProperty("os.name"));
         reportData.put("os_arch", System.getProperty("os.arch"));
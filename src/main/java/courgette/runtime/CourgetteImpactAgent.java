@@ -0,0 +1,124 @@
+package courgette.runtime;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.instrument.Instrumentation;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.CodeSource;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * A Java agent that Courgette attaches to each Cucumber JVM when test impact analysis is enabled.
+ * <p>
+ * When the JVM exits, the agent writes the class footprint of the run to the file given as the agent argument:
+ * every class file and jar the loaded application, glue and library classes came from, with a fingerprint of its contents.
+ * Classes of the JDK are not recorded.
+ */
+public final class CourgetteImpactAgent {
+
+    private CourgetteImpactAgent() {
+    }
+
+    public static void premain(String footprintFile, Instrumentation instrumentation) {
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> writeFootprint(new File(footprintFile), instrumentation)));
+    }
+
+    /**
+     * @return the Courgette jar that holds this agent, or null when Courgette is not loaded from a jar
+     */
+    static File getAgentJar() {
+        try {
+            final CodeSource codeSource = CourgetteImpactAgent.class.getProtectionDomain().getCodeSource();
+            final File agentJar = codeSource != null ? new File(codeSource.getLocation().toURI()) : null;
+            return agentJar != null && agentJar.isFile() && agentJar.getName().endsWith(".jar") ? agentJar : null;
+        } catch (URISyntaxException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * @return a fingerprint of the file contents: a hash of a class file, or the size and modification time of a jar
+     */
+    static String fingerprint(File file) {
+        if (!file.isFile()) {
+            return "";
+        }
+
+        if (!file.getName().endsWith(".class")) {
+            return file.length() + "-" + file.lastModified();
+        }
+
+        try (InputStream in = Files.newInputStream(file.toPath())) {
+            final MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            final byte[] buffer = new byte[8192];
+
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+
+            final StringBuilder hex = new StringBuilder();
+            for (byte b : digest.digest()) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        } catch (IOException | NoSuchAlgorithmException e) {
+            return "";
+        }
+    }
+
+    private static void writeFootprint(File footprintFile, Instrumentation instrumentation) {
+        final Map<String, String> footprint = new TreeMap<>();
+
+        for (Class<?> loadedClass : instrumentation.getAllLoadedClasses()) {
+            final File classSource = getClassSource(loadedClass);
+
+            if (classSource != null && !footprint.containsKey(classSource.getPath())) {
+                footprint.put(classSource.getPath(), fingerprint(classSource));
+            }
+        }
+
+        final List<String> lines = new ArrayList<>();
+        footprint.forEach((path, fingerprint) -> lines.add(path + "\t" + fingerprint));
+
+        try {
+            Files.write(footprintFile.toPath(), lines, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private static File getClassSource(Class<?> loadedClass) {
+        try {
+            if (loadedClass.getClassLoader() == null || loadedClass.getProtectionDomain() == null) {
+                return null;
+            }
+
+            final CodeSource codeSource = loadedClass.getProtectionDomain().getCodeSource();
+            final URL location = codeSource != null ? codeSource.getLocation() : null;
+
+            if (location == null || !"file".equals(location.getProtocol())) {
+                return null;
+            }
+
+            final File source = new File(location.toURI());
+
+            if (source.isDirectory()) {
+                final File classFile = new File(source, loadedClass.getName().replace('.', File.separatorChar) + ".class");
+                return classFile.isFile() ? classFile : null;
+            }
+            return source.isFile() ? source : null;
+        } catch (URISyntaxException | RuntimeException e) {
+            return null;
+        }
+    }
+}
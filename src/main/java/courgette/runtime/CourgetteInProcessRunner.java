@@ -0,0 +1,313 @@
+package courgette.runtime;
+
+import io.cucumber.core.options.CommandlineOptionsParser;
+import io.cucumber.core.options.CucumberProperties;
+import io.cucumber.core.options.CucumberPropertiesParser;
+import io.cucumber.core.options.RuntimeOptions;
+import io.cucumber.core.runtime.Runtime;
+import io.cucumber.plugin.ConcurrentEventListener;
+import io.cucumber.plugin.event.TestCaseStarted;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static courgette.runtime.CourgetteException.printError;
+import static courgette.runtime.CourgetteException.printExceptionStackTrace;
+
+/**
+ * Runs each job inside the parent JVM.
+ * <p>
+ * The glue packages of every job are loaded by a new {@link CourgetteGlueClassLoader} and the Cucumber runtime
+ * is driven directly, so report files and the rerun file are created by the same Cucumber plugins as a forked run.
+ * Feature files are parsed once and shared by the jobs that run the same features.
+ * The test output of each job is routed per thread to the console, a file or nowhere.
+ * <p>
+ * Only the packages given with {@code --glue} are isolated; when a job has no glue option, its glue is loaded by the parent
+ * class loader and shared by all jobs. When the jobs are cancelled, their threads are interrupted and each runtime stops
+ * before its next scenario.
+ * <p>
+ * Like a forked run, the jobs do not inherit the Cucumber plugin and publish properties of the parent JVM, and never publish reports.
+ */
+class CourgetteInProcessRunner implements CourgetteJobExecutor {
+    private static final String GLUE_OPTION = "--glue";
+    private static final String CLASSPATH_PREFIX = "classpath:";
+    private static final String PLUGIN_PROPERTY = "cucumber.plugin";
+    private static final String PUBLISH_PROPERTY = "cucumber.publish";
+    private static final String PUBLISH_ENABLED_PROPERTY = "cucumber.publish.enabled";
+    private static final String PUBLISH_QUIET_PROPERTY = "cucumber.publish.quiet";
+
+    private final CourgetteProperties courgetteProperties;
+    private final CourgetteFeatureCache featureCache = new CourgetteFeatureCache();
+    private final Set<Thread> jobThreads = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean sharedGlueWarning = new AtomicBoolean();
+
+    private URL[] classPath;
+    private PrintStream systemOut;
+    private PrintStream systemErr;
+    private ThreadOutputStream threadOut;
+    private ThreadOutputStream threadErr;
+    private volatile boolean cancelled;
+
+    CourgetteInProcessRunner(CourgetteProperties courgetteProperties) {
+        this.courgetteProperties = courgetteProperties;
+    }
+
+    @Override
+    public void start() {
+        classPath = createClassPath();
+
+        systemOut = System.out;
+        systemErr = System.err;
+        threadOut = new ThreadOutputStream(systemOut);
+        threadErr = new ThreadOutputStream(systemErr);
+
+        System.setOut(new PrintStream(threadOut, true));
+        System.setErr(new PrintStream(threadErr, true));
+    }
+
+    @Override
+    public CourgetteWorkerResult execute(CourgetteJob job) {
+        if (cancelled) {
+            return new CourgetteWorkerResult(-1);
+        }
+
+        final CourgetteOutputBuffer outputBuffer = job.isOutputOnFailure() ? new CourgetteOutputBuffer() : null;
+        final OutputStream output = outputBuffer != null ? outputBuffer : createOutput(job);
+        final ClassLoader contextClassLoader = Thread.currentThread().getContextClassLoader();
+        final List<String> gluePackages = getGluePackages(job.getArgs());
+
+        if (gluePackages.isEmpty() && sharedGlueWarning.compareAndSet(false, true)) {
+            printError("Courgette in-process runs without a --glue option share their glue classes, set the Cucumber glue option to isolate them");
+        }
+
+        int exitStatus;
+        jobThreads.add(Thread.currentThread());
+        try (CourgetteGlueClassLoader glueClassLoader = new CourgetteGlueClassLoader(classPath, gluePackages, contextClassLoader)) {
+            threadOut.route(output);
+            threadErr.route(output);
+            Thread.currentThread().setContextClassLoader(glueClassLoader);
+
+            final RuntimeOptions propertiesFileOptions = new CucumberPropertiesParser()
+                    .parse(withoutRunnerProperties(CucumberProperties.fromPropertiesFile()))
+                    .build();
+
+            final RuntimeOptions environmentOptions = new CucumberPropertiesParser()
+                    .parse(withoutRunnerProperties(CucumberProperties.fromEnvironment()))
+                    .build(propertiesFileOptions);
+
+            final Map<String, String> systemProperties = withoutRunnerProperties(CucumberProperties.fromSystemProperties());
+            systemProperties.put(PUBLISH_ENABLED_PROPERTY, "false");
+            systemProperties.put(PUBLISH_QUIET_PROPERTY, "true");
+
+            final RuntimeOptions systemOptions = new CucumberPropertiesParser()
+                    .parse(systemProperties)
+                    .build(environmentOptions);
+
+            final RuntimeOptions runtimeOptions = new CommandlineOptionsParser(System.out)
+                    .parse(job.getArgs().toArray(new String[0]))
+                    .build(systemOptions);
+
+            final Runtime runtime = Runtime.builder()
+                    .withRuntimeOptions(runtimeOptions)
+                    .withClassLoader(() -> glueClassLoader)
+                    .withFeatureSupplier(() -> featureCache.get(runtimeOptions, () -> glueClassLoader))
+                    .withAdditionalPlugins(cancellationListener())
+                    .build();
+
+            runtime.run();
+            exitStatus = cancelled ? -1 : runtime.exitStatus();
+        } catch (Throwable throwable) {
+            if (!cancelled) {
+                throwable.printStackTrace();
+            }
+            exitStatus = -1;
+        } finally {
+            jobThreads.remove(Thread.currentThread());
+            // the interrupt of a cancelled job is not passed on to the thread that runs the next job
+            Thread.interrupted();
+            Thread.currentThread().setContextClassLoader(contextClassLoader);
+            threadOut.reset();
+            threadErr.reset();
+            closeOutput(output);
+        }
+
+        if (outputBuffer != null && exitStatus != 0) {
+            try {
+                outputBuffer.writeTo(new File(job.getOutputFile()));
+            } catch (IOException e) {
+                printExceptionStackTrace(e);
+            }
+        }
+        return new CourgetteWorkerResult(exitStatus);
+    }
+
+    /**
+     * Interrupts the running jobs, so steps that wait or sleep return early, and stops their runtimes before the next scenario.
+     */
+    @Override
+    public void cancel() {
+        cancelled = true;
+        jobThreads.forEach(Thread::interrupt);
+    }
+
+    @Override
+    public void shutdown() {
+        if (systemOut != null) {
+            System.setOut(systemOut);
+            System.setErr(systemErr);
+        }
+    }
+
+    /**
+     * @return a plugin that stops the runtime of a cancelled job before its next scenario, which Cucumber reports as an error of the run
+     */
+    private ConcurrentEventListener cancellationListener() {
+        return publisher -> publisher.registerHandlerFor(TestCaseStarted.class, event -> {
+            if (cancelled) {
+                throw new CourgetteException("Courgette cancelled the run");
+            }
+        });
+    }
+
+    /**
+     * @return the Cucumber properties without the plugin and publish properties of the parent JVM, like the system properties
+     * and environment of a forked run; environment variable names are converted to property names
+     */
+    private static Map<String, String> withoutRunnerProperties(Map<String, String> properties) {
+        final Map<String, String> filtered = new HashMap<>();
+
+        properties.forEach((key, value) -> {
+            final String name = key.toLowerCase(Locale.ROOT).replace('_', '.');
+
+            if (!name.startsWith(PLUGIN_PROPERTY) && !name.startsWith(PUBLISH_PROPERTY)) {
+                filtered.put(name, value);
+            }
+        });
+        return filtered;
+    }
+
+    private URL[] createClassPath() {
+        final List<String> classPathEntries = courgetteProperties.useCustomClasspath()
+                ? Arrays.asList(courgetteProperties.getCourgetteOptions().classPath())
+                : Arrays.asList(System.getProperty("java.class.path").split(File.pathSeparator));
+
+        final List<URL> urls = new ArrayList<>();
+
+        classPathEntries.forEach(entry -> {
+            if (entry.endsWith("*")) {
+                final File[] jars = new File(entry.substring(0, entry.length() - 1)).listFiles((dir, name) -> name.endsWith(".jar"));
+                if (jars != null) {
+                    Arrays.stream(jars).forEach(jar -> addClassPathUrl(jar, urls));
+                }
+            } else if (!entry.trim().isEmpty()) {
+                addClassPathUrl(new File(entry), urls);
+            }
+        });
+        return urls.toArray(new URL[0]);
+    }
+
+    private void addClassPathUrl(File file, List<URL> urls) {
+        try {
+            urls.add(file.toURI().toURL());
+        } catch (MalformedURLException e) {
+            printExceptionStackTrace(e);
+        }
+    }
+
+    private List<String> getGluePackages(List<String> args) {
+        final List<String> gluePackages = new ArrayList<>();
+
+        for (int i = 0; i < args.size() - 1; i++) {
+            if (GLUE_OPTION.equals(args.get(i))) {
+                final String gluePackage = args.get(i + 1).replace(CLASSPATH_PREFIX, "").replace("/", ".").replaceAll("^\\.+|\\.+$", "");
+                if (!gluePackage.isEmpty()) {
+                    gluePackages.add(gluePackage);
+                }
+            }
+        }
+        return gluePackages;
+    }
+
+    private OutputStream createOutput(CourgetteJob job) {
+        if (job.getOutputFile() != null) {
+            try {
+                return new FileOutputStream(job.getOutputFile(), false);
+            } catch (IOException e) {
+                printExceptionStackTrace(e);
+            }
+        }
+
+        if (job.isDiscardOutput()) {
+            return new OutputStream() {
+                @Override
+                public void write(int b) {
+                }
+
+                @Override
+                public void write(byte[] b, int off, int len) {
+                }
+            };
+        }
+        return null;
+    }
+
+    private void closeOutput(OutputStream output) {
+        if (output != null) {
+            try {
+                output.close();
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    private static class ThreadOutputStream extends OutputStream {
+        private final OutputStream defaultOutput;
+        private final InheritableThreadLocal<OutputStream> output = new InheritableThreadLocal<>();
+
+        ThreadOutputStream(OutputStream defaultOutput) {
+            this.defaultOutput = defaultOutput;
+        }
+
+        void route(OutputStream threadOutput) {
+            output.set(threadOutput);
+        }
+
+        void reset() {
+            output.remove();
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            current().write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            current().write(b, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            current().flush();
+        }
+
+        private OutputStream current() {
+            final OutputStream threadOutput = output.get();
+            return threadOutput != null ? threadOutput : defaultOutput;
+        }
+    }
+}
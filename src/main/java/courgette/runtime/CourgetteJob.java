@@ -0,0 +1,83 @@
+package courgette.runtime;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class CourgetteJob {
+    private List<String> args = new ArrayList<>();
+    private Map<String, String> systemProperties = new HashMap<>();
+    private String outputFile;
+    private boolean discardOutput;
+    private boolean outputOnFailure;
+    private int timeout;
+    private String threadDumpFile;
+
+    public CourgetteJob() {
+    }
+
+    CourgetteJob(List<String> args, Map<String, String> systemProperties) {
+        this.args = args;
+        this.systemProperties = systemProperties;
+    }
+
+    public List<String> getArgs() {
+        return args;
+    }
+
+    public void setArgs(List<String> args) {
+        this.args = args;
+    }
+
+    public Map<String, String> getSystemProperties() {
+        return systemProperties;
+    }
+
+    public void setSystemProperties(Map<String, String> systemProperties) {
+        this.systemProperties = systemProperties;
+    }
+
+    public String getOutputFile() {
+        return outputFile;
+    }
+
+    public void setOutputFile(String outputFile) {
+        this.outputFile = outputFile;
+    }
+
+    public boolean isDiscardOutput() {
+        return discardOutput;
+    }
+
+    public void setDiscardOutput(boolean discardOutput) {
+        this.discardOutput = discardOutput;
+    }
+
+    /**
+     * @return true to keep the output in memory and only write it to the output file when the job fails
+     */
+    public boolean isOutputOnFailure() {
+        return outputOnFailure;
+    }
+
+    public void setOutputOnFailure(boolean outputOnFailure) {
+        this.outputOnFailure = outputOnFailure;
+    }
+
+    public int getTimeout() {
+        return timeout;
+    }
+
+    public void setTimeout(int timeout) {
+        this.timeout = timeout;
+    }
+
+    public String getThreadDumpFile() {
+        return threadDumpFile;
+    }
+
+    public void setThreadDumpFile(String threadDumpFile) {
+        this.threadDumpFile = threadDumpFile;
+    }
+}
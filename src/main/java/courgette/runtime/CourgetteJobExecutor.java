@@ -0,0 +1,18 @@
+package courgette.runtime;
+
+/**
+ * Runs Cucumber jobs without starting a new JVM process for each job.
+ */
+interface CourgetteJobExecutor {
+
+    void start();
+
+    CourgetteWorkerResult execute(CourgetteJob job) throws InterruptedException;
+
+    /**
+     * Stops the jobs that are running; they return a non-zero exit status.
+     */
+    void cancel();
+
+    void shutdown();
+}
@@ -0,0 +1,72 @@
+package courgette.runtime;
+
+import courgette.runtime.utils.ProcessUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static courgette.runtime.CourgetteException.printExceptionStackTrace;
+
+/**
+ * The JVM arguments shared by all test run JVMs of a session: the JVM options, the forwarded system properties and the classpath.
+ * <p>
+ * They are built once per session and written to a JVM argument file, so each JVM is started with {@code java @argfile} instead of
+ * a command line that can exceed the length limit of the platform on large classpaths. Argument files are supported by the java
+ * launcher of Java 9 and later; on Java 8 the arguments are passed on the command line.
+ */
+class CourgetteJvmArguments {
+    private static final int MIN_JAVA_VERSION = 9;
+
+    private final List<String> arguments;
+    private final File argFile;
+
+    private CourgetteJvmArguments(List<String> arguments, File argFile) {
+        this.arguments = arguments;
+        this.argFile = argFile;
+    }
+
+    static CourgetteJvmArguments create(CourgetteProperties courgetteProperties, List<String> arguments) {
+        if (ProcessUtils.getJavaVersion() >= MIN_JAVA_VERSION) {
+            try {
+                final File argFile = File.createTempFile("courgette-" + courgetteProperties.getSessionId() + "-", ".args");
+                argFile.deleteOnExit();
+
+                // the java launcher reads argument files in the default encoding of the platform
+                Files.write(argFile.toPath(), arguments.stream().map(CourgetteJvmArguments::quote).collect(Collectors.toList()), Charset.defaultCharset());
+
+                return new CourgetteJvmArguments(Collections.singletonList("@" + argFile.getPath()), argFile);
+            } catch (IOException e) {
+                printExceptionStackTrace(e);
+            }
+        }
+        return new CourgetteJvmArguments(Collections.unmodifiableList(arguments), null);
+    }
+
+    /**
+     * @return the arguments to add after the java command
+     */
+    List<String> getArguments() {
+        return arguments;
+    }
+
+    void delete() {
+        if (argFile != null) {
+            argFile.delete();
+        }
+    }
+
+    private static String quote(String argument) {
+        return "\"" + argument
+                .replace("\\", "\\\\")
+                .replace("\"", "\\\"")
+                .replace("\n", "\\n")
+                .replace("\r", "\\r")
+                .replace("\t", "\\t")
+                .replace("\f", "\\f") + "\"";
+    }
+}
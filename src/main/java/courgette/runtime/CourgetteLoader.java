@@ -11,7 +11,9 @@ import io.cucumber.core.runtime.TimeServiceEventBus;
 
 import java.time.Clock;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
@@ -21,6 +23,7 @@ public class CourgetteLoader {
     private final CourgetteProperties courgetteProperties;
     private final List<Feature> features;
     private final Filters filters;
+    private CourgetteRunHistory runHistory;
 
     public CourgetteLoader(CourgetteProperties courgetteProperties) {
         this.courgetteProperties = courgetteProperties;
@@ -44,6 +47,124 @@ public class CourgetteLoader {
         return filterCucumberScenarios(features);
     }
 
+    /**
+     * @return the run history of the test run, which is loaded once and shared with the {@link CourgetteRunner};
+     * the shard histories it was loaded with are merged into the history file on the first call
+     */
+    CourgetteRunHistory getRunHistory() {
+        if (runHistory == null) {
+            runHistory = CourgetteRunHistory.load(courgetteProperties);
+            runHistory.mergeShardHistories();
+        }
+        return runHistory;
+    }
+
+    public List<CourgetteRunnerInfo> getRunnerInfoList() {
+        final List<CourgetteRunnerInfo> runnerInfoList = new ArrayList<>();
+
+        if (courgetteProperties.isFeatureRunLevel()) {
+            getFeatures().forEach(feature -> runnerInfoList.add(new CourgetteRunnerInfo(courgetteProperties, feature, Collections.emptyList())));
+        } else {
+            final Map<CucumberPickleLocation, Feature> scenarios = getCucumberScenarios();
+
+            final int scenarioBatchSize = courgetteProperties.getCourgetteOptions().scenarioBatchSize();
+
+            if (courgetteProperties.isAutoRunLevel()) {
+                runnerInfoList.addAll(getAutoRunnerInfoList(getFeatureScenarios(scenarios), scenarioBatchSize));
+            } else if (scenarioBatchSize > 1) {
+                getFeatureScenarios(scenarios).forEach((feature, lineIds) -> runnerInfoList.addAll(createBatches(feature, lineIds, scenarioBatchSize)));
+            } else {
+                scenarios.keySet().forEach(location -> runnerInfoList.add(new CourgetteRunnerInfo(courgetteProperties, scenarios.get(location), location.getLine())));
+            }
+        }
+        return getAffected(getShard(runnerInfoList));
+    }
+
+    /**
+     * Runs a feature as a whole, as one batch of all its scenarios, unless it is expected to take longer than half the time
+     * each thread needs to run all features; such a feature is split into scenarios, or batches of scenarios when a scenario
+     * batch size is set, so it does not keep one thread busy while the others are idle at the end of the test run.
+     * <p>
+     * The expected durations are taken from the run history; without any history, the number of scenarios is used instead.
+     * Features that run as a whole are scenario batches, so their results are split back into scenario results by scenario identity
+     * as for any other batch.
+     */
+    private List<CourgetteRunnerInfo> getAutoRunnerInfoList(Map<Feature, List<Integer>> featureScenarios, int scenarioBatchSize) {
+        final CourgetteRunHistory runHistory = getRunHistory();
+
+        final List<CourgetteRunnerInfo> featureRunnerInfoList = new ArrayList<>();
+        featureScenarios.forEach((feature, lineIds) -> featureRunnerInfoList.add(new CourgetteRunnerInfo(courgetteProperties, feature, lineIds)));
+
+        final Map<CourgetteRunnerInfo, Long> expectedDurations = new HashMap<>();
+        featureRunnerInfoList.forEach(runnerInfo -> expectedDurations.put(runnerInfo, runHistory.estimateDuration(runnerInfo)));
+
+        if (expectedDurations.values().stream().allMatch(duration -> duration == 0)) {
+            featureRunnerInfoList.forEach(runnerInfo -> expectedDurations.put(runnerInfo, (long) runnerInfo.getLineIds().size()));
+        }
+
+        final int threads = Math.max(courgetteProperties.getMaxThreads(), 1);
+        final long splitDuration = expectedDurations.values().stream().mapToLong(Long::longValue).sum() / threads / 2;
+
+        final List<CourgetteRunnerInfo> runnerInfoList = new ArrayList<>();
+        int splitFeatures = 0;
+
+        for (CourgetteRunnerInfo runnerInfo : featureRunnerInfoList) {
+            if (threads > 1 && runnerInfo.isScenarioBatch() && expectedDurations.get(runnerInfo) > splitDuration) {
+                runnerInfoList.addAll(createBatches(runnerInfo.getFeature(), runnerInfo.getLineIds(), Math.max(scenarioBatchSize, 1)));
+                splitFeatures++;
+            } else {
+                runnerInfoList.add(runnerInfo);
+            }
+        }
+
+        System.out.println(String.format("Courgette auto run level: %d of %d features are split into scenarios", splitFeatures, featureRunnerInfoList.size()));
+        return runnerInfoList;
+    }
+
+    private Map<Feature, List<Integer>> getFeatureScenarios(Map<CucumberPickleLocation, Feature> scenarios) {
+        final Map<Feature, List<Integer>> featureScenarios = new LinkedHashMap<>();
+        scenarios.forEach((location, feature) -> featureScenarios.computeIfAbsent(feature, f -> new ArrayList<>()).add(location.getLine()));
+
+        featureScenarios.values().forEach(Collections::sort);
+        return featureScenarios;
+    }
+
+    private List<CourgetteRunnerInfo> createBatches(Feature feature, List<Integer> lineIds, int scenarioBatchSize) {
+        final List<CourgetteRunnerInfo> batches = new ArrayList<>();
+
+        for (int i = 0; i < lineIds.size(); i += scenarioBatchSize) {
+            final List<Integer> batch = new ArrayList<>(lineIds.subList(i, Math.min(i + scenarioBatchSize, lineIds.size())));
+            batches.add(new CourgetteRunnerInfo(courgetteProperties, feature, batch));
+        }
+        return batches;
+    }
+
+    private List<CourgetteRunnerInfo> getAffected(List<CourgetteRunnerInfo> runnerInfoList) {
+        if (!courgetteProperties.getCourgetteOptions().testImpactAnalysis()) {
+            return runnerInfoList;
+        }
+
+        final List<CourgetteRunnerInfo> affected = CourgetteTestImpact.load(courgetteProperties).getAffected(runnerInfoList);
+
+        System.out.println(String.format("Courgette test impact analysis: %d of %d runs are affected by changes", affected.size(), runnerInfoList.size()));
+        return affected;
+    }
+
+    private List<CourgetteRunnerInfo> getShard(List<CourgetteRunnerInfo> runnerInfoList) {
+        final int shardCount = courgetteProperties.getCourgetteOptions().shardCount();
+
+        if (shardCount <= 1) {
+            return runnerInfoList;
+        }
+
+        final int shardIndex = courgetteProperties.getCourgetteOptions().shardIndex();
+
+        final List<CourgetteRunnerInfo> shard = getRunHistory().getShard(runnerInfoList, shardIndex, shardCount);
+
+        System.out.println(String.format("Courgette shard %d of %d: %d of %d runs", shardIndex + 1, shardCount, shard.size(), runnerInfoList.size()));
+        return shard;
+    }
+
     private RuntimeOptions createRuntimeOptions() {
         return new CourgetteRuntimeOptions(courgetteProperties).getRuntimeOptions();
     }
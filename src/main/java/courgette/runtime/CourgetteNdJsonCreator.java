@@ -18,6 +18,8 @@ import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -55,6 +57,85 @@ public class CourgetteNdJsonCreator {
         return messages;
     }
 
+    /**
+     * Splits the messages of a batch of scenarios that ran in one invocation into the messages of each scenario,
+     * as if every scenario had run on its own.
+     *
+     * @return the messages per scenario line
+     */
+    public static Map<Integer, List<Envelope>> splitScenarioMessages(List<Envelope> envelopes) {
+        final Map<String, Integer> astNodeLines = new HashMap<>();
+        final Map<String, Integer> pickleLines = new HashMap<>();
+        final Map<String, String> testCasePickles = new HashMap<>();
+        final Map<String, String> testCaseStartedPickles = new HashMap<>();
+
+        envelopes.forEach(envelope -> {
+            envelope.getGherkinDocument().flatMap(GherkinDocument::getFeature).ifPresent(feature ->
+                    feature.getChildren().forEach(child -> {
+                        child.getScenario().ifPresent(scenario -> addAstNodeLines(scenario, astNodeLines));
+                        child.getRule().ifPresent(rule -> rule.getChildren().forEach(ruleChild ->
+                                ruleChild.getScenario().ifPresent(scenario -> addAstNodeLines(scenario, astNodeLines))));
+                    }));
+            envelope.getTestCase().ifPresent(testCase -> testCasePickles.put(testCase.getId(), testCase.getPickleId()));
+        });
+
+        envelopes.forEach(envelope -> {
+            envelope.getPickle().ifPresent(pickle -> {
+                final List<String> astNodeIds = pickle.getAstNodeIds();
+                final Integer line = astNodeLines.get(astNodeIds.get(astNodeIds.size() - 1));
+                if (line != null && testCasePickles.containsValue(pickle.getId())) {
+                    pickleLines.put(pickle.getId(), line);
+                }
+            });
+            envelope.getTestCaseStarted().ifPresent(testCaseStarted ->
+                    testCaseStartedPickles.put(testCaseStarted.getId(), testCasePickles.getOrDefault(testCaseStarted.getTestCaseId(), "")));
+        });
+
+        final Map<Integer, List<Envelope>> scenarioMessages = new LinkedHashMap<>();
+        pickleLines.values().forEach(line -> scenarioMessages.put(line, new ArrayList<>()));
+
+        envelopes.forEach(envelope -> {
+            final String pickleId = extractPickleId(envelope, testCasePickles, testCaseStartedPickles);
+
+            if (pickleId == null) {
+                scenarioMessages.values().forEach(messages -> messages.add(envelope));
+            } else if (pickleLines.containsKey(pickleId)) {
+                scenarioMessages.get(pickleLines.get(pickleId)).add(envelope);
+            }
+        });
+        return scenarioMessages;
+    }
+
+    private static void addAstNodeLines(Scenario scenario, Map<String, Integer> astNodeLines) {
+        astNodeLines.put(scenario.getId(), scenario.getLocation().getLine().intValue());
+        scenario.getExamples().forEach(examples -> examples.getTableBody().forEach(row ->
+                astNodeLines.put(row.getId(), row.getLocation().getLine().intValue())));
+    }
+
+    /**
+     * @return the id of the pickle the envelope belongs to, or null when it is shared by all pickles
+     */
+    private static String extractPickleId(Envelope envelope, Map<String, String> testCasePickles, Map<String, String> testCaseStartedPickles) {
+        if (envelope.getPickle().isPresent()) {
+            return envelope.getPickle().get().getId();
+        } else if (envelope.getTestCase().isPresent()) {
+            return envelope.getTestCase().get().getPickleId();
+        } else if (envelope.getTestCaseStarted().isPresent()) {
+            return testCaseStartedPickles.getOrDefault(envelope.getTestCaseStarted().get().getId(), "");
+        } else if (envelope.getTestStepStarted().isPresent()) {
+            return testCaseStartedPickles.getOrDefault(envelope.getTestStepStarted().get().getTestCaseStartedId(), "");
+        } else if (envelope.getTestStepFinished().isPresent()) {
+            return testCaseStartedPickles.getOrDefault(envelope.getTestStepFinished().get().getTestCaseStartedId(), "");
+        } else if (envelope.getTestCaseFinished().isPresent()) {
+            return testCaseStartedPickles.getOrDefault(envelope.getTestCaseFinished().get().getTestCaseStartedId(), "");
+        } else if (envelope.getAttachment().isPresent()) {
+            return envelope.getAttachment().get().getTestCaseStartedId()
+                    .map(testCaseStartedId -> testCaseStartedPickles.getOrDefault(testCaseStartedId, ""))
+                    .orElse(null);
+        }
+        return null;
+    }
+
     public List<Envelope> createFeatureMessages() {
         return getMessages();
     }
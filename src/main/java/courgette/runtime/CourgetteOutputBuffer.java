@@ -0,0 +1,101 @@
+package courgette.runtime;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the test output of a run in memory, so it is only written to the test output directory when the run fails.
+ * <p>
+ * The buffer is a ring of a fixed size that keeps the last part of the output; when the output is larger, the start of the
+ * output is dropped and a note with the number of dropped bytes is written before the rest.
+ */
+class CourgetteOutputBuffer extends OutputStream {
+    static final int CAPACITY = 1024 * 1024;
+
+    private static final int PUMP_BUFFER_SIZE = 8192;
+    private static final long PUMP_WAIT_SECONDS = 5;
+
+    private final byte[] buffer = new byte[CAPACITY];
+    private int position;
+    private long written;
+    private Thread pump;
+
+    /**
+     * @return a buffer that is filled with the output of a process by a background thread until the output is closed
+     */
+    static CourgetteOutputBuffer pump(InputStream output) {
+        final CourgetteOutputBuffer outputBuffer = new CourgetteOutputBuffer();
+
+        outputBuffer.pump = new Thread(() -> {
+            final ByteBuffer bytes = ByteBuffer.allocate(PUMP_BUFFER_SIZE);
+
+            try (ReadableByteChannel channel = Channels.newChannel(output)) {
+                while (channel.read(bytes) >= 0) {
+                    bytes.flip();
+                    outputBuffer.write(bytes.array(), 0, bytes.limit());
+                    bytes.clear();
+                }
+            } catch (IOException ignored) {
+                // the process was destroyed
+            }
+        }, "courgette-output-pump");
+        outputBuffer.pump.setDaemon(true);
+        outputBuffer.pump.start();
+        return outputBuffer;
+    }
+
+    @Override
+    public synchronized void write(int b) {
+        buffer[position] = (byte) b;
+        position = (position + 1) % CAPACITY;
+        written++;
+    }
+
+    @Override
+    public synchronized void write(byte[] b, int off, int len) {
+        if (len >= CAPACITY) {
+            off += len - CAPACITY;
+            written += len - CAPACITY;
+            len = CAPACITY;
+        }
+
+        final int tail = Math.min(len, CAPACITY - position);
+        System.arraycopy(b, off, buffer, position, tail);
+        System.arraycopy(b, off + tail, buffer, 0, len - tail);
+
+        position = (position + len) % CAPACITY;
+        written += len;
+    }
+
+    /**
+     * Writes the buffered output to the file, once the process that writes to the buffer has closed its output.
+     */
+    void writeTo(File file) throws IOException {
+        if (pump != null) {
+            try {
+                // processes started by the test run may keep the output open after the run has ended
+                pump.join(TimeUnit.SECONDS.toMillis(PUMP_WAIT_SECONDS));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        synchronized (this) {
+            try (OutputStream out = new FileOutputStream(file, false)) {
+                if (written > CAPACITY) {
+                    out.write(String.format("[Courgette: the first %d bytes of the test output were dropped]%n", written - CAPACITY).getBytes(StandardCharsets.UTF_8));
+                    out.write(buffer, position, CAPACITY - position);
+                }
+                out.write(buffer, 0, written > CAPACITY ? position : (int) written);
+            }
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package courgette.runtime;
+
+import courgette.runtime.utils.ProcessUtils;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps track of the running Cucumber processes so they can be stopped when the test run is cancelled.
+ */
+class CourgetteProcessRegistry {
+    private final Set<Process> processes = ConcurrentHashMap.newKeySet();
+
+    private volatile boolean cancelled;
+
+    void register(Process process) {
+        processes.add(process);
+
+        if (cancelled) {
+            ProcessUtils.destroyProcessTree(process);
+        }
+    }
+
+    void unregister(Process process) {
+        processes.remove(process);
+    }
+
+    void cancel() {
+        cancelled = true;
+        processes.forEach(ProcessUtils::destroyProcessTree);
+    }
+
+    boolean isCancelled() {
+        return cancelled;
+    }
+}
@@ -0,0 +1,73 @@
+package courgette.runtime;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The CPU time and peak resident memory used by the JVM that ran a feature or scenario.
+ * <p>
+ * A value of 0 means it could not be measured: CPU time needs Java 9 or later for test run JVMs, and peak resident
+ * memory is only available on Linux. A worker JVM reports the CPU time of each job, but the peak resident memory of
+ * the worker up to the end of the job, as it is shared by all jobs that ran on it.
+ */
+public class CourgetteProcessUsage {
+    private static final long MEGABYTE = 1024L * 1024L;
+
+    private final long cpuTime;
+    private final long peakResidentMemory;
+
+    CourgetteProcessUsage(long cpuTime, long peakResidentMemory) {
+        this.cpuTime = Math.max(cpuTime, 0L);
+        this.peakResidentMemory = Math.max(peakResidentMemory, 0L);
+    }
+
+    /**
+     * @return the CPU time in milliseconds
+     */
+    public long getCpuTime() {
+        return cpuTime;
+    }
+
+    /**
+     * @return the peak resident memory in bytes
+     */
+    public long getPeakResidentMemory() {
+        return peakResidentMemory;
+    }
+
+    public boolean isMeasured() {
+        return cpuTime > 0 || peakResidentMemory > 0;
+    }
+
+    /**
+     * @return the usage of both runs of the same feature or scenario, such as a run and its re-run
+     */
+    CourgetteProcessUsage merge(CourgetteProcessUsage other) {
+        return new CourgetteProcessUsage(cpuTime + other.cpuTime, Math.max(peakResidentMemory, other.peakResidentMemory));
+    }
+
+    /**
+     * @return the usage of one of the given number of scenarios that ran in the same JVM
+     */
+    CourgetteProcessUsage share(int scenarios) {
+        return scenarios > 1 ? new CourgetteProcessUsage(cpuTime / scenarios, peakResidentMemory) : this;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("CPU time %s, peak memory %s", formatCpuTime(cpuTime), formatMemory(peakResidentMemory));
+    }
+
+    static String formatCpuTime(long cpuTime) {
+        if (cpuTime <= 0) {
+            return "n/a";
+        }
+        return String.format("%d min, %d.%d sec",
+                TimeUnit.MILLISECONDS.toMinutes(cpuTime),
+                TimeUnit.MILLISECONDS.toSeconds(cpuTime) % 60,
+                (cpuTime % 1000) / 100);
+    }
+
+    static String formatMemory(long memory) {
+        return memory <= 0 ? "n/a" : (memory + MEGABYTE / 2) / MEGABYTE + " MB";
+    }
+}
@@ -0,0 +1,182 @@
+package courgette.runtime;
+
+import courgette.api.CourgetteTestOutput;
+
+import java.io.Console;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Prints the progress of the test run to the console while it runs: the completed, running and queued features or scenarios,
+ * the failures, the throughput and the expected time left.
+ * <p>
+ * On a terminal the progress line is redrawn in place every second. When the console output is redirected, such as to a CI log,
+ * or when the test output is also written to the console, a new progress line is printed every 30 seconds instead.
+ * <p>
+ * The expected time left is the elapsed time scaled by the recorded durations of the remaining runs relative to the completed runs,
+ * so it accounts for the number of parallel threads without knowing it. Without recorded durations, the throughput so far is used.
+ */
+class CourgetteProgress {
+    private static final long REDRAW_INTERVAL_SECONDS = 1;
+    private static final long LOG_INTERVAL_SECONDS = 30;
+
+    private final String label;
+    private final int total;
+    private final boolean redraw;
+    private final CourgetteRunHistory runHistory;
+    private final ScheduledExecutorService monitor = Executors.newSingleThreadScheduledExecutor();
+
+    private final AtomicInteger completed = new AtomicInteger();
+    private final AtomicInteger failed = new AtomicInteger();
+    private final AtomicInteger running = new AtomicInteger();
+    private final AtomicInteger queued;
+    private final AtomicLong remainingDuration = new AtomicLong();
+    private final AtomicLong completedDuration = new AtomicLong();
+
+    private long startTime;
+    private int lastLength;
+
+    CourgetteProgress(CourgetteProperties courgetteProperties, CourgetteRunHistory runHistory, List<CourgetteRunnerInfo> runnerInfoList) {
+        this.label = courgetteProperties.isFeatureRunLevel() ? "features" : "scenarios";
+        this.total = runnerInfoList.stream().mapToInt(CourgetteProgress::testCount).sum();
+        this.redraw = isTerminal() && courgetteProperties.getCourgetteOptions().testOutput() != CourgetteTestOutput.CONSOLE;
+        this.runHistory = runHistory;
+        this.queued = new AtomicInteger(total);
+        this.remainingDuration.set(runnerInfoList.stream().mapToLong(runHistory::estimateDuration).sum());
+    }
+
+    void start() {
+        startTime = System.currentTimeMillis();
+
+        final long interval = redraw ? REDRAW_INTERVAL_SECONDS : LOG_INTERVAL_SECONDS;
+        monitor.scheduleAtFixedRate(this::print, interval, interval, TimeUnit.SECONDS);
+    }
+
+    synchronized void stop() {
+        monitor.shutdownNow();
+
+        if (redraw && lastLength > 0) {
+            print();
+            System.out.println();
+        }
+    }
+
+    /**
+     * @return the run, which counts as queued until it starts and adds its recorded duration to the completed runs when it ends
+     */
+    Callable<Boolean> track(CourgetteRunnerInfo runnerInfo, Callable<Boolean> run) {
+        // the run history records the new duration of the run when it ends, so the duration is estimated up front
+        final long duration = runHistory.estimateDuration(runnerInfo);
+
+        return () -> {
+            queued.addAndGet(-testCount(runnerInfo));
+            try {
+                return run.call();
+            } finally {
+                remainingDuration.addAndGet(-duration);
+                completedDuration.addAndGet(duration);
+            }
+        };
+    }
+
+    void processStarted() {
+        running.incrementAndGet();
+    }
+
+    void processFinished() {
+        running.decrementAndGet();
+    }
+
+    void resultAdded(CourgetteRunResult runResult) {
+        switch (runResult.getStatus()) {
+            case RERUN:
+                return;
+            case FAILED:
+            case FAILED_AFTER_RERUN:
+            case TIMED_OUT:
+                failed.incrementAndGet();
+                break;
+        }
+        completed.incrementAndGet();
+    }
+
+    private synchronized void print() {
+        final String line = createProgressLine();
+
+        if (redraw) {
+            final StringBuilder padding = new StringBuilder();
+            for (int i = line.length(); i < lastLength; i++) {
+                padding.append(' ');
+            }
+            System.out.print("\r" + line + padding);
+            System.out.flush();
+        } else {
+            System.out.println(line);
+        }
+        lastLength = line.length();
+    }
+
+    private String createProgressLine() {
+        final long elapsed = System.currentTimeMillis() - startTime;
+        final int done = completed.get();
+
+        final StringBuilder line = new StringBuilder(String.format("Courgette progress: %d/%d %s completed, %d running, %d queued, %d failed",
+                done, total, label, running.get(), Math.max(queued.get(), 0), failed.get()));
+
+        if (done > 0 && elapsed > 0) {
+            line.append(String.format(", %.1f %s/min", done * 60000.0 / elapsed, label));
+        }
+
+        final OptionalLong timeLeft = estimateTimeLeft(elapsed, done);
+        if (timeLeft.isPresent()) {
+            line.append(", ETA ").append(formatDuration(timeLeft.getAsLong()));
+        }
+        return line.toString();
+    }
+
+    private OptionalLong estimateTimeLeft(long elapsed, int done) {
+        if (done == 0 || done >= total) {
+            return OptionalLong.empty();
+        }
+
+        final long completedRunsDuration = completedDuration.get();
+        final long remainingRunsDuration = Math.max(remainingDuration.get(), 0L);
+
+        if (completedRunsDuration > 0) {
+            return OptionalLong.of((long) ((double) elapsed * remainingRunsDuration / completedRunsDuration));
+        }
+        return OptionalLong.of(elapsed * (total - done) / done);
+    }
+
+    private static int testCount(CourgetteRunnerInfo runnerInfo) {
+        return Math.max(runnerInfo.getLineIds().size(), 1);
+    }
+
+    private static String formatDuration(long millis) {
+        return String.format("%d min, %d sec", TimeUnit.MILLISECONDS.toMinutes(millis), TimeUnit.MILLISECONDS.toSeconds(millis) % 60);
+    }
+
+    /**
+     * @return true when the console output is a terminal; on Java 22 and later {@code System.console()} is also returned
+     * for redirected output, so {@code Console.isTerminal()} is checked as well
+     */
+    private static boolean isTerminal() {
+        final Console console = System.console();
+
+        if (console == null) {
+            return false;
+        }
+
+        try {
+            return (Boolean) Console.class.getMethod("isTerminal").invoke(console);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return true;
+        }
+    }
+}
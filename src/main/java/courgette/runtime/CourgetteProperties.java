@@ -67,6 +67,10 @@ public class CourgetteProperties {
         return CourgetteRunLevel.FEATURE.equals(courgetteOptions.runLevel());
     }
 
+    public boolean isAutoRunLevel() {
+        return CourgetteRunLevel.AUTO.equals(courgetteOptions.runLevel());
+    }
+
     public boolean isCourgetteHtmlReportEnabled() {
         return checkIfReportIsEnabled.test(HtmlReport.COURGETTE_HTML);
     }
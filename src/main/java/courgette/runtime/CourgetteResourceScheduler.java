@@ -0,0 +1,163 @@
+package courgette.runtime;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+/**
+ * Starts the features and scenarios that claim a shared resource with a Cucumber tag only when the resource is available,
+ * so the other features and scenarios keep running at full parallelism.
+ * <p>
+ * A run claims a resource with {@code @resource:<name>=<permits>}, where the permits are the number of runs that may use the
+ * resource at the same time, or with {@code @exclusive:<name>}, which allows one run at a time. When runs declare different
+ * permits for the same resource, the lowest is used.
+ * <p>
+ * Runs take their resources in the order they were submitted: a run only overtakes an earlier run that is still waiting when
+ * they claim none of the same resources, so a run that claims several resources is not starved by runs that claim one of them.
+ * The resources are taken once the run has a thread, so a run does not hold them while it is queued; a run whose resources are
+ * not available gives up its thread and is queued again when they are released. The scheduler is guarded by a lock instead of
+ * a monitor, so runs on virtual threads are not pinned to their carrier threads while they release their resources.
+ */
+class CourgetteResourceScheduler {
+    private final Map<String, Integer> permits = new TreeMap<>();
+    private final Map<String, Semaphore> resources = new TreeMap<>();
+    private final List<PendingRun> pendingRuns = new ArrayList<>();
+    private final ReentrantLock lock = new ReentrantLock();
+
+    CourgetteResourceScheduler(List<CourgetteRunnerInfo> runnerInfoList) {
+        runnerInfoList.forEach(runnerInfo -> runnerInfo.getResourceClaims().forEach((resource, resourcePermits) -> permits.merge(resource, resourcePermits, Math::min)));
+        permits.forEach((resource, resourcePermits) -> resources.put(resource, new Semaphore(resourcePermits)));
+    }
+
+    boolean hasResources() {
+        return !resources.isEmpty();
+    }
+
+    /**
+     * @return the resources and the number of runs that may use each of them at the same time
+     */
+    String getResourceSummary() {
+        return permits.entrySet().stream()
+                .map(resource -> resource.getKey() + "=" + resource.getValue())
+                .collect(Collectors.joining(", "));
+    }
+
+    /**
+     * Submits the run to the executor; the run starts once it has a thread and all resources it claims are available to it.
+     */
+    Future<Boolean> submit(ExecutorService executor, CourgetteRunnerInfo runnerInfo, Callable<Boolean> run) {
+        final Map<String, Integer> claims = runnerInfo.getResourceClaims();
+
+        if (claims.isEmpty()) {
+            return executor.submit(run);
+        }
+
+        final PendingRun pendingRun = new PendingRun(executor, new TreeSet<>(claims.keySet()), run);
+
+        lock.lock();
+        try {
+            claims.forEach((resource, resourcePermits) -> resources.computeIfAbsent(resource, r -> new Semaphore(resourcePermits)));
+            pendingRuns.add(pendingRun);
+            queue(pendingRun);
+        } finally {
+            lock.unlock();
+        }
+        return pendingRun.result;
+    }
+
+    private void queue(PendingRun pendingRun) {
+        pendingRun.queued = true;
+        try {
+            pendingRun.executor.execute(() -> run(pendingRun));
+        } catch (RejectedExecutionException e) {
+            // the test run is shutting down
+            pendingRuns.remove(pendingRun);
+            pendingRun.result.cancel(false);
+        }
+    }
+
+    private void run(PendingRun pendingRun) {
+        lock.lock();
+        try {
+            pendingRun.queued = false;
+
+            if (!canStart(pendingRun)) {
+                // the run is queued again by dispatch once its resources are released
+                return;
+            }
+
+            pendingRun.claims.forEach(resource -> resources.get(resource).acquireUninterruptibly());
+            pendingRuns.remove(pendingRun);
+            // a later run that shares a resource with more than one permit may start as well
+            dispatch();
+        } finally {
+            lock.unlock();
+        }
+
+        try {
+            pendingRun.result.complete(pendingRun.run.call());
+        } catch (Throwable throwable) {
+            pendingRun.result.completeExceptionally(throwable);
+        } finally {
+            lock.lock();
+            try {
+                pendingRun.claims.forEach(resource -> resources.get(resource).release());
+                dispatch();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Queues the waiting runs that can start now, in the order they were submitted.
+     */
+    private void dispatch() {
+        new ArrayList<>(pendingRuns).forEach(pendingRun -> {
+            if (!pendingRun.queued && canStart(pendingRun)) {
+                queue(pendingRun);
+            }
+        });
+    }
+
+    /**
+     * @return true when every resource of the run has a permit and no earlier run that is still pending claims any of them
+     */
+    private boolean canStart(PendingRun pendingRun) {
+        for (PendingRun earlierRun : pendingRuns) {
+            if (earlierRun == pendingRun) {
+                break;
+            }
+
+            if (earlierRun.claims.stream().anyMatch(pendingRun.claims::contains)) {
+                return false;
+            }
+        }
+        return pendingRun.claims.stream().allMatch(resource -> resources.get(resource).availablePermits() > 0);
+    }
+
+    private static class PendingRun {
+        private final ExecutorService executor;
+        private final Set<String> claims;
+        private final Callable<Boolean> run;
+        private final CompletableFuture<Boolean> result = new CompletableFuture<>();
+        private boolean queued;
+
+        PendingRun(ExecutorService executor, Set<String> claims, Callable<Boolean> run) {
+            this.executor = executor;
+            this.claims = claims;
+            this.run = run;
+        }
+    }
+}
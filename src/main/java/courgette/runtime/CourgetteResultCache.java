@@ -0,0 +1,232 @@
+package courgette.runtime;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import courgette.api.CourgetteOptions;
+import courgette.api.CucumberOptions;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static courgette.runtime.CourgetteException.printExceptionStackTrace;
+
+/**
+ * The reports of features and scenarios that passed in previous test runs, so they can be skipped while nothing they depend on has changed.
+ * <p>
+ * Each entry is keyed by a hash of the feature source, the scenario lines, the contents of the classpath and the Cucumber
+ * options and system properties. The cache is kept in {@code ${reportTargetDir}/courgette-result-cache.json}.
+ */
+class CourgetteResultCache {
+    private static final String CACHE_FILE = "courgette-result-cache.json";
+
+    private final File cacheFile;
+    private final CourgetteProperties courgetteProperties;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    private String environmentHash;
+
+    private CourgetteResultCache(File cacheFile, CourgetteProperties courgetteProperties) {
+        this.cacheFile = cacheFile;
+        this.courgetteProperties = courgetteProperties;
+    }
+
+    static CourgetteResultCache load(CourgetteProperties courgetteProperties) {
+        final CourgetteResultCache resultCache = new CourgetteResultCache(
+                new File(courgetteProperties.getCourgetteOptions().reportTargetDir(), CACHE_FILE), courgetteProperties);
+
+        if (resultCache.cacheFile.exists()) {
+            try {
+                resultCache.entries.putAll(new ObjectMapper().readValue(resultCache.cacheFile, new TypeReference<Map<String, Entry>>() {
+                }));
+            } catch (IOException e) {
+                printExceptionStackTrace(e);
+            }
+        }
+        return resultCache;
+    }
+
+    /**
+     * @return the reports of the passed run by report file extension, or empty when the run has to be executed
+     */
+    Optional<Map<String, String>> get(CourgetteRunnerInfo runnerInfo) {
+        final Entry entry = entries.get(CourgetteRunHistory.runKey(runnerInfo));
+
+        if (entry != null && entry.getHash().equals(hash(runnerInfo))) {
+            return Optional.of(entry.getReports());
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * @param reports the reports of the passed run by report file path
+     */
+    void put(CourgetteRunnerInfo runnerInfo, Map<String, String> reports) {
+        if (reports.containsValue(null)) {
+            remove(runnerInfo);
+            return;
+        }
+
+        final Map<String, String> reportsByExtension = new HashMap<>();
+        reports.forEach((reportFile, report) -> reportsByExtension.put(getExtension(reportFile), report));
+
+        entries.put(CourgetteRunHistory.runKey(runnerInfo), new Entry(hash(runnerInfo), reportsByExtension));
+    }
+
+    void remove(CourgetteRunnerInfo runnerInfo) {
+        entries.remove(CourgetteRunHistory.runKey(runnerInfo));
+    }
+
+    void save() {
+        try {
+            cacheFile.getParentFile().mkdirs();
+            new ObjectMapper().writeValue(cacheFile, entries);
+        } catch (IOException e) {
+            printExceptionStackTrace(e);
+        }
+    }
+
+    static String getExtension(String reportFile) {
+        return reportFile.substring(reportFile.lastIndexOf('.') + 1);
+    }
+
+    private String hash(CourgetteRunnerInfo runnerInfo) {
+        final MessageDigest digest = createDigest();
+        update(digest, runnerInfo.getFeature().getSource());
+        update(digest, runnerInfo.getLineIds().toString());
+        update(digest, getEnvironmentHash());
+        return toHex(digest.digest());
+    }
+
+    private synchronized String getEnvironmentHash() {
+        if (environmentHash == null) {
+            final MessageDigest digest = createDigest();
+            getClassPath().forEach(classPathEntry -> updateWithPath(digest, Paths.get(classPathEntry)));
+            update(digest, getOptions());
+            environmentHash = toHex(digest.digest());
+        }
+        return environmentHash;
+    }
+
+    private List<String> getClassPath() {
+        final String[] classPath = courgetteProperties.useCustomClasspath()
+                ? courgetteProperties.getCourgetteOptions().classPath()
+                : System.getProperty("java.class.path", "").split(File.pathSeparator);
+
+        return Arrays.stream(classPath).filter(entry -> !entry.trim().isEmpty()).collect(Collectors.toList());
+    }
+
+    private String getOptions() {
+        final CourgetteOptions courgetteOptions = courgetteProperties.getCourgetteOptions();
+        final CucumberOptions cucumberOptions = courgetteOptions.cucumberOptions();
+
+        final Map<String, String> options = new TreeMap<>();
+        options.put("runLevel", courgetteOptions.runLevel().name());
+        options.put("glue", Arrays.toString(cucumberOptions.glue()));
+        options.put("extraGlue", Arrays.toString(cucumberOptions.extraGlue()));
+        options.put("tags", Arrays.toString(cucumberOptions.tags()));
+        options.put("name", Arrays.toString(cucumberOptions.name()));
+        options.put("dryRun", String.valueOf(cucumberOptions.dryRun()));
+        options.put("objectFactory", cucumberOptions.objectFactory().getName());
+
+        System.getProperties().stringPropertyNames().stream()
+                .filter(property -> property.startsWith("cucumber.") || property.startsWith("courgette."))
+                .forEach(property -> options.put(property, System.getProperty(property)));
+
+        return options.toString();
+    }
+
+    private void updateWithPath(MessageDigest digest, Path path) {
+        if (Files.isDirectory(path)) {
+            try (Stream<Path> files = Files.walk(path)) {
+                files.filter(Files::isRegularFile).sorted().forEach(file -> {
+                    update(digest, path.relativize(file).toString());
+                    updateWithFile(digest, file);
+                });
+            } catch (IOException e) {
+                printExceptionStackTrace(e);
+            }
+        } else if (Files.isRegularFile(path)) {
+            update(digest, path.getFileName().toString());
+            updateWithFile(digest, path);
+        }
+    }
+
+    private void updateWithFile(MessageDigest digest, Path file) {
+        final byte[] buffer = new byte[8192];
+
+        try (InputStream in = Files.newInputStream(file)) {
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+        } catch (IOException e) {
+            printExceptionStackTrace(e);
+        }
+    }
+
+    private void update(MessageDigest digest, String value) {
+        digest.update(value.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+    }
+
+    private MessageDigest createDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new CourgetteException(e);
+        }
+    }
+
+    private String toHex(byte[] bytes) {
+        final StringBuilder hex = new StringBuilder();
+        for (byte b : bytes) {
+            hex.append(String.format("%02x", b));
+        }
+        return hex.toString();
+    }
+
+    public static class Entry {
+        private String hash;
+        private Map<String, String> reports = new HashMap<>();
+
+        public Entry() {
+        }
+
+        Entry(String hash, Map<String, String> reports) {
+            this.hash = hash;
+            this.reports = reports;
+        }
+
+        public String getHash() {
+            return hash;
+        }
+
+        public void setHash(String hash) {
+            this.hash = hash;
+        }
+
+        public Map<String, String> getReports() {
+            return reports;
+        }
+
+        public void setReports(Map<String, String> reports) {
+            this.reports = reports;
+        }
+    }
+}
@@ -0,0 +1,344 @@
+package courgette.runtime;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.cucumber.core.gherkin.Feature;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import static courgette.runtime.CourgetteException.printExceptionStackTrace;
+
+/**
+ * The feature and scenario durations (in milliseconds) recorded by previous test runs.
+ * <p>
+ * The history is kept in {@code ${reportTargetDir}/courgette-run-history.json} and is updated after every test run.
+ * <p>
+ * A shard of a sharded test run only saves the durations it recorded, to {@code courgette-run-history-shard-<n>-of-<count>.json},
+ * so the shards keep partitioning the runs with the same history. The shard histories are read with the history once the histories
+ * of all shards of the shard count are in the report target directory, for example when they are collected from the CI jobs of the
+ * shards; until then, each shard would hold different durations, so they are left out. Loading the history has no side effects;
+ * the shard histories are merged into the history file, and deleted, by {@link #mergeShardHistories()}.
+ */
+class CourgetteRunHistory {
+    private static final String HISTORY_FILE = "courgette-run-history.json";
+    private static final String SHARD_HISTORY_FILE = "courgette-run-history-shard-%d-of-%d.json";
+    private static final Pattern SHARD_HISTORY_FILE_PATTERN = Pattern.compile("courgette-run-history-shard-(\\d+)-of-(\\d+)\\.json");
+    private static final String FEATURES = "features";
+    private static final String SCENARIOS = "scenarios";
+
+    private final File historyFile;
+    private final boolean shard;
+    private final Map<String, Long> featureDurations = new ConcurrentHashMap<>();
+    private final Map<String, Long> scenarioDurations = new ConcurrentHashMap<>();
+    private final Map<String, Long> recordedFeatureDurations = new ConcurrentHashMap<>();
+    private final Map<String, Long> recordedScenarioDurations = new ConcurrentHashMap<>();
+    private final File mergedHistoryFile;
+    private final List<File> shardHistoryFiles = new ArrayList<>();
+    private long lastRunTime;
+
+    private CourgetteRunHistory(File historyFile, boolean shard, File mergedHistoryFile) {
+        this.historyFile = historyFile;
+        this.shard = shard;
+        this.mergedHistoryFile = mergedHistoryFile;
+    }
+
+    static CourgetteRunHistory load(CourgetteProperties courgetteProperties) {
+        final File reportTargetDir = new File(courgetteProperties.getCourgetteOptions().reportTargetDir());
+        final int shardIndex = courgetteProperties.getCourgetteOptions().shardIndex();
+        final int shardCount = courgetteProperties.getCourgetteOptions().shardCount();
+
+        final File historyFile = new File(reportTargetDir, HISTORY_FILE);
+
+        final CourgetteRunHistory runHistory = shardCount > 1
+                ? new CourgetteRunHistory(new File(reportTargetDir, String.format(SHARD_HISTORY_FILE, shardIndex + 1, shardCount)), true, historyFile)
+                : new CourgetteRunHistory(historyFile, false, historyFile);
+
+        runHistory.read(historyFile);
+
+        runHistory.shardHistoryFiles.addAll(getShardHistoryFiles(reportTargetDir, shardCount));
+        runHistory.shardHistoryFiles.forEach(runHistory::read);
+        return runHistory;
+    }
+
+    /**
+     * Writes the history with the shard histories it was loaded with to the history file and deletes the shard history files,
+     * so a shard does not mix them with the history it saves next. Does nothing after the first call.
+     */
+    void mergeShardHistories() {
+        if (shardHistoryFiles.isEmpty()) {
+            return;
+        }
+
+        write(mergedHistoryFile, featureDurations, scenarioDurations);
+        mergedHistoryFile.setLastModified(lastRunTime);
+        shardHistoryFiles.forEach(File::delete);
+        shardHistoryFiles.clear();
+    }
+
+    /**
+     * @return the shard history files in the order of their shards; for a sharded test run, only the files of its shard count,
+     * and none unless there is one for every shard
+     */
+    private static List<File> getShardHistoryFiles(File reportTargetDir, int shardCount) {
+        final File[] files = reportTargetDir.listFiles((dir, name) -> SHARD_HISTORY_FILE_PATTERN.matcher(name).matches());
+
+        if (files == null) {
+            return new ArrayList<>();
+        }
+
+        final Map<File, int[]> shards = new HashMap<>();
+        for (File file : files) {
+            final Matcher matcher = SHARD_HISTORY_FILE_PATTERN.matcher(file.getName());
+            if (matcher.matches()) {
+                shards.put(file, new int[]{Integer.parseInt(matcher.group(2)), Integer.parseInt(matcher.group(1))});
+            }
+        }
+
+        final List<File> shardFiles = shards.keySet().stream()
+                .filter(file -> shardCount <= 1 || shards.get(file)[0] == shardCount)
+                .sorted(Comparator.comparingInt((File file) -> shards.get(file)[0]).thenComparingInt(file -> shards.get(file)[1]))
+                .collect(Collectors.toList());
+
+        if (shardCount > 1 && shardFiles.size() != shardCount) {
+            if (!shardFiles.isEmpty()) {
+                System.out.println(String.format("Courgette found the run history of %d of %d shards, only %s is used to partition the runs",
+                        shardFiles.size(), shardCount, HISTORY_FILE));
+            }
+            return new ArrayList<>();
+        }
+        return shardFiles;
+    }
+
+    private void read(File file) {
+        if (!file.exists()) {
+            return;
+        }
+
+        lastRunTime = Math.max(lastRunTime, file.lastModified());
+        try {
+            final Map<String, Map<String, Long>> history = new ObjectMapper()
+                    .readValue(file, new TypeReference<Map<String, Map<String, Long>>>() {
+                    });
+
+            if (history.get(FEATURES) != null) {
+                featureDurations.putAll(history.get(FEATURES));
+            }
+            if (history.get(SCENARIOS) != null) {
+                scenarioDurations.putAll(history.get(SCENARIOS));
+            }
+        } catch (IOException e) {
+            printExceptionStackTrace(e);
+        }
+    }
+
+    void record(CourgetteRunnerInfo runnerInfo, long duration) {
+        record(runnerInfo.getFeature(), runnerInfo.getLineIds(), duration);
+    }
+
+    /**
+     * Records the duration of the first attempt of a run. A feature duration is only recorded by a run of the whole feature,
+     * so the scenario runs of a split feature do not replace it with the durations of some of its scenarios.
+     */
+    void record(Feature feature, List<Integer> lineIds, long duration) {
+        if (lineIds.isEmpty() || isWholeFeature(feature, lineIds)) {
+            recordedFeatureDurations.put(featureKey(feature), duration);
+        }
+
+        // scenarios of a batch share the duration of the batch
+        lineIds.forEach(lineId -> recordedScenarioDurations.put(scenarioKey(feature, lineId), duration / lineIds.size()));
+    }
+
+    private static boolean isWholeFeature(Feature feature, List<Integer> lineIds) {
+        return feature.getPickles().size() == lineIds.size()
+                && feature.getPickles().stream().allMatch(pickle -> lineIds.contains(pickle.getLocation().getLine()));
+    }
+
+    /**
+     * Saves the history, or only the durations recorded by this test run when it is a shard of a sharded test run.
+     */
+    void save() {
+        if (shard) {
+            write(historyFile, new HashMap<>(recordedFeatureDurations), new HashMap<>(recordedScenarioDurations));
+        }
+
+        featureDurations.putAll(recordedFeatureDurations);
+        scenarioDurations.putAll(recordedScenarioDurations);
+        recordedFeatureDurations.clear();
+        recordedScenarioDurations.clear();
+
+        if (!shard) {
+            write(historyFile, featureDurations, scenarioDurations);
+        }
+    }
+
+    private static void write(File file, Map<String, Long> features, Map<String, Long> scenarios) {
+        final Map<String, Map<String, Long>> history = new ConcurrentHashMap<>();
+        history.put(FEATURES, features);
+        history.put(SCENARIOS, scenarios);
+
+        try {
+            file.getParentFile().mkdirs();
+            new ObjectMapper().writerWithDefaultPrettyPrinter().writeValue(file, history);
+        } catch (IOException e) {
+            printExceptionStackTrace(e);
+        }
+    }
+
+    /**
+     * @return the time the history was last saved by a previous test run, or 0 when there is no history
+     */
+    long getLastRunTime() {
+        return lastRunTime;
+    }
+
+    /**
+     * @return the expected duration of the run, or empty when there is no history for the feature or scenario
+     */
+    OptionalLong getDuration(CourgetteRunnerInfo runnerInfo) {
+        final Feature feature = runnerInfo.getFeature();
+        final Long featureDuration = featureDurations.get(featureKey(feature));
+
+        if (runnerInfo.getLineIds().isEmpty()) {
+            return featureDuration != null ? OptionalLong.of(featureDuration) : OptionalLong.empty();
+        }
+
+        long duration = 0;
+
+        for (Integer lineId : runnerInfo.getLineIds()) {
+            final Long scenarioDuration = scenarioDurations.get(scenarioKey(feature, lineId));
+
+            if (scenarioDuration != null) {
+                duration += scenarioDuration;
+            } else if (featureDuration != null && !feature.getPickles().isEmpty()) {
+                duration += featureDuration / feature.getPickles().size();
+            } else {
+                return OptionalLong.empty();
+            }
+        }
+        return OptionalLong.of(duration);
+    }
+
+    /**
+     * @return the expected duration of the run; runs without history are estimated from the average scenario duration
+     */
+    long estimateDuration(CourgetteRunnerInfo runnerInfo) {
+        final OptionalLong duration = getDuration(runnerInfo);
+
+        if (duration.isPresent()) {
+            return duration.getAsLong();
+        }
+
+        final long averageScenarioDuration = (long) scenarioDurations.values().stream()
+                .mapToLong(Long::longValue)
+                .average()
+                .orElse(0);
+
+        return runnerInfo.getLineIds().isEmpty()
+                ? averageScenarioDuration * runnerInfo.getFeature().getPickles().size()
+                : averageScenarioDuration * runnerInfo.getLineIds().size();
+    }
+
+    void sortLongestFirst(List<CourgetteRunnerInfo> runnerInfoList) {
+        runnerInfoList.sort(Comparator.comparingLong(this::estimateDuration).reversed());
+    }
+
+    /**
+     * Partitions the runs into shards of about the same expected duration and returns the runs of one shard.
+     * <p>
+     * Runs are assigned longest first to the shard with the lowest expected duration so far. Runs without history
+     * are estimated from the average scenario duration of the runs with history. Ties are broken by feature path and
+     * scenario lines, so every shard computes the same partition as long as it uses the same history file and the same
+     * complete set of shard history files.
+     *
+     * @return the runs of the shard, in their original order
+     */
+    List<CourgetteRunnerInfo> getShard(List<CourgetteRunnerInfo> runnerInfoList, int shardIndex, int shardCount) {
+        final Map<CourgetteRunnerInfo, Long> expectedDurations = estimateShardDurations(runnerInfoList);
+
+        final List<CourgetteRunnerInfo> sortedRunnerInfoList = new ArrayList<>(runnerInfoList);
+        sortedRunnerInfoList.sort(Comparator.comparing((CourgetteRunnerInfo runnerInfo) -> expectedDurations.get(runnerInfo)).reversed()
+                .thenComparing(CourgetteRunHistory::runKey));
+
+        final long[] shardDurations = new long[shardCount];
+        final Set<CourgetteRunnerInfo> shard = new HashSet<>();
+
+        for (CourgetteRunnerInfo runnerInfo : sortedRunnerInfoList) {
+            int shortestShard = 0;
+            for (int i = 1; i < shardCount; i++) {
+                if (shardDurations[i] < shardDurations[shortestShard]) {
+                    shortestShard = i;
+                }
+            }
+
+            shardDurations[shortestShard] += expectedDurations.get(runnerInfo);
+            if (shortestShard == shardIndex) {
+                shard.add(runnerInfo);
+            }
+        }
+
+        return runnerInfoList.stream().filter(shard::contains).collect(Collectors.toList());
+    }
+
+    private Map<CourgetteRunnerInfo, Long> estimateShardDurations(List<CourgetteRunnerInfo> runnerInfoList) {
+        final Map<CourgetteRunnerInfo, Long> expectedDurations = new HashMap<>();
+
+        long knownDuration = 0;
+        long knownScenarios = 0;
+
+        for (CourgetteRunnerInfo runnerInfo : runnerInfoList) {
+            final OptionalLong duration = getDuration(runnerInfo);
+            if (duration.isPresent()) {
+                expectedDurations.put(runnerInfo, duration.getAsLong());
+                knownDuration += duration.getAsLong();
+                knownScenarios += scenarioCount(runnerInfo);
+            }
+        }
+
+        final long averageScenarioDuration = knownScenarios > 0 ? Math.max(knownDuration / knownScenarios, 1) : 1;
+
+        runnerInfoList.forEach(runnerInfo -> expectedDurations.putIfAbsent(runnerInfo, averageScenarioDuration * scenarioCount(runnerInfo)));
+        return expectedDurations;
+    }
+
+    private static int scenarioCount(CourgetteRunnerInfo runnerInfo) {
+        return Math.max(runnerInfo.getLineIds().isEmpty() ? runnerInfo.getFeature().getPickles().size() : runnerInfo.getLineIds().size(), 1);
+    }
+
+    static String runKey(CourgetteRunnerInfo runnerInfo) {
+        return featureKey(runnerInfo.getFeature()) + runnerInfo.getLineIds().stream().map(lineId -> ":" + lineId).collect(Collectors.joining());
+    }
+
+    private static String featureKey(Feature feature) {
+        final URI featureUri = feature.getUri();
+
+        if ("file".equals(featureUri.getScheme())) {
+            final Path featurePath = Paths.get(featureUri).normalize();
+            final Path workingDirectory = Paths.get(System.getProperty("user.dir")).toAbsolutePath().normalize();
+
+            if (featurePath.startsWith(workingDirectory)) {
+                return workingDirectory.relativize(featurePath).toString().replace(File.separatorChar, '/');
+            }
+        }
+        return featureUri.getSchemeSpecificPart();
+    }
+
+    private static String scenarioKey(Feature feature, Integer line) {
+        return featureKey(feature) + ":" + line;
+    }
+}
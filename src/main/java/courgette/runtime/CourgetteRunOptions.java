@@ -1,8 +1,11 @@
 package courgette.runtime;
 
+import courgette.api.CourgetteExecutionMode;
 import courgette.api.CourgetteOptions;
 import courgette.api.CourgettePlugin;
+import courgette.api.CourgetteRerunMode;
 import courgette.api.CourgetteRunLevel;
+import courgette.api.CourgetteRunOrder;
 import courgette.api.CourgetteTestOutput;
 import courgette.api.CucumberOptions;
 import courgette.api.HtmlReport;
@@ -22,6 +25,10 @@ public class CourgetteRunOptions implements CourgetteOptions {
     public CourgetteRunOptions(Class clazz) {
         validate(clazz);
         validatePlugins();
+        validateExecutionMode();
+        validateShardOptions();
+        validateTestOutputArchive();
+        validateSplitStragglers();
         validateSlackOptions();
     }
 
@@ -30,11 +37,46 @@ public class CourgetteRunOptions implements CourgetteOptions {
         return SystemPropertyUtils.getIntProperty(CourgetteSystemProperty.THREADS, courgetteOptions.threads());
     }
 
+    @Override
+    public boolean adaptiveThreads() {
+        return SystemPropertyUtils.getBoolProperty(CourgetteSystemProperty.ADAPTIVE_THREADS, courgetteOptions.adaptiveThreads());
+    }
+
+    @Override
+    public int minThreads() {
+        return SystemPropertyUtils.getIntProperty(CourgetteSystemProperty.MIN_THREADS, courgetteOptions.minThreads());
+    }
+
     @Override
     public CourgetteRunLevel runLevel() {
         return SystemPropertyUtils.getEnumProperty(CourgetteSystemProperty.RUN_LEVEL, CourgetteRunLevel.class, courgetteOptions.runLevel());
     }
 
+    @Override
+    public int scenarioBatchSize() {
+        return SystemPropertyUtils.getIntProperty(CourgetteSystemProperty.SCENARIO_BATCH_SIZE, courgetteOptions.scenarioBatchSize());
+    }
+
+    @Override
+    public boolean splitStragglers() {
+        return SystemPropertyUtils.getBoolProperty(CourgetteSystemProperty.SPLIT_STRAGGLERS, courgetteOptions.splitStragglers());
+    }
+
+    @Override
+    public CourgetteRunOrder runOrder() {
+        return SystemPropertyUtils.getEnumProperty(CourgetteSystemProperty.RUN_ORDER, CourgetteRunOrder.class, courgetteOptions.runOrder());
+    }
+
+    @Override
+    public int shardIndex() {
+        return SystemPropertyUtils.getIntProperty(CourgetteSystemProperty.SHARD_INDEX, courgetteOptions.shardIndex());
+    }
+
+    @Override
+    public int shardCount() {
+        return SystemPropertyUtils.getIntProperty(CourgetteSystemProperty.SHARD_COUNT, courgetteOptions.shardCount());
+    }
+
     @Override
     public boolean rerunFailedScenarios() {
         return SystemPropertyUtils.getBoolProperty(CourgetteSystemProperty.RERUN_FAILED_SCENARIOS, courgetteOptions.rerunFailedScenarios());
@@ -55,11 +97,106 @@ public class CourgetteRunOptions implements CourgetteOptions {
         return SystemPropertyUtils.getIntProperty(CourgetteSystemProperty.RERUN_ATTEMPTS, courgetteOptions.rerunAttempts());
     }
 
+    @Override
+    public CourgetteRerunMode rerunMode() {
+        return SystemPropertyUtils.getEnumProperty(CourgetteSystemProperty.RERUN_MODE, CourgetteRerunMode.class, courgetteOptions.rerunMode());
+    }
+
+    @Override
+    public int rerunThreads() {
+        return SystemPropertyUtils.getIntProperty(CourgetteSystemProperty.RERUN_THREADS, courgetteOptions.rerunThreads());
+    }
+
+    @Override
+    public int failFastCount() {
+        return SystemPropertyUtils.getIntProperty(CourgetteSystemProperty.FAIL_FAST_COUNT, courgetteOptions.failFastCount());
+    }
+
+    @Override
+    public int failFastPercentage() {
+        return SystemPropertyUtils.getIntProperty(CourgetteSystemProperty.FAIL_FAST_PERCENTAGE, courgetteOptions.failFastPercentage());
+    }
+
+    @Override
+    public int runTimeout() {
+        return SystemPropertyUtils.getIntProperty(CourgetteSystemProperty.RUN_TIMEOUT, courgetteOptions.runTimeout());
+    }
+
+    @Override
+    public String[] tagTimeouts() {
+        return SystemPropertyUtils.getStringArrayProperty(CourgetteSystemProperty.TAG_TIMEOUTS, courgetteOptions.tagTimeouts());
+    }
+
+    @Override
+    public boolean resultCache() {
+        return SystemPropertyUtils.getBoolProperty(CourgetteSystemProperty.RESULT_CACHE, courgetteOptions.resultCache());
+    }
+
+    @Override
+    public boolean testImpactAnalysis() {
+        return SystemPropertyUtils.getBoolProperty(CourgetteSystemProperty.TEST_IMPACT_ANALYSIS, courgetteOptions.testImpactAnalysis());
+    }
+
+    @Override
+    public CourgetteExecutionMode executionMode() {
+        return SystemPropertyUtils.getEnumProperty(CourgetteSystemProperty.EXECUTION_MODE, CourgetteExecutionMode.class, courgetteOptions.executionMode());
+    }
+
+    @Override
+    public int workerMaxRuns() {
+        return SystemPropertyUtils.getIntProperty(CourgetteSystemProperty.WORKER_MAX_RUNS, courgetteOptions.workerMaxRuns());
+    }
+
+    @Override
+    public int workerMaxMemory() {
+        return SystemPropertyUtils.getIntProperty(CourgetteSystemProperty.WORKER_MAX_MEMORY, courgetteOptions.workerMaxMemory());
+    }
+
+    @Override
+    public boolean recycleWorkerOnFailure() {
+        return SystemPropertyUtils.getBoolProperty(CourgetteSystemProperty.RECYCLE_WORKER_ON_FAILURE, courgetteOptions.recycleWorkerOnFailure());
+    }
+
+    @Override
+    public int coordinatorPort() {
+        return SystemPropertyUtils.getIntProperty(CourgetteSystemProperty.COORDINATOR_PORT, courgetteOptions.coordinatorPort());
+    }
+
+    @Override
+    public String coordinatorAddress() {
+        return SystemPropertyUtils.getNonEmptyStringProperty(CourgetteSystemProperty.COORDINATOR_ADDRESS, courgetteOptions.coordinatorAddress(), "127.0.0.1");
+    }
+
+    @Override
+    public String agentToken() {
+        return SystemPropertyUtils.getNonEmptyStringProperty(CourgetteSystemProperty.AGENT_TOKEN, courgetteOptions.agentToken(), "");
+    }
+
+    @Override
+    public int agentConnectTimeout() {
+        return SystemPropertyUtils.getIntProperty(CourgetteSystemProperty.AGENT_CONNECT_TIMEOUT, courgetteOptions.agentConnectTimeout());
+    }
+
+    @Override
+    public boolean classDataSharing() {
+        return SystemPropertyUtils.getBoolProperty(CourgetteSystemProperty.CLASS_DATA_SHARING, courgetteOptions.classDataSharing());
+    }
+
+    @Override
+    public boolean liveProgress() {
+        return SystemPropertyUtils.getBoolProperty(CourgetteSystemProperty.LIVE_PROGRESS, courgetteOptions.liveProgress());
+    }
+
     @Override
     public CourgetteTestOutput testOutput() {
         return courgetteOptions.testOutput();
     }
 
+    @Override
+    public boolean testOutputArchive() {
+        return SystemPropertyUtils.getBoolProperty(CourgetteSystemProperty.TEST_OUTPUT_ARCHIVE, courgetteOptions.testOutputArchive());
+    }
+
     @Override
     public String reportTitle() {
         return SystemPropertyUtils.getNonEmptyStringProperty(CourgetteSystemProperty.REPORT_TITLE, courgetteOptions.reportTitle(), "Courgette-JVM Report");
@@ -172,6 +309,58 @@ public class CourgetteRunOptions implements CourgetteOptions {
         }
     }
 
+    private void validateExecutionMode() {
+        if (executionMode() == CourgetteExecutionMode.IN_PROCESS &&
+                Arrays.stream(plugin()).anyMatch(plugin -> plugin.equalsIgnoreCase(CourgettePlugin.MOBILE_DEVICE_ALLOCATOR))) {
+            throw new CourgetteException("The Courgette Mobile Device Allocator plugin can't be used with CourgetteExecutionMode.IN_PROCESS");
+        }
+
+        if (testImpactAnalysis() && executionMode() != CourgetteExecutionMode.PROCESS) {
+            throw new CourgetteException("The Courgette testImpactAnalysis option can only be used with CourgetteExecutionMode.PROCESS");
+        }
+
+        if (classDataSharing() && executionMode() != CourgetteExecutionMode.PROCESS && executionMode() != CourgetteExecutionMode.WORKER_POOL) {
+            throw new CourgetteException("The Courgette classDataSharing option can only be used with CourgetteExecutionMode.PROCESS or CourgetteExecutionMode.WORKER_POOL");
+        }
+
+        if (executionMode() == CourgetteExecutionMode.DISTRIBUTED && agentToken().trim().isEmpty()) {
+            throw new CourgetteException("The Courgette agentToken option is required when using CourgetteExecutionMode.DISTRIBUTED");
+        }
+    }
+
+    private void validateTestOutputArchive() {
+        if (testOutputArchive() && testOutput() != CourgetteTestOutput.FILE && testOutput() != CourgetteTestOutput.ON_FAILURE) {
+            throw new CourgetteException("The Courgette testOutputArchive option can only be used with CourgetteTestOutput.FILE or CourgetteTestOutput.ON_FAILURE");
+        }
+    }
+
+    private void validateSplitStragglers() {
+        if (splitStragglers() && runLevel() == CourgetteRunLevel.FEATURE) {
+            throw new CourgetteException("The Courgette splitStragglers option can only be used with CourgetteRunLevel.SCENARIO or CourgetteRunLevel.AUTO");
+        }
+
+        if (splitStragglers() && executionMode() != CourgetteExecutionMode.PROCESS && executionMode() != CourgetteExecutionMode.WORKER_POOL) {
+            throw new CourgetteException("The Courgette splitStragglers option can only be used with CourgetteExecutionMode.PROCESS or CourgetteExecutionMode.WORKER_POOL");
+        }
+
+        // the glue of the boundary hook would replace the default glue of Cucumber, which is only used when no glue is set
+        if (splitStragglers() && cucumberOptions().glue().length == 0 && cucumberOptions().extraGlue().length == 0
+                && isEmptySystemProperty("cucumber.glue") && isEmptySystemProperty("cucumber.extraGlue")) {
+            throw new CourgetteException("The Courgette splitStragglers option can only be used when the Cucumber glue or extraGlue option is set");
+        }
+    }
+
+    private boolean isEmptySystemProperty(String key) {
+        final String value = System.getProperty(key);
+        return value == null || value.trim().isEmpty();
+    }
+
+    private void validateShardOptions() {
+        if (shardCount() < 1 || shardIndex() < 0 || shardIndex() >= shardCount()) {
+            throw new CourgetteException(String.format("The Courgette shardIndex (%d) must be between 0 and shardCount - 1 (%d)", shardIndex(), shardCount() - 1));
+        }
+    }
+
     private void validateSlackOptions() {
         final CourgetteSlackOptions slackOptions = new CourgetteSlackOptions(
                 slackWebhookUrl(), Arrays.asList(slackChannel()), slackTestId(), Arrays.asList(slackEventSubscription()));
@@ -0,0 +1,136 @@
+package courgette.runtime;
+
+import io.cucumber.core.gherkin.Feature;
+
+import java.io.File;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static courgette.runtime.utils.FileUtils.readFile;
+
+/**
+ * Queues the features and scenarios that are most likely to fail first: those in the rerun file of the previous test run,
+ * then those whose feature file was modified since the previous test run, then all others.
+ * <p>
+ * Within each group, the features and scenarios that took the longest in previous test runs are queued first.
+ */
+class CourgetteRunPriority {
+    private static final Pattern RERUN_LINE = Pattern.compile("^(.+?)((?::\\d+)*)$");
+    private static final int FAILED = 0;
+    private static final int CHANGED = 1;
+    private static final int OTHER = 2;
+
+    private final Map<String, Set<Integer>> failures = new HashMap<>();
+    private final long lastRunTime;
+
+    private CourgetteRunPriority(long lastRunTime) {
+        this.lastRunTime = lastRunTime;
+    }
+
+    /**
+     * @param rerunFile   the rerun file written at the end of the previous test run
+     * @param lastRunTime the time the previous test run finished, or 0 when it is not known
+     */
+    static CourgetteRunPriority load(String rerunFile, long lastRunTime) {
+        final CourgetteRunPriority runPriority = new CourgetteRunPriority(lastRunTime);
+
+        // the rerun file is only written when a test run has failures, so an older one is left over from an earlier test run
+        final boolean hasRerunFile = rerunFile != null && new File(rerunFile).isFile() && new File(rerunFile).lastModified() >= lastRunTime;
+        final String rerun = hasRerunFile ? readFile(rerunFile, false) : null;
+
+        if (rerun != null) {
+            for (String rerunLine : rerun.split("\\s+")) {
+                final Matcher matcher = RERUN_LINE.matcher(rerunLine.trim());
+
+                if (matcher.matches()) {
+                    final Set<Integer> lineIds = runPriority.failures.computeIfAbsent(normalizePath(matcher.group(1)), path -> new HashSet<>());
+                    for (String lineId : matcher.group(2).split(":")) {
+                        if (!lineId.isEmpty()) {
+                            lineIds.add(Integer.parseInt(lineId));
+                        }
+                    }
+                }
+            }
+        }
+        return runPriority;
+    }
+
+    void sort(List<CourgetteRunnerInfo> runnerInfoList, CourgetteRunHistory runHistory) {
+        final Map<CourgetteRunnerInfo, Integer> priorities = new HashMap<>();
+        runnerInfoList.forEach(runnerInfo -> priorities.put(runnerInfo, priority(runnerInfo)));
+
+        runnerInfoList.sort(Comparator.comparing((CourgetteRunnerInfo runnerInfo) -> priorities.get(runnerInfo))
+                .thenComparing(Comparator.comparingLong(runHistory::estimateDuration).reversed()));
+    }
+
+    private int priority(CourgetteRunnerInfo runnerInfo) {
+        if (hasFailed(runnerInfo)) {
+            return FAILED;
+        }
+
+        final File featureFile = getFeatureFile(runnerInfo.getFeature());
+        if (lastRunTime > 0 && featureFile != null && featureFile.lastModified() > lastRunTime) {
+            return CHANGED;
+        }
+        return OTHER;
+    }
+
+    private boolean hasFailed(CourgetteRunnerInfo runnerInfo) {
+        final String featurePath = normalizePath(runnerInfo.getFeature().getUri().getSchemeSpecificPart());
+
+        for (Map.Entry<String, Set<Integer>> failure : failures.entrySet()) {
+            if (isSamePath(featurePath, failure.getKey())) {
+                final Set<Integer> failedLineIds = failure.getValue();
+
+                // a rerun line without scenario lines stands for the whole feature
+                if (failedLineIds.isEmpty() || runnerInfo.getLineIds().isEmpty()
+                        || !Collections.disjoint(failedLineIds, runnerInfo.getLineIds())) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return true when both paths are the same, or one is a relative path that the other ends with
+     */
+    private boolean isSamePath(String path, String otherPath) {
+        return path.equals(otherPath) || path.endsWith("/" + otherPath) || otherPath.endsWith("/" + path);
+    }
+
+    private File getFeatureFile(Feature feature) {
+        final URI uri = feature.getUri();
+
+        try {
+            if ("file".equals(uri.getScheme())) {
+                return new File(uri);
+            }
+
+            if ("classpath".equals(uri.getScheme())) {
+                final URL resource = Thread.currentThread().getContextClassLoader().getResource(normalizePath(uri.getSchemeSpecificPart()).replaceFirst("^/", ""));
+
+                if (resource != null && "file".equals(resource.getProtocol())) {
+                    return new File(resource.toURI());
+                }
+            }
+        } catch (URISyntaxException | IllegalArgumentException e) {
+            return null;
+        }
+        return null;
+    }
+
+    private static String normalizePath(String path) {
+        return path.replaceFirst("^(classpath|file):", "").replace('\\', '/').replaceFirst("^\\./", "");
+    }
+}
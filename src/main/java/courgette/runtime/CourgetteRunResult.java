@@ -2,17 +2,28 @@ package courgette.runtime;
 
 import io.cucumber.core.gherkin.Feature;
 
+import java.util.Collections;
+import java.util.List;
+
 public class CourgetteRunResult {
     private Feature feature;
     private Integer lineId;
     private String featureUri;
     private Status status;
+    private boolean cached;
+    private CourgetteProcessUsage processUsage;
+    private List<CourgetteTestOutputArchive.Entry> testOutput = Collections.emptyList();
 
     CourgetteRunResult(Feature feature, Integer lineId, String featureUri, Status status) {
+        this(feature, lineId, featureUri, status, false);
+    }
+
+    CourgetteRunResult(Feature feature, Integer lineId, String featureUri, Status status, boolean cached) {
         this.feature = feature;
         this.lineId = lineId;
         this.featureUri = featureUri;
         this.status = status;
+        this.cached = cached;
     }
 
     public Feature getFeature() {
@@ -31,12 +42,42 @@ public class CourgetteRunResult {
         return status;
     }
 
+    /**
+     * @return true when the result was taken from the result cache instead of running the feature or scenario
+     */
+    public boolean isCached() {
+        return cached;
+    }
+
+    /**
+     * @return the CPU time and peak resident memory used to run the feature or scenario, or null when it was not measured
+     */
+    public CourgetteProcessUsage getProcessUsage() {
+        return processUsage;
+    }
+
+    void setProcessUsage(CourgetteProcessUsage processUsage) {
+        this.processUsage = processUsage;
+    }
+
+    /**
+     * @return the test output of the runs of the feature or scenario in the test output archive
+     */
+    public List<CourgetteTestOutputArchive.Entry> getTestOutput() {
+        return testOutput;
+    }
+
+    void setTestOutput(List<CourgetteTestOutputArchive.Entry> testOutput) {
+        this.testOutput = testOutput;
+    }
+
     public enum Status {
         PASSED("Passed"),
         FAILED("Failed"),
         RERUN("Re-run"),
         PASSED_AFTER_RERUN("Passed after Rerun"),
-        FAILED_AFTER_RERUN("Failed after Rerun");
+        FAILED_AFTER_RERUN("Failed after Rerun"),
+        TIMED_OUT("Timed out");
 
         private String description;
 
@@ -1,6 +1,7 @@
 package courgette.runtime;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import courgette.api.CourgetteRerunMode;
 import courgette.api.CourgetteRunLevel;
 import courgette.integration.extentreports.ExtentReportsBuilder;
 import courgette.integration.extentreports.ExtentReportsProperties;
@@ -11,6 +12,7 @@ import courgette.runtime.event.CourgetteEventHolder;
 import courgette.runtime.report.JsonReportParser;
 import courgette.runtime.report.model.Feature;
 import courgette.runtime.utils.FileUtils;
+import courgette.runtime.utils.ThreadUtils;
 import io.cucumber.messages.types.Envelope;
 
 import java.io.File;
@@ -20,40 +22,78 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Queue;
 import java.util.Set;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
+import static courgette.runtime.CourgetteException.printError;
 import static courgette.runtime.CourgetteException.printExceptionStackTrace;
 import static courgette.runtime.utils.FileUtils.readFile;
 import static courgette.runtime.utils.FileUtils.writeFile;
 
 public class CourgetteRunner {
-    private final List<Callable<Boolean>> runners = new ArrayList<>();
+    private final Map<CourgetteRunnerInfo, Callable<Boolean>> runners = new LinkedHashMap<>();
     private final CopyOnWriteArrayList<String> reruns = new CopyOnWriteArrayList<>();
-    private final Map<String, CopyOnWriteArrayList<String>> reports = new HashMap<>();
+    private final Map<String, CopyOnWriteArrayList<String>> reports = new ConcurrentHashMap<>();
     private final List<CourgetteRunnerInfo> runnerInfoList;
     private final CourgetteProperties courgetteProperties;
     private final CourgetteRuntimeOptions defaultRuntimeOptions;
     private final CourgetteTestStatistics testStatistics;
-    private final List<CourgetteRunResult> runResults = new ArrayList<>();
+    private final List<CourgetteRunResult> runResults = new CopyOnWriteArrayList<>();
+    private final AtomicInteger failures = new AtomicInteger();
+    private final ReentrantLock resultLock = new ReentrantLock();
     private final CourgetteRuntimePublisher runtimePublisher;
     private final CourgettePluginService courgettePluginService;
     private final boolean canRunFeatures;
     private final AtomicReference<RunStatus> runStatus = new AtomicReference<>(RunStatus.OK);
+    private final CourgetteRunHistory runHistory;
+    private final CourgetteResultCache resultCache;
+    private final CourgetteTestImpact testImpact;
+    private final CourgetteClassDataSharing classDataSharing;
+    private final CourgetteProcessRegistry processRegistry = new CourgetteProcessRegistry();
     private List<Feature> reportFeatures = new ArrayList<>();
-    private final Map<io.cucumber.core.gherkin.Feature, List<List<Envelope>>> reportMessages = new HashMap<>();
+    private final Map<io.cucumber.core.gherkin.Feature, List<List<Envelope>>> reportMessages = new ConcurrentHashMap<>();
     private String cucumberReportUrl = "#";
+    private CourgetteJobExecutor jobExecutor;
+    private CourgetteJvmArguments jvmArguments;
+    private ExecutorService rerunExecutor;
+    private CourgetteAdaptiveConcurrency adaptiveConcurrency;
+    private CourgetteResourceScheduler resourceScheduler;
+    private CourgetteProgress progress;
+    private CourgetteTestOutputArchive testOutputArchive;
+    private CourgetteStragglerSplitter stragglerSplitter;
+    private ExecutorService executor;
+    private final List<Supplier<Future<Boolean>>> deferredReruns = new CopyOnWriteArrayList<>();
+    private final List<Future<Boolean>> scheduledReruns = new CopyOnWriteArrayList<>();
+    private final Map<CourgetteRunnerInfo, CourgetteProcessUsage> processUsage = new ConcurrentHashMap<>();
+    private final Map<CourgetteRunnerInfo, List<CourgetteTestOutputArchive.Entry>> testOutput = new ConcurrentHashMap<>();
+    private final Map<CourgetteRunnerInfo, List<Integer>> handedOffScenarios = new ConcurrentHashMap<>();
+    private final List<Future<Boolean>> handedOffRuns = new CopyOnWriteArrayList<>();
 
     public CourgetteRunner(List<CourgetteRunnerInfo> runnerInfoList, CourgetteProperties courgetteProperties) {
+        this(runnerInfoList, courgetteProperties, null);
+    }
+
+    /**
+     * Creates a runner that uses the run history of the loader the runs were created by, so the runs are ordered and recorded
+     * with the same history they were split and sharded with.
+     */
+    public CourgetteRunner(List<CourgetteRunnerInfo> runnerInfoList, CourgetteProperties courgetteProperties, CourgetteLoader courgetteLoader) {
         this.runnerInfoList = runnerInfoList;
         this.canRunFeatures = runnerInfoList.size() > 0;
         this.courgetteProperties = courgetteProperties;
@@ -61,102 +101,133 @@ public class CourgetteRunner {
         this.defaultRuntimeOptions = new CourgetteRuntimeOptions(courgetteProperties);
         this.runtimePublisher = createRuntimePublisher(courgetteProperties, extractRunnerInfoFeatures());
         this.courgettePluginService = createCourgettePluginService();
+        this.runHistory = courgetteLoader != null ? courgetteLoader.getRunHistory() : loadRunHistory(courgetteProperties);
+        this.resultCache = courgetteProperties.getCourgetteOptions().resultCache() ? CourgetteResultCache.load(courgetteProperties) : null;
+        this.testImpact = courgetteProperties.getCourgetteOptions().testImpactAnalysis() ? CourgetteTestImpact.load(courgetteProperties) : null;
+        this.classDataSharing = courgetteProperties.getCourgetteOptions().classDataSharing() ? CourgetteClassDataSharing.create(courgetteProperties) : null;
+
+        if (testImpact != null && CourgetteImpactAgent.getAgentJar() == null) {
+            printError("Courgette test impact analysis needs Courgette to be loaded from a jar, no class footprints will be recorded");
+        }
     }
 
-    public RunStatus run() {
-        final ExecutorService executor = Executors.newFixedThreadPool(optimizedThreadCount());
+    private static CourgetteRunHistory loadRunHistory(CourgetteProperties courgetteProperties) {
+        final CourgetteRunHistory runHistory = CourgetteRunHistory.load(courgetteProperties);
+        runHistory.mergeShardHistories();
+        return runHistory;
+    }
 
-        final Queue<CourgetteRunnerInfo> runnerQueue = new ArrayDeque<>(runnerInfoList);
+    public RunStatus run() {
+        final int threadCount = optimizedThreadCount();
 
-        while (!runnerQueue.isEmpty()) {
-            final CourgetteRunnerInfo runnerInfo = runnerQueue.poll();
+        executor = ThreadUtils.newBoundedExecutor(threadCount);
 
-            final Map<String, List<String>> cucumberArgs = runnerInfo.getRuntimeOptions();
+        if (isRerunPhaseEnabled()) {
+            rerunExecutor = ThreadUtils.newBoundedExecutor(rerunThreadCount());
+        }
 
-            final io.cucumber.core.gherkin.Feature feature = runnerInfo.getFeature();
-            final Integer lineId = runnerInfo.getLineId();
-            final String featureUri = cucumberArgs.get(null).get(0);
+        final int maxConcurrency = rerunMode() == CourgetteRerunMode.CONCURRENT
+                ? threadCount + rerunThreadCount()
+                : threadCount;
 
-            this.runners.add(() -> {
-                try {
-                    if (runFeature(cucumberArgs)) {
-                        addResultAndPublish(runnerInfo, new CourgetteRunResult(feature, lineId, featureUri, CourgetteRunResult.Status.PASSED));
-                        return true;
-                    }
+        if (classDataSharing != null && canRunFeatures) {
+            classDataSharing.prepare(jvmOptions -> CourgetteFeatureRunner.buildDryRunProcess(dryRunArgs(), courgetteProperties, courgettePluginService, jvmOptions));
+        }
 
-                    String rerunFile = runnerInfo.getRerunFile();
+        if (isForkingJvms()) {
+            jvmArguments = CourgetteJvmArguments.create(courgetteProperties, CourgetteFeatureRunner.buildSessionJvmArguments(courgetteProperties, courgettePluginService,
+                    classDataSharing != null ? classDataSharing.getJvmOptions() : Collections.emptyList()));
+        }
 
-                    String rerun = readFile(rerunFile, false);
+        jobExecutor = createJobExecutor(maxConcurrency);
 
-                    if (runnerInfo.allowRerun() && rerun != null) {
+        if (courgetteProperties.getCourgetteOptions().adaptiveThreads()) {
+            adaptiveConcurrency = new CourgetteAdaptiveConcurrency(courgetteProperties.getCourgetteOptions().minThreads(),
+                    maxConcurrency, new CourgetteSystemResources());
+        }
 
-                        if (courgetteProperties.isFeatureRunLevel()) {
+        resourceScheduler = new CourgetteResourceScheduler(runnerInfoList);
+        if (resourceScheduler.hasResources()) {
+            System.out.println("Courgette resources: " + resourceScheduler.getResourceSummary());
+        }
 
-                            CourgetteRunResult rerunResult = new CourgetteRunResult(feature, lineId, featureUri, CourgetteRunResult.Status.RERUN);
-                            runResults.add(rerunResult);
+        if (courgetteProperties.getCourgetteOptions().testOutputArchive()) {
+            testOutputArchive = CourgetteTestOutputArchive.create(courgetteProperties);
+        }
 
-                            if (rerunFeature(cucumberArgs, rerunResult)) {
-                                addResultAndPublish(runnerInfo, new CourgetteRunResult(feature, lineId, featureUri, CourgetteRunResult.Status.PASSED_AFTER_RERUN));
-                                return true;
-                            } else {
-                                addResultAndPublish(runnerInfo, new CourgetteRunResult(feature, lineId, featureUri, CourgetteRunResult.Status.FAILED_AFTER_RERUN));
-                            }
-                        } else {
-                            final Map<String, List<String>> rerunCucumberArgs = runnerInfo.getRerunRuntimeOptions(rerun);
+        if (courgetteProperties.getCourgetteOptions().liveProgress()) {
+            progress = new CourgetteProgress(courgetteProperties, runHistory, runnerInfoList);
+        }
 
-                            final String rerunFeatureUri = rerunCucumberArgs.get(null).get(0);
+        if (courgetteProperties.getCourgetteOptions().splitStragglers()) {
+            stragglerSplitter = new CourgetteStragglerSplitter(threadCount);
+        }
 
-                            CourgetteRunResult rerunResult = new CourgetteRunResult(feature, lineId, rerunFeatureUri, CourgetteRunResult.Status.RERUN);
-                            runResults.add(rerunResult);
+        final Queue<CourgetteRunnerInfo> runnerQueue = new ArrayDeque<>(orderRunnerInfoList());
 
-                            if (rerunFeature(rerunCucumberArgs, rerunResult)) {
-                                addResultAndPublish(runnerInfo, new CourgetteRunResult(feature, lineId, rerunFeatureUri, CourgetteRunResult.Status.PASSED_AFTER_RERUN));
-                                return true;
-                            }
-                            addResultAndPublish(runnerInfo, new CourgetteRunResult(feature, lineId, rerunFeatureUri, CourgetteRunResult.Status.FAILED_AFTER_RERUN));
-                        }
-                    } else {
-                        addResultAndPublish(runnerInfo, new CourgetteRunResult(feature, lineId, featureUri, CourgetteRunResult.Status.FAILED));
-                    }
+        while (!runnerQueue.isEmpty()) {
+            final CourgetteRunnerInfo runnerInfo = runnerQueue.poll();
 
-                    if (rerun != null) {
-                        reruns.add(rerun);
-                    }
-                } finally {
-                    runnerInfo.getReportFiles().forEach(reportFile -> {
-                        if (shouldProcessReport(reportFile)) {
-                            boolean isJson = reportFile.endsWith(".json");
-
-                            String report = isJson
-                                    ? prettyJson(readFile(reportFile, true))
-                                    : readFile(reportFile, true);
-
-                            boolean isNdJson = reportFile.endsWith(".ndjson");
-
-                            if (isNdJson && shouldProcessCucumberMessages()) {
-                                reportMessages.computeIfAbsent(feature, r -> new ArrayList<>())
-                                        .addAll(Collections.singleton(CourgetteNdJsonCreator.createMessages(report)));
-                            } else {
-                                reports.computeIfAbsent(reportFile, r -> new CopyOnWriteArrayList<>()).add(report);
-                            }
-                        }
-                    });
-                }
-                return false;
-            });
+            this.runners.put(runnerInfo, createRunner(runnerInfo));
         }
 
         try {
             runtimePublisher.publish(createEventHolder(CourgetteEvent.TEST_RUN_STARTED));
-            executor.invokeAll(runners);
+            if (jobExecutor != null) {
+                jobExecutor.start();
+            }
+            if (adaptiveConcurrency != null) {
+                adaptiveConcurrency.start();
+            }
+            if (progress != null) {
+                progress.start();
+            }
+            if (stragglerSplitter != null) {
+                stragglerSplitter.start();
+            }
+            final List<Future<Boolean>> results = new ArrayList<>();
+            runners.forEach((runnerInfo, runner) -> results.add(resourceScheduler.submit(executor, runnerInfo, track(runnerInfo, runner))));
+            awaitAll(results);
+            awaitHandedOffRuns();
+            runReruns();
         } catch (InterruptedException e) {
             printExceptionStackTrace(e);
             runStatus.set(RunStatus.ERROR);
         } finally {
+            if (progress != null) {
+                progress.stop();
+            }
+            if (stragglerSplitter != null) {
+                stragglerSplitter.stop();
+            }
+            runHistory.save();
+            if (resultCache != null) {
+                resultCache.save();
+            }
+            if (testImpact != null) {
+                testImpact.save();
+            }
             testStatistics.calculate(runResults, courgetteProperties);
+            testStatistics.setClassDataSharing(classDataSharing != null ? classDataSharing.getStartupSummary() : null);
+            testStatistics.setProcessUsage(getProcessUsageByRun());
             runtimePublisher.publish(createEventHolder(CourgetteEvent.TEST_RUN_FINISHED));
             runtimePublisher.publish(createTestRunSummaryEventHolder());
             executor.shutdownNow();
+            if (adaptiveConcurrency != null) {
+                adaptiveConcurrency.stop();
+            }
+            if (rerunExecutor != null) {
+                rerunExecutor.shutdownNow();
+            }
+            if (jobExecutor != null) {
+                jobExecutor.shutdown();
+            }
+            if (jvmArguments != null) {
+                jvmArguments.delete();
+            }
+            if (testOutputArchive != null) {
+                testOutputArchive.close();
+            }
         }
 
         boolean reportErrors = !reportMessages.isEmpty() && reportMessages.values().stream().anyMatch(List::isEmpty);
@@ -218,7 +289,9 @@ public class CourgetteRunner {
 
     public List<CourgetteRunResult> getFailures() {
         return runResults.stream()
-                .filter(t -> t.getStatus().equals(CourgetteRunResult.Status.FAILED) || t.getStatus().equals(CourgetteRunResult.Status.FAILED_AFTER_RERUN))
+                .filter(t -> t.getStatus().equals(CourgetteRunResult.Status.FAILED)
+                        || t.getStatus().equals(CourgetteRunResult.Status.FAILED_AFTER_RERUN)
+                        || t.getStatus().equals(CourgetteRunResult.Status.TIMED_OUT))
                 .collect(Collectors.toList());
     }
 
@@ -238,28 +311,662 @@ public class CourgetteRunner {
         CourgetteTestFailure.printTestFailures(getFailures(), courgetteProperties.isFeatureRunLevel());
     }
 
-    private boolean runFeature(Map<String, List<String>> args) {
+    private Callable<Boolean> createRunner(CourgetteRunnerInfo runnerInfo) {
+        return () -> {
+            if (isCancelled()) {
+                return false;
+            }
+
+            if (resultCache != null && runFromCache(runnerInfo)) {
+                return true;
+            }
+
+            return runnerInfo.isScenarioBatch() ? runScenarioBatch(runnerInfo) : runFeatureOrScenario(runnerInfo);
+        };
+    }
+
+    private Callable<Boolean> track(CourgetteRunnerInfo runnerInfo, Callable<Boolean> runner) {
+        final Callable<Boolean> trackedRunner = progress != null ? progress.track(runnerInfo, runner) : runner;
+        return stragglerSplitter != null ? stragglerSplitter.track(trackedRunner) : trackedRunner;
+    }
+
+    /**
+     * Records the duration of the first attempt of the run in the run history, which leaves out the time of re-runs;
+     * a batch that handed scenarios to other threads only records the scenarios it ran.
+     */
+    private void recordDuration(CourgetteRunnerInfo runnerInfo, long startTime) {
+        if (isCancelled()) {
+            return;
+        }
+
+        final long duration = System.currentTimeMillis() - startTime;
+        final List<Integer> handedOffLineIds = handedOffScenarios.get(runnerInfo);
+
+        if (handedOffLineIds == null) {
+            runHistory.record(runnerInfo, duration);
+            return;
+        }
+
+        final List<Integer> lineIds = runnerInfo.getLineIds().stream().filter(lineId -> !handedOffLineIds.contains(lineId)).collect(Collectors.toList());
+        if (!lineIds.isEmpty()) {
+            runHistory.record(runnerInfo.getFeature(), lineIds, duration);
+        }
+    }
+
+    private boolean runFeatureOrScenario(CourgetteRunnerInfo runnerInfo) {
+        final Map<String, List<String>> cucumberArgs = runnerInfo.getRuntimeOptions();
+
+        final io.cucumber.core.gherkin.Feature feature = runnerInfo.getFeature();
+        final Integer lineId = runnerInfo.getLineId();
+        final String featureUri = cucumberArgs.get(null).get(0);
+
+        boolean processReports = true;
+
+        try {
+            final long startTime = System.currentTimeMillis();
+            final int exitStatus = runFeature(runnerInfo, cucumberArgs);
+            recordDuration(runnerInfo, startTime);
+
+            if (testImpact != null) {
+                if (exitStatus == 0) {
+                    testImpact.record(runnerInfo);
+                } else {
+                    testImpact.remove(runnerInfo);
+                }
+            }
+
+            if (exitStatus == 0) {
+                if (resultCache != null) {
+                    processReports = false;
+                    final Map<String, String> runReports = readReports(runnerInfo);
+                    resultCache.put(runnerInfo, runReports);
+                    processReports(runnerInfo, runReports);
+                }
+                addResultAndPublish(runnerInfo, new CourgetteRunResult(feature, lineId, featureUri, CourgetteRunResult.Status.PASSED));
+                return true;
+            }
+
+            if (resultCache != null) {
+                resultCache.remove(runnerInfo);
+            }
+
+            if (isCancelled()) {
+                processReports = false;
+                return false;
+            }
+
+            if (exitStatus == CourgetteFeatureRunner.TIMED_OUT_EXIT_STATUS) {
+                processReports = false;
+                addResultAndPublish(runnerInfo, new CourgetteRunResult(feature, lineId, featureUri, CourgetteRunResult.Status.TIMED_OUT));
+                // a run that timed out has no rerun file of its own, but is queued first by the next failed first test run
+                reruns.add(featureUri);
+                return false;
+            }
+
+            String rerunFile = runnerInfo.getRerunFile();
+
+            String rerun = readFile(rerunFile, false);
+
+            if (runnerInfo.allowRerun() && rerun != null) {
+                processReports = false;
+
+                if (isRerunPhaseEnabled()) {
+                    scheduleRerun(runnerInfo, () -> rerunFeatureOrScenario(runnerInfo, rerun));
+                    return false;
+                }
+                return rerunFeatureOrScenario(runnerInfo, rerun);
+            } else {
+                addResultAndPublish(runnerInfo, new CourgetteRunResult(feature, lineId, featureUri, CourgetteRunResult.Status.FAILED));
+            }
+
+            if (rerun != null) {
+                reruns.add(rerun);
+            }
+        } finally {
+            if (processReports) {
+                processReports(runnerInfo);
+            }
+        }
+        return false;
+    }
+
+    private boolean rerunFeatureOrScenario(CourgetteRunnerInfo runnerInfo, String rerun) {
+        final Map<String, List<String>> cucumberArgs = runnerInfo.getRuntimeOptions();
+
+        final io.cucumber.core.gherkin.Feature feature = runnerInfo.getFeature();
+        final Integer lineId = runnerInfo.getLineId();
+        final String featureUri = cucumberArgs.get(null).get(0);
+
+        boolean processReports = true;
+
+        try {
+            if (isCancelled()) {
+                addResultAndPublish(runnerInfo, new CourgetteRunResult(feature, lineId, featureUri, CourgetteRunResult.Status.FAILED));
+                reruns.add(rerun);
+                return false;
+            }
+
+            if (courgetteProperties.isFeatureRunLevel()) {
+
+                CourgetteRunResult rerunResult = new CourgetteRunResult(feature, lineId, featureUri, CourgetteRunResult.Status.RERUN);
+                runResults.add(rerunResult);
+
+                final int exitStatus = rerunFeature(runnerInfo, cucumberArgs, rerunResult);
+
+                if (exitStatus == 0) {
+                    addResultAndPublish(runnerInfo, new CourgetteRunResult(feature, lineId, featureUri, CourgetteRunResult.Status.PASSED_AFTER_RERUN));
+                    return true;
+                } else if (isCancelled()) {
+                    processReports = false;
+                    return false;
+                } else if (exitStatus == CourgetteFeatureRunner.TIMED_OUT_EXIT_STATUS) {
+                    processReports = false;
+                    addResultAndPublish(runnerInfo, new CourgetteRunResult(feature, lineId, featureUri, CourgetteRunResult.Status.TIMED_OUT));
+                    reruns.add(rerun);
+                    return false;
+                } else {
+                    addResultAndPublish(runnerInfo, new CourgetteRunResult(feature, lineId, featureUri, CourgetteRunResult.Status.FAILED_AFTER_RERUN));
+                }
+            } else {
+                final Map<String, List<String>> rerunCucumberArgs = runnerInfo.getRerunRuntimeOptions(rerun);
+
+                final String rerunFeatureUri = rerunCucumberArgs.get(null).get(0);
+
+                CourgetteRunResult rerunResult = new CourgetteRunResult(feature, lineId, rerunFeatureUri, CourgetteRunResult.Status.RERUN);
+                runResults.add(rerunResult);
+
+                final int exitStatus = rerunFeature(runnerInfo, rerunCucumberArgs, rerunResult);
+
+                if (exitStatus == 0) {
+                    addResultAndPublish(runnerInfo, new CourgetteRunResult(feature, lineId, rerunFeatureUri, CourgetteRunResult.Status.PASSED_AFTER_RERUN));
+                    return true;
+                } else if (isCancelled()) {
+                    processReports = false;
+                    return false;
+                } else if (exitStatus == CourgetteFeatureRunner.TIMED_OUT_EXIT_STATUS) {
+                    processReports = false;
+                    addResultAndPublish(runnerInfo, new CourgetteRunResult(feature, lineId, rerunFeatureUri, CourgetteRunResult.Status.TIMED_OUT));
+                    reruns.add(rerun);
+                    return false;
+                }
+                addResultAndPublish(runnerInfo, new CourgetteRunResult(feature, lineId, rerunFeatureUri, CourgetteRunResult.Status.FAILED_AFTER_RERUN));
+            }
+
+            reruns.add(rerun);
+        } finally {
+            if (processReports) {
+                processReports(runnerInfo);
+            }
+        }
+        return false;
+    }
+
+    private void processReports(CourgetteRunnerInfo runnerInfo) {
+        processReports(runnerInfo, readReports(runnerInfo));
+    }
+
+    private void processReports(CourgetteRunnerInfo runnerInfo, Map<String, String> runReports) {
+        runReports.forEach((reportFile, report) -> {
+            boolean isNdJson = reportFile.endsWith(".ndjson");
+
+            if (isNdJson && shouldProcessCucumberMessages()) {
+                reportMessages.computeIfAbsent(runnerInfo.getFeature(), r -> new CopyOnWriteArrayList<>())
+                        .addAll(Collections.singleton(CourgetteNdJsonCreator.createMessages(report)));
+            } else {
+                reports.computeIfAbsent(reportFile, r -> new CopyOnWriteArrayList<>()).add(report);
+            }
+        });
+    }
+
+    /**
+     * Reads and deletes the report files written by the last run.
+     *
+     * @return the reports by report file path
+     */
+    private Map<String, String> readReports(CourgetteRunnerInfo runnerInfo) {
+        final Map<String, String> runReports = new LinkedHashMap<>();
+
+        runnerInfo.getReportFiles().forEach(reportFile -> {
+            if (shouldProcessReport(reportFile)) {
+                boolean isJson = reportFile.endsWith(".json");
+
+                String report = isJson
+                        ? prettyJson(readFile(reportFile, true))
+                        : readFile(reportFile, true);
+
+                runReports.put(reportFile, report);
+            }
+        });
+        return runReports;
+    }
+
+    /**
+     * Processes the reports of a run that passed in a previous test run, when the result cache holds them.
+     *
+     * @return true when the run was taken from the result cache
+     */
+    private boolean runFromCache(CourgetteRunnerInfo runnerInfo) {
+        final Optional<Map<String, String>> cachedReports = resultCache.get(runnerInfo);
+
+        if (!cachedReports.isPresent()) {
+            return false;
+        }
+
+        final Map<String, String> runReports = new LinkedHashMap<>();
+
+        for (String reportFile : runnerInfo.getReportFiles()) {
+            if (shouldProcessReport(reportFile)) {
+                final String report = cachedReports.get().get(CourgetteResultCache.getExtension(reportFile));
+
+                if (report == null) {
+                    return false;
+                }
+                runReports.put(reportFile, report);
+            }
+        }
+
+        if (runnerInfo.isScenarioBatch()) {
+            final Map<Integer, Map<String, String>> scenarioReports = new HashMap<>();
+            final Map<Integer, List<Envelope>> scenarioMessages = new HashMap<>();
+
+            splitScenarioReports(runnerInfo, runnerInfo.getLineIds(), runReports, scenarioReports, scenarioMessages);
+            processScenarioReports(runnerInfo, scenarioReports, scenarioMessages);
+
+            runnerInfo.getLineIds().forEach(lineId -> addResultAndPublish(runnerInfo, createScenarioResult(runnerInfo, lineId, CourgetteRunResult.Status.PASSED, true)));
+        } else {
+            processReports(runnerInfo, runReports);
+
+            final String featureUri = runnerInfo.getRuntimeOptions().get(null).get(0);
+            addResultAndPublish(runnerInfo, new CourgetteRunResult(runnerInfo.getFeature(), runnerInfo.getLineId(), featureUri, CourgetteRunResult.Status.PASSED, true));
+        }
+        return true;
+    }
+
+    private boolean runScenarioBatch(CourgetteRunnerInfo runnerInfo) {
+        final Map<Integer, Map<String, String>> scenarioReports = new HashMap<>();
+        final Map<Integer, List<Envelope>> scenarioMessages = new HashMap<>();
+
+        boolean processReports = true;
+
+        try {
+            final List<Integer> lineIds = runnerInfo.getLineIds();
+
+            final CourgetteScenarioBoundary boundary = stragglerSplitter != null ? stragglerSplitter.register(runnerInfo) : null;
+            final long startTime = System.currentTimeMillis();
+            final List<Integer> failedLineIds;
+
+            try {
+                final Map<String, List<String>> cucumberArgs = boundary != null ? boundary.addGlue(runnerInfo.getRuntimeOptions()) : runnerInfo.getRuntimeOptions();
+
+                failedLineIds = runScenarioBatchAttempt(runnerInfo, cucumberArgs, lineIds, scenarioReports, scenarioMessages, boundary);
+            } finally {
+                if (boundary != null) {
+                    stragglerSplitter.finish(boundary);
+                }
+                recordDuration(runnerInfo, startTime);
+            }
+
+            if (failedLineIds == null) {
+                return false;
+            }
+
+            final List<Integer> handedOffLineIds = handedOffScenarios.getOrDefault(runnerInfo, Collections.emptyList());
+
+            for (Integer lineId : lineIds) {
+                if (!failedLineIds.contains(lineId) && !handedOffLineIds.contains(lineId)) {
+                    addResultAndPublish(runnerInfo, createScenarioResult(runnerInfo, lineId, CourgetteRunResult.Status.PASSED));
+                }
+            }
+
+            if (failedLineIds.isEmpty()) {
+                return true;
+            }
+
+            if (runnerInfo.allowRerun()) {
+                processReports = false;
+
+                if (isRerunPhaseEnabled()) {
+                    scheduleRerun(runnerInfo, () -> rerunScenarioBatch(runnerInfo, failedLineIds, scenarioReports, scenarioMessages));
+                    return false;
+                }
+                return rerunScenarioBatch(runnerInfo, failedLineIds, scenarioReports, scenarioMessages);
+            }
+
+            failedLineIds.forEach(lineId -> addResultAndPublish(runnerInfo, createScenarioResult(runnerInfo, lineId, CourgetteRunResult.Status.FAILED)));
+
+            reruns.add(runnerInfo.getScenarioPath(failedLineIds));
+        } finally {
+            if (processReports) {
+                processScenarioReports(runnerInfo, scenarioReports, scenarioMessages);
+            }
+        }
+        return false;
+    }
+
+    private boolean rerunScenarioBatch(CourgetteRunnerInfo runnerInfo, List<Integer> failedLineIds,
+                                       Map<Integer, Map<String, String>> scenarioReports, Map<Integer, List<Envelope>> scenarioMessages) {
+        try {
+            if (isCancelled()) {
+                failedLineIds.forEach(lineId -> addResultAndPublish(runnerInfo, createScenarioResult(runnerInfo, lineId, CourgetteRunResult.Status.FAILED)));
+                reruns.add(runnerInfo.getScenarioPath(failedLineIds));
+                return false;
+            }
+
+            failedLineIds.forEach(lineId -> runResults.add(createScenarioResult(runnerInfo, lineId, CourgetteRunResult.Status.RERUN)));
+
+            int rerunAttempts = Math.max(courgetteProperties.getCourgetteOptions().rerunAttempts(), 1);
+
+            while (rerunAttempts-- > 0 && !failedLineIds.isEmpty()) {
+                final List<Integer> rerunLineIds = failedLineIds;
+
+                rerunLineIds.forEach(lineId -> runtimePublisher.publish(createEventHolder(CourgetteEvent.TEST_RERUN, null,
+                        createScenarioResult(runnerInfo, lineId, CourgetteRunResult.Status.RERUN))));
+
+                final Map<String, List<String>> rerunCucumberArgs = runnerInfo.getRerunRuntimeOptions(runnerInfo.getScenarioPath(rerunLineIds));
+                rerunCucumberArgs.put("retry", new ArrayList<>());
+
+                failedLineIds = runScenarioBatchAttempt(runnerInfo, rerunCucumberArgs, rerunLineIds, scenarioReports, scenarioMessages, null);
+
+                if (failedLineIds == null) {
+                    return false;
+                }
+
+                for (Integer lineId : rerunLineIds) {
+                    if (!failedLineIds.contains(lineId)) {
+                        addResultAndPublish(runnerInfo, createScenarioResult(runnerInfo, lineId, CourgetteRunResult.Status.PASSED_AFTER_RERUN));
+                    }
+                }
+            }
+
+            if (failedLineIds.isEmpty()) {
+                return true;
+            }
+
+            failedLineIds.forEach(lineId -> addResultAndPublish(runnerInfo, createScenarioResult(runnerInfo, lineId, CourgetteRunResult.Status.FAILED_AFTER_RERUN)));
+
+            reruns.add(runnerInfo.getScenarioPath(failedLineIds));
+        } finally {
+            processScenarioReports(runnerInfo, scenarioReports, scenarioMessages);
+        }
+        return false;
+    }
+
+    private void processScenarioReports(CourgetteRunnerInfo runnerInfo, Map<Integer, Map<String, String>> scenarioReports,
+                                        Map<Integer, List<Envelope>> scenarioMessages) {
+
+        scenarioReports.forEach((lineId, scenarioReport) -> scenarioReport.forEach((reportFile, report) ->
+                reports.computeIfAbsent(reportFile + ":" + lineId, r -> new CopyOnWriteArrayList<>()).add(report)));
+
+        scenarioMessages.values().forEach(messages -> reportMessages.computeIfAbsent(runnerInfo.getFeature(), r -> new CopyOnWriteArrayList<>()).add(messages));
+    }
+
+    /**
+     * Runs the given scenario lines in one invocation and splits the reports it produced into per-scenario reports,
+     * replacing the reports of an earlier attempt of the same scenarios.
+     * <p>
+     * When the batch was stopped at a scenario boundary, the scenarios it skipped are handed to other threads and left out
+     * of the reports and the failures of the batch.
+     *
+     * @return the scenario lines that failed, or null when the run was cancelled or timed out
+     */
+    private List<Integer> runScenarioBatchAttempt(CourgetteRunnerInfo runnerInfo, Map<String, List<String>> cucumberArgs, List<Integer> lineIds,
+                                                  Map<Integer, Map<String, String>> scenarioReports, Map<Integer, List<Envelope>> scenarioMessages,
+                                                  CourgetteScenarioBoundary boundary) {
+
+        final int exitStatus = runFeature(runnerInfo, cucumberArgs, boundary);
+        final boolean passed = exitStatus == 0;
+
+        final boolean stopped = !isCancelled() && exitStatus != CourgetteFeatureRunner.TIMED_OUT_EXIT_STATUS;
+        final List<Integer> handedOffLineIds = boundary != null ? handOffSkippedScenarios(runnerInfo, boundary, stopped) : Collections.emptyList();
+
+        if (!passed && isCancelled()) {
+            return null;
+        }
+
+        if (exitStatus == CourgetteFeatureRunner.TIMED_OUT_EXIT_STATUS) {
+            lineIds.forEach(lineId -> addResultAndPublish(runnerInfo, createScenarioResult(runnerInfo, lineId, CourgetteRunResult.Status.TIMED_OUT)));
+            reruns.add(runnerInfo.getScenarioPath(lineIds));
+            return null;
+        }
+
+        final Map<String, String> runReports = readReports(runnerInfo);
+
+        splitScenarioReports(runnerInfo, lineIds, runReports, scenarioReports, scenarioMessages);
+
+        handedOffLineIds.forEach(lineId -> {
+            scenarioReports.remove(lineId);
+            scenarioMessages.remove(lineId);
+        });
+
+        // the reports and class footprint of a batch that handed scenarios to other threads do not cover the whole batch
+        final boolean complete = handedOffLineIds.isEmpty();
+
+        if (resultCache != null && !cucumberArgs.containsKey("retry")) {
+            if (passed && complete) {
+                resultCache.put(runnerInfo, runReports);
+            } else {
+                resultCache.remove(runnerInfo);
+            }
+        }
+
+        if (testImpact != null && !cucumberArgs.containsKey("retry")) {
+            if (passed && complete) {
+                testImpact.record(runnerInfo);
+            } else {
+                testImpact.remove(runnerInfo);
+            }
+        }
+
+        if (passed) {
+            return new ArrayList<>();
+        }
+
+        final List<Integer> batchLineIds = lineIds.stream()
+                .filter(lineId -> !handedOffLineIds.contains(lineId))
+                .collect(Collectors.toList());
+
+        final Set<Integer> rerunLineIds = CucumberReportSplitter.parseRerunLines(readFile(runnerInfo.getRerunFile(), false));
+
+        if (!rerunLineIds.isEmpty()) {
+            return batchLineIds.stream().filter(rerunLineIds::contains).collect(Collectors.toList());
+        }
+
+        // without a rerun file, the failed scenarios are found in their split reports, and the whole batch fails when none is found
+        final List<Integer> failedLineIds = batchLineIds.stream()
+                .filter(lineId -> isFailedScenario(scenarioReports.get(lineId)))
+                .collect(Collectors.toList());
+
+        return failedLineIds.isEmpty() ? batchLineIds : failedLineIds;
+    }
+
+    /**
+     * @return true when the split reports of a scenario show it failed, or when there is no split report of the scenario to tell
+     */
+    private boolean isFailedScenario(Map<String, String> scenarioReport) {
+        if (scenarioReport == null || scenarioReport.isEmpty()) {
+            return true;
+        }
+
+        return scenarioReport.entrySet().stream().anyMatch(report -> {
+            try {
+                return CucumberReportSplitter.isFailedReport(report.getKey(), report.getValue());
+            } catch (Exception e) {
+                printExceptionStackTrace(e);
+                return true;
+            }
+        });
+    }
+
+    /**
+     * Queues the scenarios a stopped batch skipped as new runs, split across the threads that were idle when the batch was stopped.
+     *
+     * @return the scenario lines that were handed to other threads
+     */
+    private List<Integer> handOffSkippedScenarios(CourgetteRunnerInfo runnerInfo, CourgetteScenarioBoundary boundary, boolean stopped) {
+        if (!stopped || !boundary.isStopRequested()) {
+            return Collections.emptyList();
+        }
+
+        final List<Integer> skippedLineIds = boundary.getSkippedLineIds();
+
+        if (!skippedLineIds.isEmpty()) {
+            handedOffScenarios.put(runnerInfo, skippedLineIds);
+
+            CourgetteStragglerSplitter.partition(skippedLineIds, boundary.getHandOffThreads()).forEach(lineIds -> {
+                final CourgetteRunnerInfo handedOffRunnerInfo = new CourgetteRunnerInfo(courgetteProperties, runnerInfo.getFeature(), lineIds);
+                handedOffRuns.add(resourceScheduler.submit(executor, handedOffRunnerInfo, stragglerSplitter.track(createRunner(handedOffRunnerInfo))));
+            });
+        }
+        return skippedLineIds;
+    }
+
+    private void splitScenarioReports(CourgetteRunnerInfo runnerInfo, List<Integer> lineIds, Map<String, String> runReports,
+                                      Map<Integer, Map<String, String>> scenarioReports, Map<Integer, List<Envelope>> scenarioMessages) {
+        final Map<Integer, String> scenarioNames = new HashMap<>();
+        runnerInfo.getFeature().getPickles().stream()
+                .filter(pickle -> lineIds.contains(pickle.getLocation().getLine()))
+                .forEach(pickle -> scenarioNames.put(pickle.getLocation().getLine(), pickle.getName()));
+
+        runReports.forEach((reportFile, report) -> {
+            if (report == null) {
+                return;
+            }
+
+            try {
+                if (reportFile.endsWith(".ndjson")) {
+                    if (shouldProcessCucumberMessages()) {
+                        scenarioMessages.putAll(CourgetteNdJsonCreator.splitScenarioMessages(CourgetteNdJsonCreator.createMessages(report)));
+                    }
+                } else {
+                    final Map<Integer, String> splitReports = reportFile.endsWith(".json")
+                            ? CucumberReportSplitter.splitJsonReport(report)
+                            : CucumberReportSplitter.splitXmlReport(report, scenarioNames);
+
+                    splitReports.forEach((lineId, splitReport) ->
+                            scenarioReports.computeIfAbsent(lineId, l -> new HashMap<>()).put(reportFile, splitReport));
+                }
+            } catch (Exception e) {
+                printExceptionStackTrace(e);
+            }
+        });
+    }
+
+    private CourgetteRunResult createScenarioResult(CourgetteRunnerInfo runnerInfo, Integer lineId, CourgetteRunResult.Status status) {
+        return createScenarioResult(runnerInfo, lineId, status, false);
+    }
+
+    private CourgetteRunResult createScenarioResult(CourgetteRunnerInfo runnerInfo, Integer lineId, CourgetteRunResult.Status status, boolean cached) {
+        final List<Integer> scenarioLine = Collections.singletonList(lineId);
+        return new CourgetteRunResult(runnerInfo.getFeature(), lineId, runnerInfo.getScenarioPath(scenarioLine), status, cached);
+    }
+
+    private int runFeature(CourgetteRunnerInfo runnerInfo, Map<String, List<String>> args) {
+        return runFeature(runnerInfo, args, null);
+    }
+
+    private int runFeature(CourgetteRunnerInfo runnerInfo, Map<String, List<String>> args, CourgetteScenarioBoundary scenarioBoundary) {
         try {
-            return 0 == new CourgetteFeatureRunner(args, courgetteProperties, courgettePluginService).run();
+            if (adaptiveConcurrency != null) {
+                adaptiveConcurrency.acquire();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return -1;
+        }
+
+        try {
+            final CourgetteFeatureRunner featureRunner = new CourgetteFeatureRunner(args, courgetteProperties, courgettePluginService, jobExecutor, processRegistry, runnerInfo, jvmArguments,
+                    testOutputArchive, scenarioBoundary);
+            if (progress != null) {
+                progress.processStarted();
+            }
+            try {
+                return featureRunner.run();
+            } finally {
+                if (progress != null) {
+                    progress.processFinished();
+                }
+                processUsage.merge(runnerInfo, featureRunner.getProcessUsage(), CourgetteProcessUsage::merge);
+                if (featureRunner.getTestOutput() != null) {
+                    testOutput.computeIfAbsent(runnerInfo, r -> new CopyOnWriteArrayList<>()).add(featureRunner.getTestOutput());
+                }
+            }
         } catch (Throwable throwable) {
             throwable.printStackTrace();
-            return false;
+            return -1;
+        } finally {
+            if (adaptiveConcurrency != null) {
+                adaptiveConcurrency.release();
+            }
         }
     }
 
-    private boolean rerunFeature(Map<String, List<String>> args, CourgetteRunResult rerunResult) {
+    /**
+     * @return the exit status of the last re-run attempt
+     */
+    private int rerunFeature(CourgetteRunnerInfo runnerInfo, Map<String, List<String>> args, CourgetteRunResult rerunResult) {
         int rerunAttempts = courgetteProperties.getCourgetteOptions().rerunAttempts();
 
         rerunAttempts = Math.max(rerunAttempts, 1);
 
-        while (rerunAttempts-- > 0) {
+        int exitStatus = -1;
+
+        while (rerunAttempts-- > 0 && !isCancelled()) {
             runtimePublisher.publish(createEventHolder(CourgetteEvent.TEST_RERUN, null, rerunResult));
             args.put("retry", new ArrayList<>());
-            if (runFeature(args)) {
-                return true;
+            exitStatus = runFeature(runnerInfo, args);
+            if (exitStatus == 0 || exitStatus == CourgetteFeatureRunner.TIMED_OUT_EXIT_STATUS) {
+                break;
             }
         }
-        return false;
+        return exitStatus;
+    }
+
+    private CourgetteRerunMode rerunMode() {
+        return courgetteProperties.getCourgetteOptions().rerunMode();
+    }
+
+    private int rerunThreadCount() {
+        return Math.max(courgetteProperties.getCourgetteOptions().rerunThreads(), 1);
+    }
+
+    private boolean isRerunPhaseEnabled() {
+        return rerunMode() != CourgetteRerunMode.IMMEDIATE;
+    }
+
+    private void scheduleRerun(CourgetteRunnerInfo runnerInfo, Callable<Boolean> rerunner) {
+        if (rerunMode() == CourgetteRerunMode.CONCURRENT) {
+            scheduledReruns.add(resourceScheduler.submit(rerunExecutor, runnerInfo, rerunner));
+        } else {
+            deferredReruns.add(() -> resourceScheduler.submit(rerunExecutor, runnerInfo, rerunner));
+        }
+    }
+
+    private void runReruns() throws InterruptedException {
+        if (rerunExecutor != null) {
+            deferredReruns.forEach(rerunner -> scheduledReruns.add(rerunner.get()));
+            awaitAll(scheduledReruns);
+        }
+    }
+
+    private void awaitAll(List<Future<Boolean>> results) throws InterruptedException {
+        for (Future<Boolean> result : results) {
+            try {
+                result.get();
+            } catch (ExecutionException | CancellationException e) {
+                printExceptionStackTrace(e);
+            }
+        }
+    }
+
+    /**
+     * Waits for the handed-off runs, including the runs handed off by handed-off runs, which are added before the run that
+     * handed them off ends.
+     */
+    private void awaitHandedOffRuns() throws InterruptedException {
+        for (int i = 0; i < handedOffRuns.size(); i++) {
+            awaitAll(Collections.singletonList(handedOffRuns.get(i)));
+        }
     }
 
     private String prettyJson(String json) {
@@ -286,6 +993,21 @@ public class CourgetteRunner {
         return reportFeatures;
     }
 
+    private List<CourgetteRunnerInfo> orderRunnerInfoList() {
+        final List<CourgetteRunnerInfo> orderedRunnerInfoList = new ArrayList<>(runnerInfoList);
+
+        switch (courgetteProperties.getCourgetteOptions().runOrder()) {
+            case LONGEST_FIRST:
+                runHistory.sortLongestFirst(orderedRunnerInfoList);
+                break;
+            case FAILED_FIRST:
+                CourgetteRunPriority.load(defaultRuntimeOptions.getCucumberRerunFile(), runHistory.getLastRunTime())
+                        .sort(orderedRunnerInfoList, runHistory);
+                break;
+        }
+        return orderedRunnerInfoList;
+    }
+
     private int optimizedThreadCount() {
         return requiredThreadCount() > runnerInfoList.size()
                 ? runnerInfoList.size()
@@ -313,6 +1035,45 @@ public class CourgetteRunner {
         return new CourgetteRuntimePublisher(publishers);
     }
 
+    private CourgetteJobExecutor createJobExecutor(int threadCount) {
+        switch (courgetteProperties.getCourgetteOptions().executionMode()) {
+            case WORKER_POOL:
+                return new CourgetteWorkerPool(threadCount,
+                        () -> CourgetteFeatureRunner.buildWorkerProcess(courgetteProperties, courgettePluginService, jvmArguments),
+                        new CourgetteWorkerRecyclePolicy(courgetteProperties.getCourgetteOptions()));
+            case IN_PROCESS:
+                return new CourgetteInProcessRunner(courgetteProperties);
+            case DISTRIBUTED:
+                return new CourgetteCoordinator(courgetteProperties.getCourgetteOptions().coordinatorAddress(),
+                        courgetteProperties.getCourgetteOptions().coordinatorPort(),
+                        courgetteProperties.getCourgetteOptions().agentToken(),
+                        courgetteProperties.getCourgetteOptions().agentConnectTimeout());
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * @return the runtime options of a dry run of all features without report plugins
+     */
+    private Map<String, List<String>> dryRunArgs() {
+        final Map<String, List<String>> args = defaultRuntimeOptions.mapRuntimeOptions();
+        args.remove("--plugin");
+        args.put("--dryRun", Collections.singletonList("--dry-run"));
+        args.put("--monochrome", Collections.singletonList("--monochrome"));
+        return args;
+    }
+
+    private boolean isForkingJvms() {
+        switch (courgetteProperties.getCourgetteOptions().executionMode()) {
+            case PROCESS:
+            case WORKER_POOL:
+                return true;
+            default:
+                return false;
+        }
+    }
+
     private CourgettePluginService createCourgettePluginService() {
         final CourgetteMobileDeviceAllocatorService mobileDeviceAllocatorService =
                 new CourgetteMobileDeviceAllocatorService(courgetteProperties.getCourgetteOptions().mobileDevice());
@@ -320,20 +1081,88 @@ public class CourgetteRunner {
         return new CourgettePluginService(mobileDeviceAllocatorService);
     }
 
-    private synchronized void addResultAndPublish(CourgetteRunnerInfo courgetteRunnerInfo, CourgetteRunResult courgetteRunResult) {
-        runResults.add(courgetteRunResult);
+    private boolean isCancelled() {
+        return processRegistry.isCancelled();
+    }
 
-        switch (courgetteRunResult.getStatus()) {
-            case PASSED:
-                runtimePublisher.publish(createEventHolder(CourgetteEvent.TEST_PASSED, courgetteRunnerInfo, courgetteRunResult));
-                break;
-            case PASSED_AFTER_RERUN:
-                runtimePublisher.publish(createEventHolder(CourgetteEvent.TEST_PASSED_AFTER_RERUN, courgetteRunnerInfo, courgetteRunResult));
-                break;
-            case FAILED:
-            case FAILED_AFTER_RERUN:
-                runtimePublisher.publish(createEventHolder(CourgetteEvent.TEST_FAILED, courgetteRunnerInfo, courgetteRunResult));
-                break;
+    private void failFast(long failures) {
+        if (!isCancelled()) {
+            printError(String.format("Courgette fail fast: %d failed test(s), cancelling the remaining runs", failures));
+
+            processRegistry.cancel();
+            if (jobExecutor != null) {
+                jobExecutor.cancel();
+            }
+        }
+    }
+
+    private boolean isFailFastThresholdReached(long failures) {
+        final int failFastCount = courgetteProperties.getCourgetteOptions().failFastCount();
+        final int failFastPercentage = courgetteProperties.getCourgetteOptions().failFastPercentage();
+
+        if (failFastCount > 0 && failures >= failFastCount) {
+            return true;
+        }
+        return failFastPercentage > 0 && failures * 100 >= (long) failFastPercentage * totalTestCount();
+    }
+
+    private int totalTestCount() {
+        return runnerInfoList.stream()
+                .mapToInt(runnerInfo -> Math.max(runnerInfo.getLineIds().size(), 1))
+                .sum();
+    }
+
+    /**
+     * @return the CPU time and peak resident memory of each feature or scenario run, including its re-runs
+     */
+    private Map<String, CourgetteProcessUsage> getProcessUsageByRun() {
+        final Map<String, CourgetteProcessUsage> processUsageByRun = new LinkedHashMap<>();
+        processUsage.forEach((runnerInfo, usage) -> processUsageByRun.merge(new File(runnerInfo.getScenarioPath(runnerInfo.getLineIds())).getName(), usage, CourgetteProcessUsage::merge));
+        return processUsageByRun;
+    }
+
+    /**
+     * Adds the result and publishes its event; runs end on many threads at once, so a lock is used instead of a monitor,
+     * which would pin a virtual thread to its carrier thread while the event is published.
+     */
+    private void addResultAndPublish(CourgetteRunnerInfo courgetteRunnerInfo, CourgetteRunResult courgetteRunResult) {
+        resultLock.lock();
+        try {
+            runResults.add(courgetteRunResult);
+
+            if (progress != null) {
+                progress.resultAdded(courgetteRunResult);
+            }
+
+            final CourgetteProcessUsage usage = processUsage.get(courgetteRunnerInfo);
+            if (usage != null && usage.isMeasured() && !courgetteRunResult.isCached()) {
+                courgetteRunResult.setProcessUsage(usage.share(courgetteRunnerInfo.getLineIds().size()));
+            }
+
+            if (testOutput.containsKey(courgetteRunnerInfo)) {
+                courgetteRunResult.setTestOutput(new ArrayList<>(testOutput.get(courgetteRunnerInfo)));
+            }
+
+            switch (courgetteRunResult.getStatus()) {
+                case PASSED:
+                    runtimePublisher.publish(createEventHolder(CourgetteEvent.TEST_PASSED, courgetteRunnerInfo, courgetteRunResult));
+                    break;
+                case PASSED_AFTER_RERUN:
+                    runtimePublisher.publish(createEventHolder(CourgetteEvent.TEST_PASSED_AFTER_RERUN, courgetteRunnerInfo, courgetteRunResult));
+                    break;
+                case FAILED:
+                case FAILED_AFTER_RERUN:
+                case TIMED_OUT:
+                    runtimePublisher.publish(createEventHolder(CourgetteEvent.TEST_FAILED, courgetteRunnerInfo, courgetteRunResult));
+
+                    final int failureCount = failures.incrementAndGet();
+                    if (isFailFastThresholdReached(failureCount)) {
+                        failFast(failureCount);
+                    }
+                    break;
+            }
+        } finally {
+            resultLock.unlock();
         }
     }
 
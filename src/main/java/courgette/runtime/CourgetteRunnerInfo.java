@@ -8,44 +8,72 @@ import java.io.File;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
 import java.util.stream.Collectors;
 
 public class CourgetteRunnerInfo {
+    private static final String RESOURCE_TAG = "@resource:";
+    private static final String EXCLUSIVE_TAG = "@exclusive:";
+
     private final CourgetteRuntimeOptions courgetteRuntimeOptions;
-    private final Integer lineId;
+    private final List<Integer> lineIds;
     private final CourgetteRunLevel courgetteRunLevel;
     private final Feature feature;
     private final boolean rerun;
+    private final int timeout;
+    private final Map<String, Integer> resourceClaims;
 
     public CourgetteRunnerInfo(CourgetteProperties courgetteProperties, Feature feature, Integer lineId) {
+        this(courgetteProperties, feature, lineId != null ? Collections.singletonList(lineId) : Collections.emptyList());
+    }
+
+    public CourgetteRunnerInfo(CourgetteProperties courgetteProperties, Feature feature, List<Integer> lineIds) {
         this.feature = feature;
         this.courgetteRuntimeOptions = new CourgetteRuntimeOptions(courgetteProperties, feature);
-        this.lineId = lineId;
+        this.lineIds = lineIds;
         this.courgetteRunLevel = courgetteProperties.getCourgetteOptions().runLevel();
         this.rerun = courgetteProperties.getCourgetteOptions().rerunFailedScenarios() &&
                 checkRerunCondition(feature,
                         courgetteProperties.getCourgetteOptions().excludeFeatureFromRerun(),
                         courgetteProperties.getCourgetteOptions().excludeTagFromRerun());
+        this.timeout = calculateTimeout(courgetteProperties.getCourgetteOptions().runTimeout(),
+                courgetteProperties.getCourgetteOptions().tagTimeouts());
+        this.resourceClaims = calculateResourceClaims();
     }
 
     public Feature getFeature() {
         return feature;
     }
 
+    /**
+     * @return the scenario line, or null when this runner runs a whole feature or a batch of scenarios
+     */
     public Integer getLineId() {
-        return lineId;
+        return lineIds.size() == 1 ? lineIds.get(0) : null;
+    }
+
+    public List<Integer> getLineIds() {
+        return lineIds;
+    }
+
+    public boolean isScenarioBatch() {
+        return lineIds.size() > 1;
+    }
+
+    public String getScenarioPath(List<Integer> scenarioLines) {
+        final String featurePath = courgetteRuntimeOptions.mapRuntimeOptions().get(null).get(0);
+        return featurePath + scenarioLines.stream().map(line -> ":" + line).collect(Collectors.joining());
     }
 
     public Map<String, List<String>> getRuntimeOptions() {
         Map<String, List<String>> runtimeOptions = courgetteRuntimeOptions.mapRuntimeOptions();
 
-        if (courgetteRunLevel.equals(CourgetteRunLevel.SCENARIO) && lineId != null) {
-            final String featurePath = runtimeOptions.get(null).get(0);
-
+        if (!courgetteRunLevel.equals(CourgetteRunLevel.FEATURE) && !lineIds.isEmpty()) {
             final List<String> scenarioPath = new ArrayList<>();
-            scenarioPath.add(String.format("%s:%s", featurePath, lineId));
+            scenarioPath.add(getScenarioPath(lineIds));
             runtimeOptions.put(null, scenarioPath);
 
             runtimeOptions.remove("--tags");
@@ -72,6 +100,13 @@ public class CourgetteRunnerInfo {
         return courgetteRuntimeOptions.getReportFiles();
     }
 
+    /**
+     * @return the file the test impact agent writes the class footprint of the run to
+     */
+    public String getImpactFootprintFile() {
+        return courgetteRuntimeOptions.getImpactFootprintFile();
+    }
+
     public File getJsonReportFile() {
         final String jsonReport = courgetteRuntimeOptions.getJsonReportFile();
 
@@ -85,6 +120,61 @@ public class CourgetteRunnerInfo {
         return rerun;
     }
 
+    /**
+     * @return the number of seconds a run may take before it is stopped, or 0 when there is no timeout
+     */
+    public int getTimeout() {
+        return timeout;
+    }
+
+    /**
+     * @return the resources claimed with {@code @resource:<name>=<permits>} or {@code @exclusive:<name>} tags, and the number of runs
+     * that may use each resource at the same time
+     */
+    public Map<String, Integer> getResourceClaims() {
+        return resourceClaims;
+    }
+
+    private List<String> getTags() {
+        return feature.getPickles().stream()
+                .filter(pickle -> lineIds.isEmpty() || lineIds.contains(pickle.getLocation().getLine()))
+                .map(Pickle::getTags)
+                .flatMap(Collection::stream)
+                .map(String::trim)
+                .map(String::toLowerCase)
+                .collect(Collectors.toList());
+    }
+
+    private int calculateTimeout(int runTimeout, String[] tagTimeouts) {
+        final List<String> tags = getTags();
+
+        return Arrays.stream(tagTimeouts)
+                .map(tagTimeout -> tagTimeout.split("="))
+                .filter(tagTimeout -> tagTimeout.length == 2 && tagTimeout[1].trim().matches("\\d+"))
+                .filter(tagTimeout -> tags.contains(tagTimeout[0].trim().toLowerCase()))
+                .mapToInt(tagTimeout -> Integer.parseInt(tagTimeout[1].trim()))
+                .max()
+                .orElse(runTimeout);
+    }
+
+    private Map<String, Integer> calculateResourceClaims() {
+        final Map<String, Integer> claims = new TreeMap<>();
+
+        getTags().forEach(tag -> {
+            if (tag.startsWith(RESOURCE_TAG)) {
+                final String[] claim = tag.substring(RESOURCE_TAG.length()).split("=", 2);
+                final String permits = claim.length == 2 ? claim[1].trim() : "1";
+
+                if (!claim[0].trim().isEmpty() && permits.matches("[1-9]\\d*")) {
+                    claims.merge(claim[0].trim(), Integer.parseInt(permits), Math::min);
+                }
+            } else if (tag.startsWith(EXCLUSIVE_TAG) && tag.length() > EXCLUSIVE_TAG.length()) {
+                claims.put(tag.substring(EXCLUSIVE_TAG.length()), 1);
+            }
+        });
+        return Collections.unmodifiableMap(claims);
+    }
+
     private boolean checkRerunCondition(Feature feature, String[] excludedRerunFeatures, String[] excludedRerunTags) {
         return Arrays.stream(excludedRerunFeatures)
                 .map(String::trim)
@@ -155,6 +155,10 @@ class CourgetteRuntimeOptions {
         return getTempDirectory() + courgetteProperties.getSessionId() + "_rerun_" + getFeatureId(feature) + ".txt";
     }
 
+    public String getImpactFootprintFile() {
+        return getTempDirectory() + courgetteProperties.getSessionId() + "_footprint_" + getFeatureId(feature) + ".txt";
+    }
+
     private String getMultiThreadReportFile() {
         return getTempDirectory() + courgetteProperties.getSessionId() + "_thread_report_" + getFeatureId(feature);
     }
@@ -0,0 +1,125 @@
+package courgette.runtime;
+
+import courgette.runtime.boundary.CourgetteScenarioBoundaryHook;
+import courgette.runtime.utils.FileUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static courgette.runtime.CourgetteException.printExceptionStackTrace;
+
+/**
+ * The directory a running scenario batch shares with {@link CourgetteScenarioBoundaryHook}: Courgette creates the stop file
+ * to stop the batch at the next scenario boundary, and the hook records the scenarios the batch started and skipped.
+ */
+class CourgetteScenarioBoundary {
+    private final CourgetteRunnerInfo runnerInfo;
+    private final File directory;
+    private final long startTime = System.currentTimeMillis();
+    private volatile int handOffThreads;
+
+    CourgetteScenarioBoundary(CourgetteRunnerInfo runnerInfo) {
+        this.runnerInfo = runnerInfo;
+        this.directory = new File(System.getProperty("java.io.tmpdir"), "courgette-boundary-" + UUID.randomUUID());
+        FileUtils.createDirectory(directory);
+    }
+
+    CourgetteRunnerInfo getRunnerInfo() {
+        return runnerInfo;
+    }
+
+    long getRunTime() {
+        return System.currentTimeMillis() - startTime;
+    }
+
+    /**
+     * @return the cucumber arguments of the batch, with the glue of the boundary hook added
+     */
+    Map<String, List<String>> addGlue(Map<String, List<String>> cucumberArgs) {
+        final Map<String, List<String>> boundaryArgs = new HashMap<>(cucumberArgs);
+        boundaryArgs.put("--boundaryGlue", Arrays.asList("--glue", CourgetteScenarioBoundaryHook.GLUE));
+        return boundaryArgs;
+    }
+
+    /**
+     * @return the system properties that tell the boundary hook of the batch JVM where to find the stop file
+     */
+    Map<String, String> getSystemProperties() {
+        return Collections.singletonMap(CourgetteScenarioBoundaryHook.SYSTEM_PROPERTY, directory.getPath());
+    }
+
+    /**
+     * Stops the batch before its next scenario, to hand the scenarios that have not started to the given number of threads.
+     */
+    void requestStop(int threads) {
+        handOffThreads = threads;
+        FileUtils.createFile(new File(directory, CourgetteScenarioBoundaryHook.STOP_FILE));
+    }
+
+    boolean isStopRequested() {
+        return handOffThreads > 0;
+    }
+
+    /**
+     * @return the number of threads the skipped scenarios are handed to
+     */
+    int getHandOffThreads() {
+        return handOffThreads;
+    }
+
+    /**
+     * @return the number of scenarios of the batch that have not started yet
+     */
+    int getNotStartedCount() {
+        return runnerInfo.getLineIds().size() - readProgress(CourgetteScenarioBoundaryHook.STARTED).size();
+    }
+
+    /**
+     * @return the scenario lines the batch skipped after it was stopped, in the order of the batch
+     */
+    List<Integer> getSkippedLineIds() {
+        final Set<Integer> skipped = readProgress(CourgetteScenarioBoundaryHook.SKIPPED);
+
+        final List<Integer> skippedLineIds = new ArrayList<>();
+        runnerInfo.getLineIds().stream().filter(skipped::contains).forEach(skippedLineIds::add);
+        return skippedLineIds;
+    }
+
+    void delete() {
+        FileUtils.deleteDirectorySilently(directory.getPath());
+    }
+
+    private Set<Integer> readProgress(String prefix) {
+        final File progressFile = new File(directory, CourgetteScenarioBoundaryHook.PROGRESS_FILE);
+        final Set<Integer> lineIds = new LinkedHashSet<>();
+
+        if (!progressFile.exists()) {
+            return lineIds;
+        }
+
+        try {
+            final String progress = new String(Files.readAllBytes(progressFile.toPath()), StandardCharsets.UTF_8);
+
+            // the last line may still be written by the batch
+            for (String line : progress.substring(0, progress.lastIndexOf('\n') + 1).split("\n")) {
+                if (line.startsWith(prefix)) {
+                    lineIds.add(Integer.parseInt(line.substring(prefix.length()).trim()));
+                }
+            }
+        } catch (IOException | NumberFormatException e) {
+            printExceptionStackTrace(e);
+        }
+        return lineIds;
+    }
+}
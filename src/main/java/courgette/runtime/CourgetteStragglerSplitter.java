@@ -0,0 +1,150 @@
+package courgette.runtime;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Splits the scenario batches that keep running while other threads are idle at the end of the test run.
+ * <p>
+ * Once no runs are queued and fewer runs are running than there are threads, the running batch with the most scenarios
+ * that have not started is asked to stop at the next scenario boundary, as long as it has run for long enough to be worth
+ * the start-up of another JVM. When the batch has stopped, its skipped scenarios are handed to the idle threads.
+ */
+class CourgetteStragglerSplitter {
+    private static final long CHECK_INTERVAL_SECONDS = 5;
+    private static final long STRAGGLER_SECONDS = 30;
+
+    private final int threads;
+    private final long stragglerMillis;
+    private final ScheduledExecutorService monitor = Executors.newSingleThreadScheduledExecutor();
+    private final Map<CourgetteRunnerInfo, CourgetteScenarioBoundary> boundaries = new ConcurrentHashMap<>();
+
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicInteger running = new AtomicInteger();
+    private final ReentrantLock lock = new ReentrantLock();
+    private int reservedThreads;
+
+    CourgetteStragglerSplitter(int threads) {
+        this(threads, TimeUnit.SECONDS.toMillis(STRAGGLER_SECONDS));
+    }
+
+    CourgetteStragglerSplitter(int threads, long stragglerMillis) {
+        this.threads = threads;
+        this.stragglerMillis = stragglerMillis;
+    }
+
+    void start() {
+        monitor.scheduleAtFixedRate(this::split, CHECK_INTERVAL_SECONDS, CHECK_INTERVAL_SECONDS, TimeUnit.SECONDS);
+    }
+
+    void stop() {
+        monitor.shutdownNow();
+    }
+
+    /**
+     * @return the run, which counts as queued until it starts and as running until it ends
+     */
+    Callable<Boolean> track(Callable<Boolean> run) {
+        queued.incrementAndGet();
+
+        return () -> {
+            queued.decrementAndGet();
+            running.incrementAndGet();
+            try {
+                return run.call();
+            } finally {
+                running.decrementAndGet();
+            }
+        };
+    }
+
+    /**
+     * @return the boundary of the scenario batch that is about to start, which can be stopped until it is finished
+     */
+    CourgetteScenarioBoundary register(CourgetteRunnerInfo runnerInfo) {
+        final CourgetteScenarioBoundary boundary = new CourgetteScenarioBoundary(runnerInfo);
+        boundaries.put(runnerInfo, boundary);
+        return boundary;
+    }
+
+    /**
+     * Releases the threads reserved for the skipped scenarios of the batch, once they are queued.
+     */
+    void finish(CourgetteScenarioBoundary boundary) {
+        lock.lock();
+        try {
+            boundaries.remove(boundary.getRunnerInfo());
+            reservedThreads -= boundary.getHandOffThreads();
+        } finally {
+            lock.unlock();
+        }
+        boundary.delete();
+    }
+
+    /**
+     * @return the scenario lines split into about equal parts, one for each thread
+     */
+    static List<List<Integer>> partition(List<Integer> lineIds, int threads) {
+        final List<List<Integer>> parts = new ArrayList<>();
+        final int partCount = Math.max(Math.min(threads, lineIds.size()), 1);
+
+        for (int i = 0; i < partCount; i++) {
+            final List<Integer> part = new ArrayList<>(lineIds.subList(i * lineIds.size() / partCount, (i + 1) * lineIds.size() / partCount));
+
+            if (!part.isEmpty()) {
+                parts.add(part);
+            }
+        }
+        return parts;
+    }
+
+    /**
+     * Asks the straggler with the most scenarios that have not started to stop, when threads are idle and no runs are queued.
+     */
+    void split() {
+        lock.lock();
+        try {
+            final int idleThreads = threads - running.get() - reservedThreads;
+
+            if (queued.get() > 0 || idleThreads <= 0) {
+                return;
+            }
+
+            boundaries.values().stream()
+                    .filter(boundary -> !boundary.isStopRequested() && boundary.getRunTime() >= stragglerMillis)
+                    .map(boundary -> new Straggler(boundary, boundary.getNotStartedCount()))
+                    .filter(straggler -> straggler.notStarted > 0)
+                    .max(Comparator.comparingInt(straggler -> straggler.notStarted))
+                    .ifPresent(straggler -> {
+                        final int handOffThreads = Math.min(idleThreads, straggler.notStarted);
+
+                        straggler.boundary.requestStop(handOffThreads);
+                        reservedThreads += handOffThreads;
+
+                        System.out.println(String.format("Courgette is stopping %s at the next scenario boundary to hand its remaining scenarios to %d idle threads",
+                                straggler.boundary.getRunnerInfo().getScenarioPath(straggler.boundary.getRunnerInfo().getLineIds()), handOffThreads));
+                    });
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static class Straggler {
+        private final CourgetteScenarioBoundary boundary;
+        private final int notStarted;
+
+        private Straggler(CourgetteScenarioBoundary boundary, int notStarted) {
+            this.boundary = boundary;
+            this.notStarted = notStarted;
+        }
+    }
+}
@@ -22,4 +22,30 @@ final class CourgetteSystemProperty {
     final static String PLUGIN = "courgette.plugin";
     final static String EXCLUDE_FEATURE_FROM_RERUN = "courgette.excludeFeatureFromRerun";
     final static String EXCLUDE_TAG_FROM_RERUN = "courgette.excludeTagFromRerun";
+    final static String EXECUTION_MODE = "courgette.executionMode";
+    final static String WORKER_MAX_RUNS = "courgette.workerMaxRuns";
+    final static String WORKER_MAX_MEMORY = "courgette.workerMaxMemory";
+    final static String RECYCLE_WORKER_ON_FAILURE = "courgette.recycleWorkerOnFailure";
+    final static String RUN_ORDER = "courgette.runOrder";
+    final static String SCENARIO_BATCH_SIZE = "courgette.scenarioBatchSize";
+    final static String RERUN_MODE = "courgette.rerunMode";
+    final static String RERUN_THREADS = "courgette.rerunThreads";
+    final static String FAIL_FAST_COUNT = "courgette.failFastCount";
+    final static String FAIL_FAST_PERCENTAGE = "courgette.failFastPercentage";
+    final static String RUN_TIMEOUT = "courgette.runTimeout";
+    final static String TAG_TIMEOUTS = "courgette.tagTimeouts";
+    final static String ADAPTIVE_THREADS = "courgette.adaptiveThreads";
+    final static String MIN_THREADS = "courgette.minThreads";
+    final static String COORDINATOR_PORT = "courgette.coordinatorPort";
+    final static String SHARD_INDEX = "courgette.shardIndex";
+    final static String SHARD_COUNT = "courgette.shardCount";
+    final static String RESULT_CACHE = "courgette.resultCache";
+    final static String TEST_IMPACT_ANALYSIS = "courgette.testImpactAnalysis";
+    final static String CLASS_DATA_SHARING = "courgette.classDataSharing";
+    final static String LIVE_PROGRESS = "courgette.liveProgress";
+    final static String TEST_OUTPUT_ARCHIVE = "courgette.testOutputArchive";
+    final static String SPLIT_STRAGGLERS = "courgette.splitStragglers";
+    final static String COORDINATOR_ADDRESS = "courgette.coordinatorAddress";
+    final static String AGENT_TOKEN = "courgette.agentToken";
+    final static String AGENT_CONNECT_TIMEOUT = "courgette.agentConnectTimeout";
 }
\ No newline at end of file
@@ -0,0 +1,134 @@
+package courgette.runtime;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.OptionalLong;
+
+/**
+ * Reads the CPU and memory available to this JVM, taking cgroup (v1 and v2) container limits into account.
+ */
+class CourgetteSystemResources {
+    private static final Path CGROUP_V2_CPU_MAX = Paths.get("/sys/fs/cgroup/cpu.max");
+    private static final Path CGROUP_V2_MEMORY_MAX = Paths.get("/sys/fs/cgroup/memory.max");
+    private static final Path CGROUP_V2_MEMORY_CURRENT = Paths.get("/sys/fs/cgroup/memory.current");
+    private static final Path CGROUP_V1_CPU_QUOTA = Paths.get("/sys/fs/cgroup/cpu/cpu.cfs_quota_us");
+    private static final Path CGROUP_V1_CPU_PERIOD = Paths.get("/sys/fs/cgroup/cpu/cpu.cfs_period_us");
+    private static final Path CGROUP_V1_MEMORY_LIMIT = Paths.get("/sys/fs/cgroup/memory/memory.limit_in_bytes");
+    private static final Path CGROUP_V1_MEMORY_USAGE = Paths.get("/sys/fs/cgroup/memory/memory.usage_in_bytes");
+    private static final Path PROC_MEMINFO = Paths.get("/proc/meminfo");
+
+    // cgroup v1 reports "no limit" as a very large number close to Long.MAX_VALUE
+    private static final long UNLIMITED_MEMORY = Long.MAX_VALUE / 2;
+
+    /**
+     * @return the number of CPUs this JVM may use, from the cgroup CPU quota when one is set
+     */
+    double getCpuLimit() {
+        final int processors = Runtime.getRuntime().availableProcessors();
+
+        final String cpuMax = readFirstLine(CGROUP_V2_CPU_MAX);
+        if (cpuMax != null) {
+            final String[] quotaAndPeriod = cpuMax.trim().split("\\s+");
+            if (quotaAndPeriod.length == 2 && quotaAndPeriod[0].matches("\\d+") && quotaAndPeriod[1].matches("\\d+")) {
+                return Math.min(processors, parseLong(quotaAndPeriod[0]) / (double) parseLong(quotaAndPeriod[1]));
+            }
+            return processors;
+        }
+
+        final long quota = readLong(CGROUP_V1_CPU_QUOTA).orElse(-1);
+        final long period = readLong(CGROUP_V1_CPU_PERIOD).orElse(-1);
+        if (quota > 0 && period > 0) {
+            return Math.min(processors, quota / (double) period);
+        }
+        return processors;
+    }
+
+    /**
+     * @return the system load average for the last minute, or a negative value when it is not available
+     */
+    double getLoadAverage() {
+        return ManagementFactory.getOperatingSystemMXBean().getSystemLoadAverage();
+    }
+
+    /**
+     * @return the memory limit in bytes, from the cgroup memory limit when one is set
+     */
+    OptionalLong getMemoryLimit() {
+        final OptionalLong cgroupLimit = getCgroupMemoryLimit();
+        return cgroupLimit.isPresent() ? cgroupLimit : readMemInfo("MemTotal:");
+    }
+
+    /**
+     * @return the free memory in bytes, the lower of what is left in the cgroup and what is available on the host
+     */
+    OptionalLong getFreeMemory() {
+        final OptionalLong hostAvailable = readMemInfo("MemAvailable:");
+        final OptionalLong cgroupLimit = getCgroupMemoryLimit();
+
+        if (cgroupLimit.isPresent()) {
+            final OptionalLong cgroupUsage = readLong(CGROUP_V2_MEMORY_CURRENT).isPresent()
+                    ? readLong(CGROUP_V2_MEMORY_CURRENT)
+                    : readLong(CGROUP_V1_MEMORY_USAGE);
+
+            if (cgroupUsage.isPresent()) {
+                final long cgroupFree = Math.max(cgroupLimit.getAsLong() - cgroupUsage.getAsLong(), 0);
+                return OptionalLong.of(hostAvailable.isPresent() ? Math.min(cgroupFree, hostAvailable.getAsLong()) : cgroupFree);
+            }
+        }
+        return hostAvailable;
+    }
+
+    private OptionalLong getCgroupMemoryLimit() {
+        final String memoryMax = readFirstLine(CGROUP_V2_MEMORY_MAX);
+        if (memoryMax != null) {
+            return memoryMax.trim().matches("\\d+") ? OptionalLong.of(parseLong(memoryMax)) : OptionalLong.empty();
+        }
+
+        final OptionalLong memoryLimit = readLong(CGROUP_V1_MEMORY_LIMIT);
+        if (memoryLimit.isPresent() && memoryLimit.getAsLong() < UNLIMITED_MEMORY) {
+            return memoryLimit;
+        }
+        return OptionalLong.empty();
+    }
+
+    private OptionalLong readMemInfo(String key) {
+        try {
+            final List<String> lines = Files.readAllLines(PROC_MEMINFO, StandardCharsets.UTF_8);
+            for (String line : lines) {
+                if (line.startsWith(key)) {
+                    // values in /proc/meminfo are in kB
+                    return OptionalLong.of(parseLong(line.substring(key.length()).replace("kB", "")) * 1024);
+                }
+            }
+        } catch (IOException | RuntimeException ignored) {
+        }
+        return OptionalLong.empty();
+    }
+
+    private OptionalLong readLong(Path path) {
+        final String line = readFirstLine(path);
+        try {
+            return line != null ? OptionalLong.of(parseLong(line)) : OptionalLong.empty();
+        } catch (NumberFormatException e) {
+            return OptionalLong.empty();
+        }
+    }
+
+    private String readFirstLine(Path path) {
+        try {
+            final List<String> lines = Files.readAllLines(path, StandardCharsets.UTF_8);
+            return lines.isEmpty() ? null : lines.get(0);
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    private long parseLong(String value) {
+        return Long.parseLong(value.trim());
+    }
+}
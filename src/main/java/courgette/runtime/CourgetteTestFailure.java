@@ -28,6 +28,9 @@ public final class CourgetteTestFailure {
                         testId = testId + " - " + scenario.get().getName();
                     }
                 }
+                if (failure.getStatus() == CourgetteRunResult.Status.TIMED_OUT) {
+                    testId = testId + " (timed out)";
+                }
                 testFailures.append(testId).append("\n");
             });
             System.err.println(testFailures);
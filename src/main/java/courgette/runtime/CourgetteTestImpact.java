@@ -0,0 +1,132 @@
+package courgette.runtime;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import static courgette.runtime.CourgetteException.printExceptionStackTrace;
+
+/**
+ * The class footprints of features and scenarios that passed in previous test runs, recorded by {@link CourgetteImpactAgent}.
+ * <p>
+ * A feature or scenario is affected by a change when it has no footprint, or when its feature file or any class file or jar
+ * in its footprint has changed. The footprints are kept in {@code ${reportTargetDir}/courgette-test-impact.json}.
+ */
+class CourgetteTestImpact {
+    private static final String FOOTPRINT_FILE = "courgette-test-impact.json";
+    private static final String FEATURE_SOURCE = "feature";
+
+    private final File footprintFile;
+    private final Map<String, Map<String, String>> footprints = new ConcurrentHashMap<>();
+    private final Map<String, String> currentFingerprints = new ConcurrentHashMap<>();
+
+    private CourgetteTestImpact(File footprintFile) {
+        this.footprintFile = footprintFile;
+    }
+
+    static CourgetteTestImpact load(CourgetteProperties courgetteProperties) {
+        final CourgetteTestImpact testImpact = new CourgetteTestImpact(
+                new File(courgetteProperties.getCourgetteOptions().reportTargetDir(), FOOTPRINT_FILE));
+
+        if (testImpact.footprintFile.exists()) {
+            try {
+                testImpact.footprints.putAll(new ObjectMapper().readValue(testImpact.footprintFile, new TypeReference<Map<String, Map<String, String>>>() {
+                }));
+            } catch (IOException e) {
+                printExceptionStackTrace(e);
+            }
+        }
+        return testImpact;
+    }
+
+    /**
+     * @return the runs affected by changes since they last passed, in their original order
+     */
+    List<CourgetteRunnerInfo> getAffected(List<CourgetteRunnerInfo> runnerInfoList) {
+        return runnerInfoList.stream().filter(this::isAffected).collect(Collectors.toList());
+    }
+
+    boolean isAffected(CourgetteRunnerInfo runnerInfo) {
+        final Map<String, String> footprint = footprints.get(CourgetteRunHistory.runKey(runnerInfo));
+
+        if (footprint == null || !hash(runnerInfo.getFeature().getSource()).equals(footprint.get(FEATURE_SOURCE))) {
+            return true;
+        }
+
+        return footprint.entrySet().stream()
+                .filter(entry -> !entry.getKey().equals(FEATURE_SOURCE))
+                .anyMatch(entry -> !entry.getValue().equals(currentFingerprints.computeIfAbsent(entry.getKey(),
+                        path -> CourgetteImpactAgent.fingerprint(new File(path)))));
+    }
+
+    /**
+     * Records the class footprint written by the agent for a run that passed, and deletes the agent output.
+     */
+    void record(CourgetteRunnerInfo runnerInfo) {
+        final File agentOutput = new File(runnerInfo.getImpactFootprintFile());
+
+        if (!agentOutput.exists()) {
+            return;
+        }
+
+        try {
+            final Map<String, String> footprint = new HashMap<>();
+
+            for (String line : Files.readAllLines(agentOutput.toPath(), StandardCharsets.UTF_8)) {
+                final int separator = line.lastIndexOf('\t');
+                if (separator > 0) {
+                    footprint.put(line.substring(0, separator), line.substring(separator + 1));
+                }
+            }
+            footprint.put(FEATURE_SOURCE, hash(runnerInfo.getFeature().getSource()));
+
+            footprints.put(CourgetteRunHistory.runKey(runnerInfo), footprint);
+        } catch (IOException e) {
+            printExceptionStackTrace(e);
+        } finally {
+            agentOutput.delete();
+        }
+    }
+
+    /**
+     * Removes the footprint of a run that failed, so it runs again until it passes, and deletes the agent output.
+     */
+    void remove(CourgetteRunnerInfo runnerInfo) {
+        footprints.remove(CourgetteRunHistory.runKey(runnerInfo));
+        new File(runnerInfo.getImpactFootprintFile()).delete();
+    }
+
+    void save() {
+        try {
+            footprintFile.getParentFile().mkdirs();
+            new ObjectMapper().writeValue(footprintFile, footprints);
+        } catch (IOException e) {
+            printExceptionStackTrace(e);
+        }
+    }
+
+    private String hash(String value) {
+        try {
+            final MessageDigest digest = MessageDigest.getInstance("SHA-256");
+
+            final StringBuilder hex = new StringBuilder();
+            for (byte b : digest.digest(value.getBytes(StandardCharsets.UTF_8))) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new CourgetteException(e);
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package courgette.runtime;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import courgette.runtime.utils.FileUtils;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.GZIPOutputStream;
+
+import static courgette.runtime.CourgetteException.printExceptionStackTrace;
+
+/**
+ * Collects the test output of all runs of a session in one compressed archive instead of a file per run.
+ * <p>
+ * Each test output is compressed as a separate gzip member and appended to the archive, so the archive can be read as a whole
+ * with {@code zcat}, and the test output of one run can be read from its offset and length in the index without reading
+ * the rest of the archive: {@code tail -c +<offset + 1> <archive> | head -c <length> | gunzip}.
+ * <p>
+ * Runs write their test output to a staging directory, and the staged file is moved into the archive when the run ends.
+ */
+public class CourgetteTestOutputArchive {
+    private static final String TEST_OUTPUT_DIRECTORY = "courgette-test-output";
+
+    private final File archiveFile;
+    private final File indexFile;
+    private final File stagingDirectory;
+    private final List<Entry> entries = new ArrayList<>();
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private CourgetteTestOutputArchive(File archiveFile, File indexFile, File stagingDirectory) {
+        this.archiveFile = archiveFile;
+        this.indexFile = indexFile;
+        this.stagingDirectory = stagingDirectory;
+    }
+
+    static CourgetteTestOutputArchive create(CourgetteProperties courgetteProperties) {
+        final String name = "courgette-test-output-" + courgetteProperties.getSessionId();
+        final File directory = new File(FileUtils.formatFilePath(courgetteProperties.getCourgetteOptions().reportTargetDir()) + TEST_OUTPUT_DIRECTORY);
+        final File stagingDirectory = new File(System.getProperty("java.io.tmpdir"), name);
+
+        FileUtils.createDirectory(directory);
+        FileUtils.createDirectory(stagingDirectory);
+
+        return new CourgetteTestOutputArchive(new File(directory, name + ".log.gz"), new File(directory, name + ".index.json"), stagingDirectory);
+    }
+
+    /**
+     * @return the file a run writes its test output to, until it is moved into the archive
+     */
+    File getStagingFile(String name) {
+        return new File(stagingDirectory, name);
+    }
+
+    /**
+     * Moves the staged test output into the archive. Nothing is added when the run did not write its test output.
+     *
+     * @return the entry of the test output in the archive, or null when nothing was added
+     */
+    Entry add(File stagingFile) {
+        if (!stagingFile.isFile()) {
+            return null;
+        }
+
+        // a lock instead of a monitor, so a run on a virtual thread is not pinned to its carrier thread while it writes
+        lock.lock();
+        try {
+            final long offset = archiveFile.length();
+
+            try (OutputStream out = new GZIPOutputStream(new FileOutputStream(archiveFile, true))) {
+                Files.copy(stagingFile.toPath(), out);
+            }
+
+            final Entry entry = new Entry(archiveFile.getName(), stagingFile.getName(), offset, archiveFile.length() - offset, stagingFile.length());
+            entries.add(entry);
+            return entry;
+        } catch (IOException e) {
+            printExceptionStackTrace(e);
+            return null;
+        } finally {
+            lock.unlock();
+            stagingFile.delete();
+        }
+    }
+
+    /**
+     * Writes the index of the archive and removes the staging directory.
+     */
+    void close() {
+        lock.lock();
+        try {
+            FileUtils.deleteDirectorySilently(stagingDirectory.getPath());
+
+            if (entries.isEmpty()) {
+                return;
+            }
+
+            new ObjectMapper().writerWithDefaultPrettyPrinter().writeValue(indexFile, entries);
+        } catch (IOException e) {
+            printExceptionStackTrace(e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public static class Entry {
+        private final String archive;
+        private final String name;
+        private final long offset;
+        private final long length;
+        private final long size;
+
+        Entry(String archive, String name, long offset, long length, long size) {
+            this.archive = archive;
+            this.name = name;
+            this.offset = offset;
+            this.length = length;
+            this.size = size;
+        }
+
+        /**
+         * @return the file name of the archive in the {@code courgette-test-output} directory
+         */
+        public String getArchive() {
+            return archive;
+        }
+
+        /**
+         * @return the name of the test output file the run would have written without the archive
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * @return the offset of the compressed test output in the archive
+         */
+        public long getOffset() {
+            return offset;
+        }
+
+        /**
+         * @return the length of the compressed test output in the archive
+         */
+        public long getLength() {
+            return length;
+        }
+
+        /**
+         * @return the size of the test output
+         */
+        public long getSize() {
+            return size;
+        }
+    }
+}
@@ -3,7 +3,9 @@ package courgette.runtime;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.Arrays;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.TimeUnit;
 
 public class CourgetteTestStatistics {
@@ -12,7 +14,12 @@ public class CourgetteTestStatistics {
     private int failed;
     private int rerun;
     private int passedAfterRerun;
+    private int timedOut;
+    private int cached;
     private String duration;
+    private String classDataSharing;
+    private String cpuTime;
+    private String peakMemory;
 
     private static CourgetteTestStatistics instance;
 
@@ -47,6 +54,24 @@ public class CourgetteTestStatistics {
         return duration == null ? "0 min, 0 sec" : duration;
     }
 
+    public String classDataSharing() {
+        return classDataSharing;
+    }
+
+    /**
+     * @return the CPU time used by all test run JVMs and the feature or scenario that used the most, or null when it was not measured
+     */
+    public String cpuTime() {
+        return cpuTime;
+    }
+
+    /**
+     * @return the highest peak resident memory of a test run JVM and its feature or scenario, or null when it was not measured
+     */
+    public String peakMemory() {
+        return peakMemory;
+    }
+
     public int passedAfterRerun() {
         return passedAfterRerun;
     }
@@ -63,19 +88,54 @@ public class CourgetteTestStatistics {
         return failed > 0;
     }
 
+    protected void setClassDataSharing(String classDataSharing) {
+        this.classDataSharing = classDataSharing;
+    }
+
+    protected void setProcessUsage(Map<String, CourgetteProcessUsage> processUsage) {
+        final long totalCpuTime = processUsage.values().stream().mapToLong(CourgetteProcessUsage::getCpuTime).sum();
+
+        cpuTime = totalCpuTime <= 0 ? null : processUsage.entrySet().stream()
+                .max(Comparator.comparingLong(usage -> usage.getValue().getCpuTime()))
+                .map(usage -> String.format("%s (highest: %s, %s)", CourgetteProcessUsage.formatCpuTime(totalCpuTime),
+                        usage.getKey(), CourgetteProcessUsage.formatCpuTime(usage.getValue().getCpuTime())))
+                .orElse(null);
+
+        peakMemory = processUsage.entrySet().stream()
+                .filter(usage -> usage.getValue().getPeakResidentMemory() > 0)
+                .max(Comparator.comparingLong(usage -> usage.getValue().getPeakResidentMemory()))
+                .map(usage -> String.format("%s (%s)", CourgetteProcessUsage.formatMemory(usage.getValue().getPeakResidentMemory()), usage.getKey()))
+                .orElse(null);
+    }
+
     protected void printToConsole(CourgetteProperties courgetteProperties) {
         System.out.println("\n───────────────────────────────────────────────────");
         System.out.println("\u001B[32m" + "             Courgette Test Statistics          " + "\u001B[0m");
         System.out.println("───────────────────────────────────────────────────");
         System.out.println("Summary:\t" + passedPercentage() + "% passed" + (failed > 0 ? ", " + failedPercentage() + "% failed" : ""));
         System.out.println("Duration:\t" + duration());
-        System.out.println("Run Level:\t" + (courgetteProperties.isFeatureRunLevel() ? "Feature" : "Scenario"));
+        System.out.println("Run Level:\t" + courgetteProperties.getCourgetteOptions().runLevel());
         System.out.println("Total:\t\t" + total);
         System.out.println("Passed:\t\t" + passed);
         System.out.println("Failed:\t\t" + failed);
+        if (timedOut > 0) {
+            System.out.println("Timed out:\t" + timedOut);
+        }
+        if (cached > 0) {
+            System.out.println("Cached:\t\t" + cached);
+        }
         if (courgetteProperties.getCourgetteOptions().rerunFailedScenarios()) {
             System.out.println("Rerun:\t\t" + rerun);
         }
+        if (classDataSharing != null) {
+            System.out.println("JVM Startup:\t" + classDataSharing);
+        }
+        if (cpuTime != null) {
+            System.out.println("CPU Time:\t" + cpuTime);
+        }
+        if (peakMemory != null) {
+            System.out.println("Peak Memory:\t" + peakMemory);
+        }
         System.out.println("───────────────────────────────────────────────────\n");
     }
 
@@ -86,6 +146,10 @@ public class CourgetteTestStatistics {
 
         failed = total - passed;
 
+        timedOut = calculateStatus(runResults, CourgetteRunResult.Status.TIMED_OUT);
+
+        cached = (int) runResults.stream().filter(CourgetteRunResult::isCached).count();
+
         if (courgetteProperties.getCourgetteOptions().rerunFailedScenarios()) {
             rerun = calculateStatus(runResults, CourgetteRunResult.Status.RERUN);
             passedAfterRerun = calculateStatus(runResults, CourgetteRunResult.Status.PASSED_AFTER_RERUN);
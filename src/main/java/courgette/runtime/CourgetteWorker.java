@@ -0,0 +1,166 @@
+package courgette.runtime;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import courgette.runtime.utils.ProcessUtils;
+import io.cucumber.core.options.CommandlineOptionsParser;
+import io.cucumber.core.options.CucumberProperties;
+import io.cucumber.core.options.CucumberPropertiesParser;
+import io.cucumber.core.options.RuntimeOptions;
+import io.cucumber.core.runtime.Runtime;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Entry point of a long-lived worker JVM started by {@link CourgetteWorkerPool}.
+ * <p>
+ * Jobs are read from stdin and results are written to stdout, one json document per line.
+ * The test output of each job is redirected away from stdout so it can't corrupt the result stream.
+ * Feature files are parsed once per worker and reused by later jobs that run the same features.
+ */
+public class CourgetteWorker {
+    private final PrintStream console;
+    private final CourgetteFeatureCache featureCache = new CourgetteFeatureCache();
+
+    private CourgetteWorker(PrintStream console) {
+        this.console = console;
+    }
+
+    public static void main(String[] args) throws IOException {
+        final PrintStream results = new PrintStream(new FileOutputStream(FileDescriptor.out), true, "UTF-8");
+        final PrintStream console = System.err;
+        System.setOut(console);
+
+        final CourgetteWorker worker = new CourgetteWorker(console);
+        final ObjectMapper mapper = new ObjectMapper();
+        final BufferedReader jobs = new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8));
+
+        String job;
+        while ((job = jobs.readLine()) != null) {
+            if (!job.trim().isEmpty()) {
+                final CourgetteWorkerResult result = worker.execute(mapper.readValue(job, CourgetteJob.class));
+                results.println(mapper.writeValueAsString(result));
+            }
+        }
+    }
+
+    private CourgetteWorkerResult execute(CourgetteJob job) {
+        final CourgetteOutputBuffer outputBuffer = job.isOutputOnFailure() ? new CourgetteOutputBuffer() : null;
+        final PrintStream output = outputBuffer != null ? new PrintStream(outputBuffer, true) : createOutput(job);
+        final Map<String, String> previousSystemProperties = setSystemProperties(job.getSystemProperties());
+        final long startCpuTime = ProcessUtils.getCpuTime().orElse(0L);
+
+        int exitStatus;
+        try {
+            System.setOut(output);
+            System.setErr(output);
+            exitStatus = run(job.getArgs());
+        } catch (Throwable throwable) {
+            throwable.printStackTrace(output);
+            exitStatus = -1;
+        } finally {
+            System.setOut(console);
+            System.setErr(console);
+            setSystemProperties(previousSystemProperties);
+
+            if (output != console) {
+                output.close();
+            }
+        }
+
+        if (outputBuffer != null && exitStatus != 0) {
+            try {
+                outputBuffer.writeTo(new File(job.getOutputFile()));
+            } catch (IOException e) {
+                e.printStackTrace(console);
+            }
+        }
+        final long cpuTime = ProcessUtils.getCpuTime().orElse(startCpuTime) - startCpuTime;
+        return new CourgetteWorkerResult(exitStatus, usedHeapMemory(), ProcessUtils.getPeakResidentMemory().orElse(0L), cpuTime);
+    }
+
+    /**
+     * Runs Cucumber with the same options as {@code io.cucumber.core.cli.Main}, but with the features of the feature cache.
+     */
+    private int run(List<String> args) {
+        final ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+
+        final RuntimeOptions propertiesFileOptions = new CucumberPropertiesParser()
+                .parse(CucumberProperties.fromPropertiesFile())
+                .build();
+
+        final RuntimeOptions environmentOptions = new CucumberPropertiesParser()
+                .parse(CucumberProperties.fromEnvironment())
+                .build(propertiesFileOptions);
+
+        final RuntimeOptions systemOptions = new CucumberPropertiesParser()
+                .parse(CucumberProperties.fromSystemProperties())
+                .build(environmentOptions);
+
+        final RuntimeOptions runtimeOptions = new CommandlineOptionsParser(System.out)
+                .parse(args.toArray(new String[0]))
+                .build(systemOptions);
+
+        final Runtime runtime = Runtime.builder()
+                .withRuntimeOptions(runtimeOptions)
+                .withClassLoader(() -> classLoader)
+                .withFeatureSupplier(() -> featureCache.get(runtimeOptions, () -> classLoader))
+                .build();
+
+        runtime.run();
+        return runtime.exitStatus();
+    }
+
+    private long usedHeapMemory() {
+        final java.lang.Runtime runtime = java.lang.Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private PrintStream createOutput(CourgetteJob job) {
+        if (job.getOutputFile() != null) {
+            try {
+                return new PrintStream(new FileOutputStream(new File(job.getOutputFile()), false), true);
+            } catch (IOException e) {
+                e.printStackTrace(console);
+            }
+        }
+
+        if (job.isDiscardOutput()) {
+            return new PrintStream(new OutputStream() {
+                @Override
+                public void write(int b) {
+                }
+
+                @Override
+                public void write(byte[] b, int off, int len) {
+                }
+            });
+        }
+        return console;
+    }
+
+    private Map<String, String> setSystemProperties(Map<String, String> systemProperties) {
+        final Map<String, String> previousSystemProperties = new HashMap<>();
+
+        systemProperties.forEach((key, value) -> {
+            previousSystemProperties.put(key, System.getProperty(key));
+
+            if (value == null) {
+                System.clearProperty(key);
+            } else {
+                System.setProperty(key, value);
+            }
+        });
+        return previousSystemProperties;
+    }
+}
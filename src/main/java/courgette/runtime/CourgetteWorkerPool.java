@@ -0,0 +1,232 @@
+package courgette.runtime;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static courgette.runtime.CourgetteException.printExceptionStackTrace;
+
+/**
+ * A fixed size pool of long-lived worker JVMs.
+ * <p>
+ * Each worker pays the JVM startup and class loading cost once and then runs any number of
+ * Cucumber jobs, one at a time. When a recycle policy is enabled, a standby worker is kept warm
+ * so a retired worker can be replaced without the pool dropping below its size, and each retired
+ * worker starts another standby worker, so workers retired at the same time are all replaced
+ * by warm workers. Retired workers are stopped in the background.
+ */
+class CourgetteWorkerPool implements CourgetteJobExecutor {
+    private static final int WORKER_START_ATTEMPTS = 3;
+
+    private final int size;
+    private final Supplier<ProcessBuilder> workerProcessBuilder;
+    private final CourgetteWorkerRecyclePolicy recyclePolicy;
+    private final BlockingQueue<CourgetteWorkerProcess> idleWorkers = new LinkedBlockingQueue<>();
+    private final BlockingQueue<CourgetteWorkerProcess> standbyWorkers = new LinkedBlockingQueue<>();
+    private final List<CourgetteWorkerProcess> workers = new CopyOnWriteArrayList<>();
+    private final AtomicInteger startingStandbyWorkers = new AtomicInteger();
+    private final ExecutorService workerStartExecutor = Executors.newCachedThreadPool();
+    private final ExecutorService workerStopExecutor = Executors.newCachedThreadPool();
+    private final ScheduledExecutorService watchdogExecutor = Executors.newSingleThreadScheduledExecutor();
+
+    private volatile boolean shutdown;
+    private volatile CourgetteException workerStartFailure;
+
+    CourgetteWorkerPool(int size, Supplier<ProcessBuilder> workerProcessBuilder, CourgetteWorkerRecyclePolicy recyclePolicy) {
+        this.size = size;
+        this.workerProcessBuilder = workerProcessBuilder;
+        this.recyclePolicy = recyclePolicy;
+    }
+
+    @Override
+    public void start() {
+        for (int i = 0; i < size; i++) {
+            idleWorkers.add(startWorker());
+        }
+
+        if (recyclePolicy.isEnabled()) {
+            startStandbyWorker();
+        }
+    }
+
+    /**
+     * @throws CourgetteException when a retired or failed worker could not be replaced, so the remaining jobs fail instead of
+     *                            waiting for a worker that will not be started
+     */
+    @Override
+    public CourgetteWorkerResult execute(CourgetteJob job) throws InterruptedException {
+        if (workerStartFailure != null) {
+            throw new CourgetteException("Unable to run the job, a Courgette worker process could not be replaced", workerStartFailure);
+        }
+
+        final CourgetteWorkerProcess worker = idleWorkers.take();
+
+        final AtomicBoolean timedOut = new AtomicBoolean();
+        final ScheduledFuture<?> watchdog = startWatchdog(worker, job, timedOut);
+        boolean recycle = false;
+        try {
+            final CourgetteWorkerResult result = worker.execute(job);
+
+            recycle = timedOut.get() || recyclePolicy.shouldRecycle(worker, result);
+            return result;
+        } catch (IOException e) {
+            if (!shutdown) {
+                if (!timedOut.get()) {
+                    printExceptionStackTrace(e);
+                }
+                recycle = true;
+            }
+            return new CourgetteWorkerResult(timedOut.get() ? CourgetteFeatureRunner.TIMED_OUT_EXIT_STATUS : -1);
+        } finally {
+            if (watchdog != null) {
+                watchdog.cancel(false);
+            }
+            releaseWorker(worker, recycle);
+        }
+    }
+
+    /**
+     * Returns the worker to the pool, or a replacement when it is recycled. When no replacement can be started, the worker is
+     * dropped and the start failure is kept for the next jobs.
+     */
+    private void releaseWorker(CourgetteWorkerProcess worker, boolean recycle) {
+        if (!recycle) {
+            idleWorkers.add(worker);
+            return;
+        }
+
+        try {
+            idleWorkers.add(recycleWorker(worker));
+        } catch (CourgetteException e) {
+            printExceptionStackTrace(e);
+            workerStartFailure = e;
+        }
+    }
+
+    private ScheduledFuture<?> startWatchdog(CourgetteWorkerProcess worker, CourgetteJob job, AtomicBoolean timedOut) {
+        if (job.getTimeout() <= 0) {
+            return null;
+        }
+
+        return watchdogExecutor.schedule(() -> {
+            timedOut.set(true);
+            worker.timeout(new File(job.getThreadDumpFile()));
+        }, job.getTimeout(), TimeUnit.SECONDS);
+    }
+
+    @Override
+    public void cancel() {
+        shutdown = true;
+        workers.forEach(CourgetteWorkerProcess::destroy);
+    }
+
+    /**
+     * Stops all workers and waits for the retired workers that are still stopping and the standby workers that are still starting,
+     * so no worker JVM outlives the pool.
+     */
+    @Override
+    public void shutdown() {
+        shutdown = true;
+        watchdogExecutor.shutdownNow();
+        workerStartExecutor.shutdown();
+        workerStopExecutor.shutdown();
+
+        workers.forEach(CourgetteWorkerProcess::stop);
+        try {
+            workerStartExecutor.awaitTermination(30, TimeUnit.SECONDS);
+            workerStopExecutor.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        workers.forEach(CourgetteWorkerProcess::stop);
+
+        workers.clear();
+        idleWorkers.clear();
+        standbyWorkers.clear();
+    }
+
+    private CourgetteWorkerProcess recycleWorker(CourgetteWorkerProcess worker) {
+        workers.remove(worker);
+        try {
+            workerStopExecutor.execute(worker::stop);
+        } catch (RejectedExecutionException e) {
+            // the pool is shutting down
+            worker.stop();
+        }
+
+        CourgetteWorkerProcess replacement = standbyWorkers.poll();
+        if (replacement == null) {
+            replacement = startReplacementWorker();
+        }
+
+        startStandbyWorker();
+        return replacement;
+    }
+
+    /**
+     * Starts a standby worker in the background, unless there is already a standby worker for each worker of the pool.
+     */
+    private void startStandbyWorker() {
+        if (shutdown || standbyWorkers.size() + startingStandbyWorkers.get() >= size) {
+            return;
+        }
+
+        startingStandbyWorkers.incrementAndGet();
+        try {
+            workerStartExecutor.execute(this::addStandbyWorker);
+        } catch (RejectedExecutionException e) {
+            // the pool is shutting down
+            startingStandbyWorkers.decrementAndGet();
+        }
+    }
+
+    private void addStandbyWorker() {
+        try {
+            final CourgetteWorkerProcess worker = startWorker();
+            if (shutdown) {
+                worker.stop();
+            } else {
+                standbyWorkers.add(worker);
+            }
+        } catch (CourgetteException e) {
+            printExceptionStackTrace(e);
+        } finally {
+            startingStandbyWorkers.decrementAndGet();
+        }
+    }
+
+    private CourgetteWorkerProcess startReplacementWorker() {
+        CourgetteException failure = null;
+
+        for (int attempt = 1; attempt <= WORKER_START_ATTEMPTS; attempt++) {
+            try {
+                return startWorker();
+            } catch (CourgetteException e) {
+                failure = e;
+            }
+        }
+        throw failure;
+    }
+
+    private CourgetteWorkerProcess startWorker() {
+        try {
+            final CourgetteWorkerProcess worker = new CourgetteWorkerProcess(workerProcessBuilder.get().start());
+            workers.add(worker);
+            return worker;
+        } catch (IOException e) {
+            throw new CourgetteException("Unable to start a Courgette worker process", e);
+        }
+    }
+}
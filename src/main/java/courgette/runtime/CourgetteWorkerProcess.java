@@ -0,0 +1,70 @@
+package courgette.runtime;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import courgette.runtime.utils.ProcessUtils;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+class CourgetteWorkerProcess {
+    private final Process process;
+    private final BufferedWriter jobs;
+    private final BufferedReader results;
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    private int runs;
+
+    CourgetteWorkerProcess(Process process) {
+        this.process = process;
+        this.jobs = new BufferedWriter(new OutputStreamWriter(process.getOutputStream(), StandardCharsets.UTF_8));
+        this.results = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8));
+    }
+
+    CourgetteWorkerResult execute(CourgetteJob job) throws IOException {
+        runs++;
+        jobs.write(mapper.writeValueAsString(job));
+        jobs.newLine();
+        jobs.flush();
+
+        String result;
+        while ((result = results.readLine()) != null) {
+            if (result.startsWith("{")) {
+                return mapper.readValue(result, CourgetteWorkerResult.class);
+            }
+        }
+        throw new IOException("Courgette worker process exited unexpectedly");
+    }
+
+    int getRuns() {
+        return runs;
+    }
+
+    boolean isAlive() {
+        return process.isAlive();
+    }
+
+    void destroy() {
+        ProcessUtils.destroyProcessTree(process);
+    }
+
+    void timeout(File threadDumpFile) {
+        ProcessUtils.dumpThreadsAndDestroy(process, threadDumpFile);
+    }
+
+    void stop() {
+        try {
+            jobs.close();
+            if (!process.waitFor(10, TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+            }
+        } catch (IOException | InterruptedException e) {
+            process.destroyForcibly();
+        }
+    }
+}
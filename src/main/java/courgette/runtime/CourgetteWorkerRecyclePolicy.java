@@ -0,0 +1,31 @@
+package courgette.runtime;
+
+import courgette.api.CourgetteOptions;
+
+class CourgetteWorkerRecyclePolicy {
+    private static final long MEGABYTE = 1024L * 1024L;
+
+    private final int maxRuns;
+    private final long maxMemory;
+    private final boolean recycleOnFailure;
+
+    CourgetteWorkerRecyclePolicy(CourgetteOptions courgetteOptions) {
+        this(courgetteOptions.workerMaxRuns(), courgetteOptions.workerMaxMemory(), courgetteOptions.recycleWorkerOnFailure());
+    }
+
+    CourgetteWorkerRecyclePolicy(int maxRuns, int maxMemory, boolean recycleOnFailure) {
+        this.maxRuns = Math.max(maxRuns, 0);
+        this.maxMemory = Math.max(maxMemory, 0) * MEGABYTE;
+        this.recycleOnFailure = recycleOnFailure;
+    }
+
+    boolean isEnabled() {
+        return maxRuns > 0 || maxMemory > 0 || recycleOnFailure;
+    }
+
+    boolean shouldRecycle(CourgetteWorkerProcess worker, CourgetteWorkerResult result) {
+        return (maxRuns > 0 && worker.getRuns() >= maxRuns)
+                || (maxMemory > 0 && Math.max(result.getPeakResidentMemory(), result.getUsedHeapMemory()) >= maxMemory)
+                || (recycleOnFailure && result.getExitStatus() != 0);
+    }
+}
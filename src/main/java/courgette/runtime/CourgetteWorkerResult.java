@@ -0,0 +1,57 @@
+package courgette.runtime;
+
+public class CourgetteWorkerResult {
+    private int exitStatus;
+    private long usedHeapMemory;
+    private long peakResidentMemory;
+    private long cpuTime;
+
+    public CourgetteWorkerResult() {
+    }
+
+    CourgetteWorkerResult(int exitStatus) {
+        this.exitStatus = exitStatus;
+    }
+
+    CourgetteWorkerResult(int exitStatus, long usedHeapMemory, long peakResidentMemory, long cpuTime) {
+        this.exitStatus = exitStatus;
+        this.usedHeapMemory = usedHeapMemory;
+        this.peakResidentMemory = peakResidentMemory;
+        this.cpuTime = cpuTime;
+    }
+
+    public int getExitStatus() {
+        return exitStatus;
+    }
+
+    public void setExitStatus(int exitStatus) {
+        this.exitStatus = exitStatus;
+    }
+
+    public long getUsedHeapMemory() {
+        return usedHeapMemory;
+    }
+
+    public void setUsedHeapMemory(long usedHeapMemory) {
+        this.usedHeapMemory = usedHeapMemory;
+    }
+
+    public long getPeakResidentMemory() {
+        return peakResidentMemory;
+    }
+
+    public void setPeakResidentMemory(long peakResidentMemory) {
+        this.peakResidentMemory = peakResidentMemory;
+    }
+
+    /**
+     * @return the CPU time in milliseconds that the worker used to run the job
+     */
+    public long getCpuTime() {
+        return cpuTime;
+    }
+
+    public void setCpuTime(long cpuTime) {
+        this.cpuTime = cpuTime;
+    }
+}
@@ -0,0 +1,167 @@
+package courgette.runtime;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+import org.xml.sax.InputSource;
+
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.transform.OutputKeys;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stream.StreamResult;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Splits the reports of a batch of scenarios that ran in one invocation back into per-scenario reports.
+ */
+final class CucumberReportSplitter {
+
+    private CucumberReportSplitter() {
+    }
+
+    /**
+     * @return a single scenario Cucumber JSON report per scenario line
+     */
+    static Map<Integer, String> splitJsonReport(String report) throws Exception {
+        final ObjectMapper mapper = new ObjectMapper();
+
+        final Map<Integer, String> scenarioReports = new LinkedHashMap<>();
+
+        for (JsonNode feature : mapper.readTree(report)) {
+            JsonNode background = null;
+
+            for (JsonNode element : feature.path("elements")) {
+                if ("background".equals(element.path("type").asText())) {
+                    background = element;
+                    continue;
+                }
+
+                final ObjectNode scenarioFeature = ((ObjectNode) feature).deepCopy();
+                final ArrayNode elements = scenarioFeature.putArray("elements");
+                if (background != null) {
+                    elements.add(background);
+                    background = null;
+                }
+                elements.add(element);
+
+                final ArrayNode scenarioReport = mapper.createArrayNode().add(scenarioFeature);
+                scenarioReports.put(element.path("line").asInt(), mapper.writerWithDefaultPrettyPrinter().writeValueAsString(scenarioReport));
+            }
+        }
+        return scenarioReports;
+    }
+
+    /**
+     * The JUnit report does not hold scenario lines, so each test case is matched to a scenario line by the scenario name.
+     * Scenarios with the same name, such as the examples of a scenario outline, are matched in the order of their lines,
+     * which is the order Cucumber ran them; Cucumber adds a '_2', '_3' suffix to the names of consecutive ones.
+     * Test cases without a matching scenario are left out.
+     *
+     * @param scenarioNames the scenario names of the batch by scenario line
+     * @return a single test case JUnit report per scenario line
+     */
+    static Map<Integer, String> splitXmlReport(String report, Map<Integer, String> scenarioNames) throws Exception {
+        final Map<String, Deque<Integer>> lineIdsByName = new HashMap<>();
+        scenarioNames.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey())
+                .forEach(scenario -> lineIdsByName.computeIfAbsent(scenario.getValue(), name -> new ArrayDeque<>()).add(scenario.getKey()));
+
+        final Map<Integer, String> scenarioReports = new LinkedHashMap<>();
+
+        final DocumentBuilder builder = DocumentBuilderFactory.newInstance().newDocumentBuilder();
+        final Document document = builder.parse(new InputSource(new StringReader(report)));
+
+        final String testSuiteName = document.getDocumentElement().getAttribute("name");
+        final NodeList testCases = document.getElementsByTagName("testcase");
+
+        for (int i = 0; i < testCases.getLength(); i++) {
+            final Element testCase = (Element) testCases.item(i);
+            final String name = testCase.getAttribute("name");
+            final Integer lineId = Optional.ofNullable(lineIdsByName.get(name)).map(Deque::poll)
+                    .orElseGet(() -> Optional.ofNullable(lineIdsByName.get(name.replaceFirst("_\\d+$", ""))).map(Deque::poll).orElse(null));
+
+            if (lineId == null) {
+                continue;
+            }
+
+            final Document scenarioDocument = builder.newDocument();
+            final Element testSuite = scenarioDocument.createElement("testsuite");
+            testSuite.setAttribute("failures", testCase.getElementsByTagName("failure").getLength() > 0 ? "1" : "0");
+            testSuite.setAttribute("name", testSuiteName);
+            testSuite.setAttribute("skipped", testCase.getElementsByTagName("skipped").getLength() > 0 ? "1" : "0");
+            testSuite.setAttribute("tests", "1");
+            testSuite.setAttribute("time", testCase.getAttribute("time"));
+            testSuite.appendChild(scenarioDocument.importNode(testCase, true));
+            scenarioDocument.appendChild(testSuite);
+
+            final StringWriter sw = new StringWriter();
+            final Transformer t = TransformerFactory.newInstance().newTransformer();
+            t.setOutputProperty(OutputKeys.INDENT, "yes");
+            t.transform(new DOMSource(scenarioDocument), new StreamResult(sw));
+
+            scenarioReports.put(lineId, sw.toString());
+        }
+        return scenarioReports;
+    }
+
+    /**
+     * @return true when a single scenario Cucumber JSON or JUnit report holds a step or hook that did not pass or was not skipped,
+     * or a failed or erroneous test case
+     */
+    static boolean isFailedReport(String reportFile, String report) throws Exception {
+        if (reportFile.endsWith(".json")) {
+            for (JsonNode feature : new ObjectMapper().readTree(report)) {
+                for (JsonNode element : feature.path("elements")) {
+                    for (String section : Arrays.asList("before", "steps", "after")) {
+                        for (JsonNode step : element.path(section)) {
+                            final String status = step.path("result").path("status").asText();
+
+                            if (!"passed".equals(status) && !"skipped".equals(status)) {
+                                return true;
+                            }
+                        }
+                    }
+                }
+            }
+            return false;
+        }
+
+        final Document document = DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(new InputSource(new StringReader(report)));
+        return document.getElementsByTagName("failure").getLength() > 0 || document.getElementsByTagName("error").getLength() > 0;
+    }
+
+    /**
+     * @return the scenario lines listed in a Cucumber rerun file, for example 12 and 77 for 'path.feature:12:77'
+     */
+    static Set<Integer> parseRerunLines(String rerun) {
+        final Set<Integer> lineIds = new HashSet<>();
+
+        if (rerun != null) {
+            for (String rerunLine : rerun.split("\\s+")) {
+                final String[] parts = rerunLine.split(":");
+
+                for (int i = parts.length - 1; i > 0 && parts[i].matches("\\d+"); i--) {
+                    lineIds.add(Integer.parseInt(parts[i]));
+                }
+            }
+        }
+        return lineIds;
+    }
+}
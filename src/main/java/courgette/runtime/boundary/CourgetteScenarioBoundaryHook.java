@@ -0,0 +1,46 @@
+package courgette.runtime.boundary;
+
+import io.cucumber.java.Before;
+import io.cucumber.java.Scenario;
+import org.testng.SkipException;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Glue that Courgette adds to scenario batches when the {@code splitStragglers} option is set, so it can stop a batch at a scenario boundary.
+ * <p>
+ * Before each scenario, the hook records the scenario line in the progress file of the batch. Once Courgette has created the stop file,
+ * the remaining scenarios are recorded and skipped instead, so they can be run by other threads.
+ * The hook is the first {@code Before} hook, so the steps and the other {@code Before} hooks of a skipped scenario do not run.
+ */
+public class CourgetteScenarioBoundaryHook {
+    public static final String SYSTEM_PROPERTY = "courgette.scenarioBoundary";
+    public static final String GLUE = "courgette.runtime.boundary";
+    public static final String STOP_FILE = "stop";
+    public static final String PROGRESS_FILE = "progress";
+    public static final String STARTED = "started:";
+    public static final String SKIPPED = "skipped:";
+
+    @Before(order = Integer.MIN_VALUE)
+    public void stopAtScenarioBoundary(Scenario scenario) throws IOException {
+        final String boundaryDirectory = System.getProperty(SYSTEM_PROPERTY);
+
+        if (boundaryDirectory == null) {
+            return;
+        }
+
+        final boolean stop = new File(boundaryDirectory, STOP_FILE).exists();
+
+        Files.write(new File(boundaryDirectory, PROGRESS_FILE).toPath(),
+                ((stop ? SKIPPED : STARTED) + scenario.getLine() + "\n").getBytes(StandardCharsets.UTF_8),
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+
+        if (stop) {
+            throw new SkipException("Courgette handed this scenario over to another thread");
+        }
+    }
+}
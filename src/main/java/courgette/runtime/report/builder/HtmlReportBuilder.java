@@ -5,6 +5,7 @@ import com.github.mustachejava.Mustache;
 import courgette.runtime.CourgetteEnvironmentInfo;
 import courgette.runtime.CourgetteProperties;
 import courgette.runtime.CourgetteRunResult;
+import courgette.runtime.CourgetteTestOutputArchive;
 import courgette.runtime.report.model.Embedding;
 import courgette.runtime.report.model.Feature;
 import courgette.runtime.report.model.Hook;
@@ -24,6 +25,7 @@ import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Objects;
 import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
@@ -34,6 +36,7 @@ public class HtmlReportBuilder {
 
     private static final String PASSED = "Passed";
     private static final String PASSED_AFTER_RERUN = "Passed after Rerun";
+    private static final String PASSED_FROM_CACHE = "Passed (cached)";
     private static final String FAILED = "Failed";
     private static final String FAILED_AFTER_RERUN = "Failed after Rerun";
     private static final String SUCCESS = "success";
@@ -52,6 +55,11 @@ public class HtmlReportBuilder {
     private static final String MODAL_HEADING = "modal_heading";
     private static final String MODAL_FEATURE_LINE = "modal_feature_line";
     private static final String MODAL_BODY = "modal_body";
+    private static final String MODAL_PROCESS_USAGE = "modal_process_usage";
+    private static final String MODAL_TEST_OUTPUT = "modal_test_output";
+    private static final String TEST_OUTPUT_NAME = "test_output_name";
+    private static final String TEST_OUTPUT_LINK = "test_output_link";
+    private static final String TEST_OUTPUT_COMMAND = "test_output_command";
     private static final String STEP_KEYWORD = "step_keyword";
     private static final String STEP_NAME = "step_name";
     private static final String STEP_DURATION = "step_duration";
@@ -184,15 +192,7 @@ public class HtmlReportBuilder {
         String scenarioBadge = scenario.passed() ? SUCCESS : DANGER;
         String scenarioResult = scenarioBadge.equals(SUCCESS) ? PASSED : FAILED;
 
-        List<CourgetteRunResult> scenarioRunResult = courgetteRunResults
-                .stream()
-                .filter(result -> {
-                    String featureUri = courgetteProperties.isFeatureRunLevel() ?
-                            scenario.getFeatureUri() :
-                            (scenario.getFeatureUri() + ":" + scenario.getLine());
-                    return result.getFeatureUri().endsWith(featureUri.split("file:")[1]);
-                })
-                .collect(Collectors.toList());
+        List<CourgetteRunResult> scenarioRunResult = getScenarioRunResults(scenario);
 
         switch (scenarioBadge) {
             case DANGER:
@@ -204,6 +204,8 @@ public class HtmlReportBuilder {
             case SUCCESS:
                 if (scenarioRunResult.stream().anyMatch(result -> result.getStatus() == CourgetteRunResult.Status.PASSED_AFTER_RERUN)) {
                     scenarioResult = PASSED_AFTER_RERUN;
+                } else if (!scenarioRunResult.isEmpty() && scenarioRunResult.stream().allMatch(CourgetteRunResult::isCached)) {
+                    scenarioResult = PASSED_FROM_CACHE;
                 }
                 break;
         }
@@ -218,6 +220,18 @@ public class HtmlReportBuilder {
         return createFromTemplate(scenarioTemplate, scenarioData);
     }
 
+    private List<CourgetteRunResult> getScenarioRunResults(Scenario scenario) {
+        return courgetteRunResults
+                .stream()
+                .filter(result -> {
+                    String featureUri = courgetteProperties.isFeatureRunLevel() ?
+                            scenario.getFeatureUri() :
+                            (scenario.getFeatureUri() + ":" + scenario.getLine());
+                    return result.getFeatureUri().endsWith(featureUri.split("file:")[1]);
+                })
+                .collect(Collectors.toList());
+    }
+
     private String createScenarioModal(Feature feature, Scenario scenario) {
         final String featureName = feature.getUri().substring(feature.getUri().lastIndexOf("/") + 1);
 
@@ -227,6 +241,22 @@ public class HtmlReportBuilder {
         modalData.put(MODAL_HEADING, scenario.getName());
         modalData.put(MODAL_FEATURE_LINE, featureName + " - line " + scenario.getLine());
 
+        getScenarioRunResults(scenario).stream()
+                .map(CourgetteRunResult::getProcessUsage)
+                .filter(Objects::nonNull)
+                .reduce((first, last) -> last)
+                .ifPresent(processUsage -> modalData.put(MODAL_PROCESS_USAGE, "Test run JVM: " + processUsage));
+
+        final List<HashMap<String, Object>> testOutput = getScenarioRunResults(scenario).stream()
+                .flatMap(result -> result.getTestOutput().stream())
+                .distinct()
+                .map(HtmlReportBuilder::createTestOutputLink)
+                .collect(Collectors.toList());
+
+        if (!testOutput.isEmpty()) {
+            modalData.put(MODAL_TEST_OUTPUT, testOutput);
+        }
+
         List<String> modalBody = new ArrayList<>();
 
         scenario.getBefore().forEach(hook -> modalBody.add(createRowFromHook(hook)));
@@ -238,6 +268,18 @@ public class HtmlReportBuilder {
         return createFromTemplate(modalTemplate, modalData);
     }
 
+    /**
+     * Links the test output to the archive, with the command that extracts it from its offset in the archive.
+     */
+    private static HashMap<String, Object> createTestOutputLink(CourgetteTestOutputArchive.Entry testOutput) {
+        final HashMap<String, Object> testOutputData = new HashMap<>();
+        testOutputData.put(TEST_OUTPUT_NAME, testOutput.getName());
+        testOutputData.put(TEST_OUTPUT_LINK, "../courgette-test-output/" + testOutput.getArchive());
+        testOutputData.put(TEST_OUTPUT_COMMAND, String.format("tail -c +%d %s | head -c %d | gunzip",
+                testOutput.getOffset() + 1, testOutput.getArchive(), testOutput.getLength()));
+        return testOutputData;
+    }
+
     private String createRowFromHook(Hook hook) {
 
         final LinkedHashMap<String, Object> hookData = new LinkedHashMap<>();
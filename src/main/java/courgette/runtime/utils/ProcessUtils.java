@@ -0,0 +1,252 @@
+package courgette.runtime.utils;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static courgette.runtime.CourgetteException.printError;
+
+/**
+ * Process helpers that use the Java 9+ process API when it is available, while still compiling and running on Java 8.
+ */
+public final class ProcessUtils {
+    private static final boolean IS_WINDOWS = System.getProperty("os.name").toLowerCase().startsWith("windows");
+
+    /**
+     * @return the major version of the running Java runtime, for example 8 or 17
+     */
+    public static int getJavaVersion() {
+        final String version = System.getProperty("java.specification.version", "");
+        final String majorVersion = version.startsWith("1.") ? version.substring(2) : version;
+        return majorVersion.matches("\\d+") ? Integer.parseInt(majorVersion) : 0;
+    }
+
+    /**
+     * @return the process id, or empty when it can't be determined
+     */
+    public static OptionalLong getPid(Process process) {
+        try {
+            final Method pid = Process.class.getMethod("pid");
+            return OptionalLong.of((Long) pid.invoke(process));
+        } catch (ReflectiveOperationException e) {
+            try {
+                final Field pid = process.getClass().getDeclaredField("pid");
+                pid.setAccessible(true);
+                return OptionalLong.of(pid.getLong(process));
+            } catch (ReflectiveOperationException | RuntimeException ex) {
+                return OptionalLong.empty();
+            }
+        }
+    }
+
+    /**
+     * @return a future that completes when the process exits, using {@code Process.onExit()} on Java 9 and later so no thread
+     * is blocked while the process runs
+     */
+    @SuppressWarnings("unchecked")
+    public static CompletableFuture<Process> onExit(Process process) {
+        try {
+            final Method onExit = Process.class.getMethod("onExit");
+            return (CompletableFuture<Process>) onExit.invoke(process);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            final CompletableFuture<Process> exit = new CompletableFuture<>();
+
+            final Thread waiter = new Thread(() -> {
+                try {
+                    process.waitFor();
+                    exit.complete(process);
+                } catch (InterruptedException ex) {
+                    exit.completeExceptionally(ex);
+                }
+            }, "courgette-process-exit");
+            waiter.setDaemon(true);
+            waiter.start();
+            return exit;
+        }
+    }
+
+    /**
+     * @return the CPU time in milliseconds that the process has used so far, or empty when it can't be determined;
+     * it is read with {@code ProcessHandle.Info} on Java 9 and later
+     */
+    public static OptionalLong getCpuTime(Process process) {
+        try {
+            final Class<?> processHandle = Class.forName("java.lang.ProcessHandle");
+            final Class<?> processInfo = Class.forName("java.lang.ProcessHandle$Info");
+
+            final Object handle = Process.class.getMethod("toHandle").invoke(process);
+            final Object info = processHandle.getMethod("info").invoke(handle);
+            final Optional<?> cpuDuration = (Optional<?>) processInfo.getMethod("totalCpuDuration").invoke(info);
+
+            return cpuDuration.map(duration -> OptionalLong.of(((Duration) duration).toMillis())).orElse(OptionalLong.empty());
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return OptionalLong.empty();
+        }
+    }
+
+    /**
+     * @return the CPU time in milliseconds that the running JVM has used so far, or empty when it can't be determined
+     */
+    public static OptionalLong getCpuTime() {
+        try {
+            final Object operatingSystem = ManagementFactory.getOperatingSystemMXBean();
+            final Class<?> operatingSystemBean = Class.forName("com.sun.management.OperatingSystemMXBean");
+
+            if (operatingSystemBean.isInstance(operatingSystem)) {
+                final long cpuTime = (Long) operatingSystemBean.getMethod("getProcessCpuTime").invoke(operatingSystem);
+                return cpuTime >= 0 ? OptionalLong.of(TimeUnit.NANOSECONDS.toMillis(cpuTime)) : OptionalLong.empty();
+            }
+        } catch (ReflectiveOperationException | RuntimeException ignored) {
+        }
+        return OptionalLong.empty();
+    }
+
+    /**
+     * @return the peak resident memory in bytes that the process has used so far, or empty when it can't be determined;
+     * it is read from {@code /proc/<pid>/status} and is only available on Linux
+     */
+    public static OptionalLong getPeakResidentMemory(Process process) {
+        final OptionalLong pid = getPid(process);
+        return pid.isPresent() ? readPeakResidentMemory(String.valueOf(pid.getAsLong())) : OptionalLong.empty();
+    }
+
+    /**
+     * @return the peak resident memory in bytes that the running JVM has used so far, or empty when it can't be determined
+     */
+    public static OptionalLong getPeakResidentMemory() {
+        return readPeakResidentMemory("self");
+    }
+
+    private static OptionalLong readPeakResidentMemory(String pid) {
+        final File status = new File("/proc/" + pid + "/status");
+
+        if (status.exists()) {
+            try (BufferedReader reader = new BufferedReader(new FileReader(status))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (line.startsWith("VmHWM:")) {
+                        return OptionalLong.of(Long.parseLong(line.replaceAll("[^0-9]", "")) * 1024L);
+                    }
+                }
+            } catch (IOException | NumberFormatException ignored) {
+                // the process exited while its status was read
+            }
+        }
+        return OptionalLong.empty();
+    }
+
+    /**
+     * Forcibly destroys the process. Its descendants are destroyed as well on Java 9 and later.
+     */
+    public static void destroyProcessTree(Process process) {
+        try {
+            final Class<?> processHandle = Class.forName("java.lang.ProcessHandle");
+            final Method destroyForcibly = processHandle.getMethod("destroyForcibly");
+
+            final Object handle = Process.class.getMethod("toHandle").invoke(process);
+            final Stream<?> descendants = (Stream<?>) processHandle.getMethod("descendants").invoke(handle);
+
+            descendants.forEach(descendant -> {
+                try {
+                    destroyForcibly.invoke(descendant);
+                } catch (ReflectiveOperationException ignored) {
+                }
+            });
+        } catch (ReflectiveOperationException ignored) {
+        }
+        process.destroyForcibly();
+    }
+
+    /**
+     * Writes a thread dump of the Java process to the given file and then destroys the process tree.
+     * <p>
+     * The thread dump is taken with the jcmd tool of the running JDK. When jcmd is not available, the process
+     * is sent a QUIT signal instead, which makes the JVM print the thread dump to its own output.
+     */
+    public static void dumpThreadsAndDestroy(Process process, File threadDumpFile) {
+        final OptionalLong pid = getPid(process);
+
+        if (pid.isPresent()) {
+            if (writeThreadDump(pid.getAsLong(), threadDumpFile)) {
+                printError("Courgette thread dump: " + threadDumpFile.getPath());
+            } else if (signalThreadDump(pid.getAsLong())) {
+                printError("Courgette thread dump: written to the test output of process " + pid.getAsLong());
+            }
+        }
+        destroyProcessTree(process);
+    }
+
+    private static boolean writeThreadDump(long pid, File threadDumpFile) {
+        final File jcmd = findJdkTool("jcmd");
+
+        if (jcmd == null) {
+            return false;
+        }
+
+        FileUtils.createDirectory(threadDumpFile.getParentFile());
+
+        final ProcessBuilder builder = new ProcessBuilder(jcmd.getPath(), String.valueOf(pid), "Thread.print")
+                .redirectErrorStream(true)
+                .redirectOutput(threadDumpFile);
+
+        return waitFor(builder, 30);
+    }
+
+    private static boolean signalThreadDump(long pid) {
+        if (IS_WINDOWS) {
+            return false;
+        }
+
+        if (waitFor(new ProcessBuilder("kill", "-QUIT", String.valueOf(pid)), 5)) {
+            try {
+                // the JVM prints the thread dump asynchronously
+                TimeUnit.SECONDS.sleep(1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return true;
+        }
+        return false;
+    }
+
+    private static boolean waitFor(ProcessBuilder builder, long timeoutSeconds) {
+        try {
+            final Process process = builder.start();
+
+            if (!process.waitFor(timeoutSeconds, TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+                return false;
+            }
+            return process.exitValue() == 0;
+        } catch (IOException e) {
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static File findJdkTool(String tool) {
+        final String executable = IS_WINDOWS ? tool + ".exe" : tool;
+        final File javaHome = new File(System.getProperty("java.home"));
+
+        // on Java 8, java.home points to the jre directory inside the JDK
+        for (File binDirectory : new File[]{new File(javaHome, "bin"), new File(javaHome.getParentFile(), "bin")}) {
+            final File toolFile = new File(binDirectory, executable);
+            if (toolFile.canExecute()) {
+                return toolFile;
+            }
+        }
+        return null;
+    }
+}
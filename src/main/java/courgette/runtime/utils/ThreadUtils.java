@@ -0,0 +1,88 @@
+package courgette.runtime.utils;
+
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Thread helpers that use virtual threads when the Java runtime supports them, while still compiling and running on Java 8.
+ */
+public final class ThreadUtils {
+
+    /**
+     * @return an executor that runs at most the given number of tasks at once, each on a new virtual thread on Java 21 and later,
+     * or on a fixed pool of platform threads on older Java runtimes
+     */
+    public static ExecutorService newBoundedExecutor(int threads) {
+        try {
+            final Method newVirtualThreadPerTaskExecutor = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return new BoundedExecutorService((ExecutorService) newVirtualThreadPerTaskExecutor.invoke(null), threads);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return Executors.newFixedThreadPool(threads);
+        }
+    }
+
+    /**
+     * Limits the number of tasks of a thread per task executor that run at once. Queued tasks wait on their own virtual thread.
+     */
+    private static class BoundedExecutorService extends AbstractExecutorService {
+        private final ExecutorService executor;
+        private final Semaphore permits;
+
+        BoundedExecutorService(ExecutorService executor, int threads) {
+            this.executor = executor;
+            this.permits = new Semaphore(Math.max(threads, 1), true);
+        }
+
+        @Override
+        public void execute(Runnable task) {
+            executor.execute(() -> {
+                try {
+                    permits.acquire();
+                } catch (InterruptedException e) {
+                    // the executor was shut down while the task was waiting for a permit
+                    if (task instanceof Future) {
+                        ((Future<?>) task).cancel(false);
+                    }
+                    return;
+                }
+
+                try {
+                    task.run();
+                } finally {
+                    permits.release();
+                }
+            });
+        }
+
+        @Override
+        public void shutdown() {
+            executor.shutdown();
+        }
+
+        @Override
+        public List<Runnable> shutdownNow() {
+            return executor.shutdownNow();
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return executor.isShutdown();
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return executor.isTerminated();
+        }
+
+        @Override
+        public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+            return executor.awaitTermination(timeout, unit);
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package courgette.runtime;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class CourgetteCoordinatorTest {
+    private static final String TOKEN = "secret";
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private CourgetteCoordinator coordinator;
+
+    @Before
+    public void setUp() {
+        coordinator = new CourgetteCoordinator("127.0.0.1", 0, TOKEN, 30);
+        coordinator.start();
+    }
+
+    @After
+    public void tearDown() {
+        coordinator.shutdown();
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void runsJobsOnTwoAgentsAndReturnsTheirWorkerResults() throws Exception {
+        final FakeWorkerPool firstWorkerPool = new FakeWorkerPool();
+        final FakeWorkerPool secondWorkerPool = new FakeWorkerPool();
+
+        final Future<?> firstAgent = startAgent(TOKEN, firstWorkerPool);
+        final Future<?> secondAgent = startAgent(TOKEN, secondWorkerPool);
+
+        final List<Future<CourgetteWorkerResult>> results = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            results.add(executor.submit(() -> coordinator.execute(new CourgetteJob(Collections.emptyList(), Collections.emptyMap()))));
+        }
+
+        for (Future<CourgetteWorkerResult> result : results) {
+            final CourgetteWorkerResult workerResult = result.get(30, TimeUnit.SECONDS);
+            assertEquals(0, workerResult.getExitStatus());
+            assertEquals(1024, workerResult.getUsedHeapMemory());
+            assertEquals(2048, workerResult.getPeakResidentMemory());
+            assertEquals(500, workerResult.getCpuTime());
+        }
+
+        assertTrue(firstWorkerPool.jobs.get() > 0);
+        assertTrue(secondWorkerPool.jobs.get() > 0);
+        assertEquals(4, firstWorkerPool.jobs.get() + secondWorkerPool.jobs.get());
+
+        coordinator.shutdown();
+
+        firstAgent.get(10, TimeUnit.SECONDS);
+        secondAgent.get(10, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void rejectsAgentWithInvalidToken() throws Exception {
+        final FakeWorkerPool workerPool = new FakeWorkerPool();
+
+        startAgent("invalid", workerPool).get(30, TimeUnit.SECONDS);
+
+        assertEquals(0, workerPool.jobs.get());
+    }
+
+    @Test
+    public void connectsAgentsWhileAnotherClientHasNotSentItsToken() throws Exception {
+        try (Socket silentClient = new Socket("127.0.0.1", coordinator.getLocalPort())) {
+            final FakeWorkerPool workerPool = new FakeWorkerPool();
+            startAgent(TOKEN, workerPool);
+
+            final Future<CourgetteWorkerResult> result = executor.submit(() -> coordinator.execute(new CourgetteJob(Collections.emptyList(), Collections.emptyMap())));
+
+            assertEquals(0, result.get(5, TimeUnit.SECONDS).getExitStatus());
+            assertEquals(1, workerPool.jobs.get());
+        }
+    }
+
+    @Test
+    public void failsJobsWhenNoAgentConnectsWithinTheConnectTimeout() throws Exception {
+        coordinator.shutdown();
+        coordinator = new CourgetteCoordinator("127.0.0.1", 0, TOKEN, 1);
+        coordinator.start();
+
+        final Future<CourgetteWorkerResult> result = executor.submit(() -> coordinator.execute(new CourgetteJob(Collections.emptyList(), Collections.emptyMap())));
+
+        assertEquals(-1, result.get(30, TimeUnit.SECONDS).getExitStatus());
+        assertFalse(result.isCancelled());
+    }
+
+    private Future<?> startAgent(String token, CourgetteJobExecutor workerPool) {
+        final CourgetteAgent agent = new CourgetteAgent("127.0.0.1", coordinator.getLocalPort(), token, workerPool);
+
+        return executor.submit(() -> {
+            agent.run(1);
+            return null;
+        });
+    }
+
+    private static class FakeWorkerPool implements CourgetteJobExecutor {
+        private final AtomicInteger jobs = new AtomicInteger();
+
+        @Override
+        public void start() {
+        }
+
+        @Override
+        public CourgetteWorkerResult execute(CourgetteJob job) throws InterruptedException {
+            jobs.incrementAndGet();
+            TimeUnit.MILLISECONDS.sleep(500);
+            return new CourgetteWorkerResult(0, 1024, 2048, 500);
+        }
+
+        @Override
+        public void cancel() {
+        }
+
+        @Override
+        public void shutdown() {
+        }
+    }
+}
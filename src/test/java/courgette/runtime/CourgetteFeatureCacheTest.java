@@ -0,0 +1,78 @@
+package courgette.runtime;
+
+import io.cucumber.core.gherkin.Feature;
+import io.cucumber.core.options.CommandlineOptionsParser;
+import io.cucumber.core.options.RuntimeOptions;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+public class CourgetteFeatureCacheTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final CourgetteFeatureCache featureCache = new CourgetteFeatureCache();
+
+    @Test
+    public void reusesTheFeaturesOfScenarioRuns() throws Exception {
+        final File feature = createFeature("scenarios");
+
+        final List<Feature> first = featureCache.get(parse(feature.getPath() + ":3"), this::classLoader);
+        final List<Feature> second = featureCache.get(parse(feature.getPath() + ":6"), this::classLoader);
+
+        assertEquals(1, first.size());
+        assertSame(first, second);
+    }
+
+    @Test
+    public void doesNotKeepTheFeaturesOfFeatureRuns() throws Exception {
+        final File feature = createFeature("feature");
+
+        final List<Feature> first = featureCache.get(parse(feature.getPath()), this::classLoader);
+        final List<Feature> second = featureCache.get(parse(feature.getPath()), this::classLoader);
+
+        assertNotSame(first, second);
+        assertEquals(0, featureCache.size());
+    }
+
+    @Test
+    public void dropsTheLeastRecentlyUsedFeaturesOnceFull() throws Exception {
+        final File firstFeature = createFeature("first");
+        final List<Feature> first = featureCache.get(parse(firstFeature.getPath() + ":3"), this::classLoader);
+
+        for (int i = 0; i < CourgetteFeatureCache.MAX_ENTRIES; i++) {
+            featureCache.get(parse(createFeature("feature" + i).getPath() + ":3"), this::classLoader);
+        }
+
+        assertEquals(CourgetteFeatureCache.MAX_ENTRIES, featureCache.size());
+        assertNotSame(first, featureCache.get(parse(firstFeature.getPath() + ":3"), this::classLoader));
+    }
+
+    private File createFeature(String name) throws Exception {
+        final File feature = folder.newFile(name + ".feature");
+        Files.write(feature.toPath(), ("Feature: " + name + "\n\n" +
+                "  Scenario: first\n" +
+                "    Given a step\n\n" +
+                "  Scenario: second\n" +
+                "    Given a step\n").getBytes(StandardCharsets.UTF_8));
+        return feature;
+    }
+
+    private RuntimeOptions parse(String featurePath) {
+        return new CommandlineOptionsParser(System.out).parse(featurePath).build();
+    }
+
+    private ClassLoader classLoader() {
+        return getClass().getClassLoader();
+    }
+}
@@ -0,0 +1,87 @@
+package courgette.runtime;
+
+import courgette.api.CourgetteRunLevel;
+import courgette.api.CucumberOptions;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+
+public class CourgetteLoaderTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File featureDirectory;
+    private File reportTargetDir;
+
+    @Before
+    public void setUp() throws Exception {
+        featureDirectory = folder.newFolder("features");
+        reportTargetDir = folder.newFolder("target");
+
+        CourgetteTestFixtures.writeFeature(featureDirectory, "long", 6);
+        CourgetteTestFixtures.writeFeature(featureDirectory, "short", 2);
+        CourgetteTestFixtures.writeFeature(featureDirectory, "slow", 2);
+    }
+
+    @Test
+    public void splitsFeaturesWithMoreThanHalfTheScenariosOfAThreadWithoutHistory() {
+        // 10 scenarios on 2 threads: features with more than 2 scenarios are split
+        assertEquals(Arrays.asList("long:[4]", "long:[7]", "long:[10]", "long:[13]", "long:[16]", "long:[19]", "short:[4, 7]", "slow:[4, 7]"),
+                runs(autoProperties(2, 0)));
+    }
+
+    @Test
+    public void splitsFeaturesExpectedToTakeMoreThanHalfTheTimeOfAThreadFromTheHistory() {
+        final CourgetteRunHistory runHistory = CourgetteRunHistory.load(autoProperties(2, 0));
+        runHistory.record(CourgetteTestFixtures.parseFeature(new File(featureDirectory, "long.feature")), Collections.emptyList(), 60);
+        runHistory.record(CourgetteTestFixtures.parseFeature(new File(featureDirectory, "short.feature")), Collections.emptyList(), 20);
+        runHistory.record(CourgetteTestFixtures.parseFeature(new File(featureDirectory, "slow.feature")), Collections.emptyList(), 1000);
+        runHistory.save();
+
+        assertEquals(Arrays.asList("long:[4, 7, 10, 13, 16, 19]", "short:[4, 7]", "slow:[4]", "slow:[7]"),
+                runs(autoProperties(2, 0)));
+    }
+
+    @Test
+    public void splitsFeaturesIntoScenarioBatches() {
+        assertEquals(Arrays.asList("long:[4, 7, 10]", "long:[13, 16, 19]", "short:[4, 7]", "slow:[4, 7]"),
+                runs(autoProperties(2, 3)));
+    }
+
+    @Test
+    public void doesNotSplitFeaturesOnOneThread() {
+        assertEquals(Arrays.asList("long:[4, 7, 10, 13, 16, 19]", "short:[4, 7]", "slow:[4, 7]"),
+                runs(autoProperties(1, 0)));
+    }
+
+    private CourgetteProperties autoProperties(int threads, int scenarioBatchSize) {
+        final Map<String, Object> options = new HashMap<>();
+        options.put("runLevel", CourgetteRunLevel.AUTO);
+        options.put("reportTargetDir", reportTargetDir.getPath());
+        options.put("scenarioBatchSize", scenarioBatchSize);
+        options.put("cucumberOptions", CourgetteTestFixtures.annotation(CucumberOptions.class,
+                Collections.singletonMap("features", new String[]{featureDirectory.getPath()})));
+        return CourgetteTestFixtures.properties(options, threads);
+    }
+
+    private static List<String> runs(CourgetteProperties courgetteProperties) {
+        return new CourgetteLoader(courgetteProperties).getRunnerInfoList().stream()
+                .sorted(Comparator.comparing((CourgetteRunnerInfo runnerInfo) -> runnerInfo.getFeature().getName().orElse(""))
+                        .thenComparing(runnerInfo -> runnerInfo.getLineIds().get(0)))
+                .map(runnerInfo -> runnerInfo.getFeature().getName().orElse("") + ":" + runnerInfo.getLineIds())
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,82 @@
+package courgette.runtime;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class CourgetteOutputBufferTest {
+    private static final String DROPPED_NOTE = "[Courgette: the first %d bytes of the test output were dropped]" + System.lineSeparator();
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void writesOutputThatFitsTheBufferAsIs() throws Exception {
+        final CourgetteOutputBuffer outputBuffer = new CourgetteOutputBuffer();
+        outputBuffer.write("first line\n".getBytes(StandardCharsets.UTF_8));
+        outputBuffer.write('x');
+
+        assertEquals("first line\nx", new String(writeTo(outputBuffer), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void keepsTheLastPartOfOutputThatWrapsAroundTheBuffer() throws Exception {
+        final byte[] output = output(CourgetteOutputBuffer.CAPACITY + 12345);
+
+        final CourgetteOutputBuffer outputBuffer = new CourgetteOutputBuffer();
+        for (int offset = 0; offset < output.length; offset += 7000) {
+            outputBuffer.write(output, offset, Math.min(7000, output.length - offset));
+        }
+
+        assertTail(output, writeTo(outputBuffer));
+    }
+
+    @Test
+    public void keepsTheLastPartOfAWriteLargerThanTheBuffer() throws Exception {
+        final byte[] output = output(CourgetteOutputBuffer.CAPACITY * 2 + 3);
+
+        final CourgetteOutputBuffer outputBuffer = new CourgetteOutputBuffer();
+        outputBuffer.write(output, 0, 10);
+        outputBuffer.write(output, 10, output.length - 10);
+
+        assertTail(output, writeTo(outputBuffer));
+    }
+
+    @Test
+    public void pumpsTheOutputOfAProcessUntilItIsClosed() throws Exception {
+        final byte[] output = output(CourgetteOutputBuffer.CAPACITY + 1);
+
+        assertTail(output, writeTo(CourgetteOutputBuffer.pump(new ByteArrayInputStream(output))));
+    }
+
+    private void assertTail(byte[] output, byte[] written) {
+        final byte[] note = String.format(DROPPED_NOTE, output.length - CourgetteOutputBuffer.CAPACITY).getBytes(StandardCharsets.UTF_8);
+
+        assertArrayEquals(note, Arrays.copyOfRange(written, 0, note.length));
+        assertArrayEquals(Arrays.copyOfRange(output, output.length - CourgetteOutputBuffer.CAPACITY, output.length),
+                Arrays.copyOfRange(written, note.length, written.length));
+    }
+
+    private byte[] writeTo(CourgetteOutputBuffer outputBuffer) throws Exception {
+        final File file = folder.newFile();
+        outputBuffer.writeTo(file);
+        return Files.readAllBytes(file.toPath());
+    }
+
+    private static byte[] output(int size) {
+        final byte[] output = new byte[size];
+        for (int i = 0; i < size; i++) {
+            output[i] = (byte) (i % 251);
+        }
+        return output;
+    }
+}
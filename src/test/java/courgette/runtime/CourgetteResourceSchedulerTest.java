@@ -0,0 +1,110 @@
+package courgette.runtime;
+
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class CourgetteResourceSchedulerTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void startsARunThatClaimsSeveralResourcesBeforeLaterRunsThatClaimOneOfThem() throws Exception {
+        final CourgetteRunnerInfo first = runnerInfo("first", "@exclusive:database");
+        final CourgetteRunnerInfo both = runnerInfo("both", "@exclusive:database @exclusive:queue");
+        final CourgetteRunnerInfo database = runnerInfo("database", "@exclusive:database");
+        final CourgetteRunnerInfo queue = runnerInfo("queue", "@exclusive:queue");
+
+        final CourgetteResourceScheduler scheduler = new CourgetteResourceScheduler(Arrays.asList(first, both, database, queue));
+        final List<String> started = new CopyOnWriteArrayList<>();
+        final CountDownLatch firstRunning = new CountDownLatch(1);
+        final CountDownLatch releaseFirst = new CountDownLatch(1);
+
+        final List<Future<Boolean>> results = new ArrayList<>();
+        results.add(scheduler.submit(executor, first, () -> {
+            started.add("first");
+            firstRunning.countDown();
+            return releaseFirst.await(10, TimeUnit.SECONDS);
+        }));
+        assertTrue(firstRunning.await(10, TimeUnit.SECONDS));
+
+        results.add(scheduler.submit(executor, both, record(started, "both")));
+        results.add(scheduler.submit(executor, database, record(started, "database")));
+        results.add(scheduler.submit(executor, queue, record(started, "queue")));
+
+        // the queue is free, but taking it would delay the earlier run that also needs the database
+        TimeUnit.MILLISECONDS.sleep(200);
+        assertEquals(Collections.singletonList("first"), started);
+
+        releaseFirst.countDown();
+        for (Future<Boolean> result : results) {
+            assertTrue(result.get(10, TimeUnit.SECONDS));
+        }
+
+        assertEquals("both", started.get(1));
+        assertEquals(4, started.size());
+    }
+
+    @Test
+    public void runsNoMoreRunsAtOnceThanTheResourceHasPermits() throws Exception {
+        final List<CourgetteRunnerInfo> runnerInfoList = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            runnerInfoList.add(runnerInfo("run" + i, "@resource:browser=2"));
+        }
+
+        final CourgetteResourceScheduler scheduler = new CourgetteResourceScheduler(runnerInfoList);
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger maxRunning = new AtomicInteger();
+
+        final List<Future<Boolean>> results = new ArrayList<>();
+        runnerInfoList.forEach(runnerInfo -> results.add(scheduler.submit(executor, runnerInfo, () -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            TimeUnit.MILLISECONDS.sleep(50);
+            running.decrementAndGet();
+            return true;
+        })));
+
+        for (Future<Boolean> result : results) {
+            assertTrue(result.get(10, TimeUnit.SECONDS));
+        }
+        assertEquals(2, maxRunning.get());
+    }
+
+    private CourgetteRunnerInfo runnerInfo(String name, String tags) throws Exception {
+        return new CourgetteRunnerInfo(CourgetteTestFixtures.properties(Collections.emptyMap(), 4),
+                CourgetteTestFixtures.parseFeature(CourgetteTestFixtures.writeFeature(folder.getRoot(), name, 1, tags)),
+                Collections.emptyList());
+    }
+
+    private static Callable<Boolean> record(List<String> started, String name) {
+        return () -> {
+            started.add(name);
+            return true;
+        };
+    }
+}
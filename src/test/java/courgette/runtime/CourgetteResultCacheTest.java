@@ -0,0 +1,99 @@
+package courgette.runtime;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+public class CourgetteResultCacheTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File classes;
+    private CourgetteProperties courgetteProperties;
+
+    @Before
+    public void setUp() throws Exception {
+        classes = folder.newFolder("classes");
+        Files.write(new File(classes, "Steps.class").toPath(), "steps".getBytes(StandardCharsets.UTF_8));
+
+        final Map<String, Object> options = new HashMap<>();
+        options.put("reportTargetDir", folder.newFolder("target").getPath());
+        options.put("classPath", new String[]{classes.getPath()});
+        courgetteProperties = CourgetteTestFixtures.properties(options, 2);
+    }
+
+    @Test
+    public void returnsTheReportsOfAPassedRunFromTheSavedCache() throws Exception {
+        final CourgetteRunnerInfo runnerInfo = runnerInfo(CourgetteTestFixtures.writeFeature(folder.getRoot(), "orders", 2));
+
+        final CourgetteResultCache resultCache = CourgetteResultCache.load(courgetteProperties);
+        resultCache.put(runnerInfo, reports());
+        resultCache.save();
+
+        final Map<String, String> cachedReports = CourgetteResultCache.load(courgetteProperties).get(runnerInfo).get();
+        assertEquals("[{}]", cachedReports.get("json"));
+        assertEquals("<testsuite/>", cachedReports.get("xml"));
+    }
+
+    @Test
+    public void missesWhenTheFeatureHasChanged() throws Exception {
+        final File featureFile = CourgetteTestFixtures.writeFeature(folder.getRoot(), "orders", 2);
+
+        final CourgetteResultCache resultCache = CourgetteResultCache.load(courgetteProperties);
+        resultCache.put(runnerInfo(featureFile), reports());
+
+        CourgetteTestFixtures.writeFeature(folder.getRoot(), "orders", 3);
+
+        assertFalse(resultCache.get(runnerInfo(featureFile)).isPresent());
+    }
+
+    @Test
+    public void missesWhenTheClassPathHasChanged() throws Exception {
+        final CourgetteRunnerInfo runnerInfo = runnerInfo(CourgetteTestFixtures.writeFeature(folder.getRoot(), "orders", 2));
+
+        final CourgetteResultCache resultCache = CourgetteResultCache.load(courgetteProperties);
+        resultCache.put(runnerInfo, reports());
+        resultCache.save();
+
+        Files.write(new File(classes, "Steps.class").toPath(), "changed steps".getBytes(StandardCharsets.UTF_8));
+
+        assertFalse(CourgetteResultCache.load(courgetteProperties).get(runnerInfo).isPresent());
+    }
+
+    @Test
+    public void removesARunWithAMissingReport() throws Exception {
+        final CourgetteRunnerInfo runnerInfo = runnerInfo(CourgetteTestFixtures.writeFeature(folder.getRoot(), "orders", 2));
+
+        final CourgetteResultCache resultCache = CourgetteResultCache.load(courgetteProperties);
+        resultCache.put(runnerInfo, reports());
+
+        final Map<String, String> reports = reports();
+        reports.put("target/report.ndjson", null);
+        resultCache.put(runnerInfo, reports);
+
+        assertFalse(resultCache.get(runnerInfo).isPresent());
+    }
+
+    private CourgetteRunnerInfo runnerInfo(File featureFile) {
+        return new CourgetteRunnerInfo(courgetteProperties, CourgetteTestFixtures.parseFeature(featureFile), Collections.emptyList());
+    }
+
+    private Map<String, String> reports() {
+        final Map<String, String> reports = new HashMap<>();
+        reports.put("target/report.json", "[{}]");
+        reports.put("target/report.xml", "<testsuite/>");
+        return reports;
+    }
+}
@@ -0,0 +1,176 @@
+package courgette.runtime;
+
+import io.cucumber.core.gherkin.Feature;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class CourgetteRunHistoryTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File reportTargetDir;
+    private List<Feature> features;
+
+    @Before
+    public void setUp() throws Exception {
+        reportTargetDir = folder.newFolder("target");
+
+        features = new ArrayList<>();
+        for (String name : Arrays.asList("a", "b", "c", "d")) {
+            features.add(CourgetteTestFixtures.parseFeature(CourgetteTestFixtures.writeFeature(folder.getRoot(), name, 1)));
+        }
+    }
+
+    @Test
+    public void partitionsRunsLongestFirstIntoTheSameShardsInAnyOrder() {
+        final CourgetteRunHistory runHistory = CourgetteRunHistory.load(properties(0, 1));
+        record(runHistory, 0, 100);
+        record(runHistory, 1, 60);
+        record(runHistory, 2, 50);
+        record(runHistory, 3, 10);
+        runHistory.save();
+
+        final List<CourgetteRunnerInfo> runnerInfoList = runnerInfoList();
+        final List<CourgetteRunnerInfo> reversedRunnerInfoList = new ArrayList<>(runnerInfoList);
+        Collections.reverse(reversedRunnerInfoList);
+
+        final CourgetteRunHistory loadedHistory = CourgetteRunHistory.load(properties(0, 2));
+
+        // a(100) and d(10) against b(60) and c(50)
+        assertEquals(Arrays.asList(runnerInfoList.get(0), runnerInfoList.get(3)), loadedHistory.getShard(runnerInfoList, 0, 2));
+        assertEquals(Arrays.asList(runnerInfoList.get(1), runnerInfoList.get(2)), loadedHistory.getShard(runnerInfoList, 1, 2));
+        assertEquals(Arrays.asList(reversedRunnerInfoList.get(0), reversedRunnerInfoList.get(3)), loadedHistory.getShard(reversedRunnerInfoList, 0, 2));
+    }
+
+    @Test
+    public void mergesACompleteSetOfShardHistoriesOnlyWhenAskedTo() {
+        for (int shardIndex = 0; shardIndex < 2; shardIndex++) {
+            final CourgetteRunHistory shardHistory = CourgetteRunHistory.load(properties(shardIndex, 2));
+            record(shardHistory, shardIndex, 100 + shardIndex);
+            shardHistory.save();
+        }
+
+        final File firstShardFile = new File(reportTargetDir, "courgette-run-history-shard-1-of-2.json");
+        final File secondShardFile = new File(reportTargetDir, "courgette-run-history-shard-2-of-2.json");
+        final File historyFile = new File(reportTargetDir, "courgette-run-history.json");
+
+        final CourgetteRunHistory runHistory = CourgetteRunHistory.load(properties(0, 2));
+        CourgetteRunHistory.load(properties(0, 2));
+
+        assertTrue(firstShardFile.exists());
+        assertTrue(secondShardFile.exists());
+        assertFalse(historyFile.exists());
+        assertEquals(101L, runHistory.getDuration(runnerInfoList().get(1)).getAsLong());
+
+        runHistory.mergeShardHistories();
+        runHistory.mergeShardHistories();
+
+        assertFalse(firstShardFile.exists());
+        assertFalse(secondShardFile.exists());
+
+        final CourgetteRunHistory mergedHistory = CourgetteRunHistory.load(properties(0, 1));
+        assertEquals(100L, mergedHistory.getDuration(runnerInfoList().get(0)).getAsLong());
+        assertEquals(101L, mergedHistory.getDuration(runnerInfoList().get(1)).getAsLong());
+    }
+
+    @Test
+    public void leavesOutAnIncompleteSetOfShardHistories() {
+        final CourgetteRunHistory shardHistory = CourgetteRunHistory.load(properties(0, 2));
+        record(shardHistory, 0, 100);
+        shardHistory.save();
+
+        final CourgetteRunHistory runHistory = CourgetteRunHistory.load(properties(1, 2));
+        runHistory.mergeShardHistories();
+
+        assertFalse(runHistory.getDuration(runnerInfoList().get(0)).isPresent());
+        assertTrue(new File(reportTargetDir, "courgette-run-history-shard-1-of-2.json").exists());
+    }
+
+    @Test
+    public void keepsTheFeatureDurationWhenTheScenariosOfTheFeatureRunApart() throws Exception {
+        final Feature feature = CourgetteTestFixtures.parseFeature(CourgetteTestFixtures.writeFeature(folder.getRoot(), "split", 4));
+        final CourgetteProperties courgetteProperties = properties(0, 1);
+
+        final CourgetteRunHistory runHistory = CourgetteRunHistory.load(courgetteProperties);
+        runHistory.record(feature, Collections.emptyList(), 400);
+        runHistory.record(feature, lines(1), 50);
+        runHistory.record(feature, lines(2, 3), 60);
+        runHistory.save();
+
+        final CourgetteRunHistory loadedHistory = CourgetteRunHistory.load(courgetteProperties);
+        assertEquals(400L, loadedHistory.getDuration(new CourgetteRunnerInfo(courgetteProperties, feature, Collections.emptyList())).getAsLong());
+        assertEquals(50L, loadedHistory.getDuration(new CourgetteRunnerInfo(courgetteProperties, feature, lines(1))).getAsLong());
+
+        // the scenarios of a batch share its duration, and a scenario without history takes its share of the feature duration
+        assertEquals(30L, loadedHistory.getDuration(new CourgetteRunnerInfo(courgetteProperties, feature, lines(3))).getAsLong());
+        assertEquals(130L, loadedHistory.getDuration(new CourgetteRunnerInfo(courgetteProperties, feature, lines(3, 4))).getAsLong());
+    }
+
+    @Test
+    public void recordsABatchOfAllScenariosAsAFeatureRun() throws Exception {
+        final Feature feature = CourgetteTestFixtures.parseFeature(CourgetteTestFixtures.writeFeature(folder.getRoot(), "batch", 2));
+        final CourgetteProperties courgetteProperties = properties(0, 1);
+
+        final CourgetteRunHistory runHistory = CourgetteRunHistory.load(courgetteProperties);
+        runHistory.record(feature, lines(1, 2), 80);
+        runHistory.save();
+
+        assertEquals(80L, runHistory.getDuration(new CourgetteRunnerInfo(courgetteProperties, feature, Collections.emptyList())).getAsLong());
+    }
+
+    @Test
+    public void sortsRunsLongestFirstAndEstimatesRunsWithoutHistory() {
+        final CourgetteRunHistory runHistory = CourgetteRunHistory.load(properties(0, 1));
+        runHistory.record(features.get(0), lines(1), 100);
+        runHistory.record(features.get(1), lines(1), 20);
+        runHistory.save();
+
+        final List<CourgetteRunnerInfo> runnerInfoList = runnerInfoList();
+        final List<CourgetteRunnerInfo> sortedRunnerInfoList = Arrays.asList(runnerInfoList.get(3), runnerInfoList.get(1), runnerInfoList.get(2), runnerInfoList.get(0));
+
+        runHistory.sortLongestFirst(sortedRunnerInfoList);
+
+        // c and d are estimated from the average scenario duration of 60
+        assertEquals(60L, runHistory.estimateDuration(runnerInfoList.get(2)));
+        assertEquals(Arrays.asList(runnerInfoList.get(0), runnerInfoList.get(3), runnerInfoList.get(2), runnerInfoList.get(1)), sortedRunnerInfoList);
+    }
+
+    private static List<Integer> lines(int... scenarios) {
+        return Arrays.stream(scenarios).map(CourgetteTestFixtures::scenarioLine).boxed().collect(Collectors.toList());
+    }
+
+    private void record(CourgetteRunHistory runHistory, int feature, long duration) {
+        runHistory.record(features.get(feature), Collections.emptyList(), duration);
+    }
+
+    private List<CourgetteRunnerInfo> runnerInfoList() {
+        final CourgetteProperties courgetteProperties = properties(0, 1);
+        final List<CourgetteRunnerInfo> runnerInfoList = new ArrayList<>();
+        features.forEach(feature -> runnerInfoList.add(new CourgetteRunnerInfo(courgetteProperties, feature, Collections.emptyList())));
+        return runnerInfoList;
+    }
+
+    private CourgetteProperties properties(int shardIndex, int shardCount) {
+        final Map<String, Object> options = new HashMap<>();
+        options.put("reportTargetDir", reportTargetDir.getPath());
+        options.put("shardIndex", shardIndex);
+        options.put("shardCount", shardCount);
+        return CourgetteTestFixtures.properties(options, 2);
+    }
+}
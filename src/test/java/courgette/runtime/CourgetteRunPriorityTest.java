@@ -0,0 +1,93 @@
+package courgette.runtime;
+
+import io.cucumber.core.gherkin.Feature;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+
+public class CourgetteRunPriorityTest {
+    private static final long LAST_RUN_TIME = 1600000000000L;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final Map<String, Feature> features = new LinkedHashMap<>();
+    private CourgetteProperties courgetteProperties;
+    private CourgetteRunHistory runHistory;
+    private File rerunFile;
+
+    @Before
+    public void setUp() throws Exception {
+        courgetteProperties = CourgetteTestFixtures.properties(Collections.singletonMap("reportTargetDir", folder.newFolder("target").getPath()), 2);
+        runHistory = CourgetteRunHistory.load(courgetteProperties);
+
+        for (String name : Arrays.asList("other", "longer", "changed", "failed")) {
+            final File featureFile = CourgetteTestFixtures.writeFeature(folder.getRoot(), name, 2);
+            featureFile.setLastModified(name.equals("changed") ? LAST_RUN_TIME + 10000 : LAST_RUN_TIME - 10000);
+            features.put(name, CourgetteTestFixtures.parseFeature(featureFile));
+        }
+
+        runHistory.record(features.get("other"), Collections.emptyList(), 10);
+        runHistory.record(features.get("longer"), Collections.emptyList(), 50);
+        runHistory.save();
+
+        rerunFile = new File(folder.getRoot(), "rerun.txt");
+        Files.write(rerunFile.toPath(), (features.get("failed").getUri().getSchemeSpecificPart() + ":" + CourgetteTestFixtures.scenarioLine(2))
+                .getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void queuesFailedThenChangedThenLongestFirst() {
+        rerunFile.setLastModified(LAST_RUN_TIME + 5000);
+
+        assertEquals(Arrays.asList("failed", "changed", "longer", "other"), sort(featureRuns()));
+    }
+
+    @Test
+    public void queuesOnlyTheFailedScenarioOfAFeatureFirst() {
+        rerunFile.setLastModified(LAST_RUN_TIME + 5000);
+
+        final List<CourgetteRunnerInfo> runnerInfoList = new ArrayList<>();
+        runnerInfoList.add(new CourgetteRunnerInfo(courgetteProperties, features.get("failed"), CourgetteTestFixtures.scenarioLine(1)));
+        runnerInfoList.add(new CourgetteRunnerInfo(courgetteProperties, features.get("failed"), CourgetteTestFixtures.scenarioLine(2)));
+
+        CourgetteRunPriority.load(rerunFile.getPath(), LAST_RUN_TIME).sort(runnerInfoList, runHistory);
+
+        assertEquals(Integer.valueOf(CourgetteTestFixtures.scenarioLine(2)), runnerInfoList.get(0).getLineId());
+    }
+
+    @Test
+    public void ignoresARerunFileLeftOverFromAnEarlierTestRun() {
+        rerunFile.setLastModified(LAST_RUN_TIME - 5000);
+
+        assertEquals(Arrays.asList("changed", "longer", "other", "failed"), sort(featureRuns()));
+    }
+
+    private List<CourgetteRunnerInfo> featureRuns() {
+        final List<CourgetteRunnerInfo> runnerInfoList = new ArrayList<>();
+        features.values().forEach(feature -> runnerInfoList.add(new CourgetteRunnerInfo(courgetteProperties, feature, Collections.emptyList())));
+        return runnerInfoList;
+    }
+
+    private List<String> sort(List<CourgetteRunnerInfo> runnerInfoList) {
+        CourgetteRunPriority.load(rerunFile.getPath(), LAST_RUN_TIME).sort(runnerInfoList, runHistory);
+
+        return runnerInfoList.stream()
+                .map(runnerInfo -> runnerInfo.getFeature().getName().orElse(""))
+                .collect(Collectors.toList());
+    }
+}
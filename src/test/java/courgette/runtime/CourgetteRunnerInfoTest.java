@@ -0,0 +1,37 @@
+package courgette.runtime;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+
+public class CourgetteRunnerInfoTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void usesTheRunTimeoutWithoutATagTimeout() throws Exception {
+        assertEquals(60, timeout("@smoke"));
+    }
+
+    @Test
+    public void usesTheLongestTimeoutOfTheTagsOfTheRun() throws Exception {
+        assertEquals(600, timeout("@slow @Checkout"));
+    }
+
+    private int timeout(String tags) throws Exception {
+        final Map<String, Object> options = new HashMap<>();
+        options.put("runTimeout", 60);
+        options.put("tagTimeouts", new String[]{"@slow=300", "@checkout = 600", "@invalid=soon"});
+
+        return new CourgetteRunnerInfo(CourgetteTestFixtures.properties(options, 2),
+                CourgetteTestFixtures.parseFeature(CourgetteTestFixtures.writeFeature(folder.getRoot(), "orders", 1, tags)),
+                Collections.emptyList()).getTimeout();
+    }
+}
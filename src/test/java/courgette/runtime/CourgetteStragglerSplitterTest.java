@@ -0,0 +1,145 @@
+package courgette.runtime;
+
+import courgette.runtime.boundary.CourgetteScenarioBoundaryHook;
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class CourgetteStragglerSplitterTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final CountDownLatch finishRuns = new CountDownLatch(1);
+    private final List<CourgetteScenarioBoundary> boundaries = new ArrayList<>();
+
+    @After
+    public void tearDown() {
+        finishRuns.countDown();
+        executor.shutdownNow();
+        boundaries.forEach(CourgetteScenarioBoundary::delete);
+    }
+
+    @Test
+    public void handsTheScenariosThatHaveNotStartedToTheIdleThreads() throws Exception {
+        final CourgetteStragglerSplitter splitter = new CourgetteStragglerSplitter(4, 0);
+        final CourgetteScenarioBoundary boundary = startBatch(splitter, "orders", 6);
+        writeProgress(boundary, CourgetteScenarioBoundaryHook.STARTED, 1, 2);
+
+        splitter.split();
+
+        assertTrue(boundary.isStopRequested());
+        assertEquals(3, boundary.getHandOffThreads());
+
+        writeProgress(boundary, CourgetteScenarioBoundaryHook.SKIPPED, 3, 4, 5, 6);
+
+        assertEquals(lines(3, 4, 5, 6), boundary.getSkippedLineIds());
+        assertEquals(Arrays.asList(lines(3), lines(4), lines(5, 6)), CourgetteStragglerSplitter.partition(boundary.getSkippedLineIds(), boundary.getHandOffThreads()));
+    }
+
+    @Test
+    public void stopsTheBatchWithTheMostScenariosThatHaveNotStarted() throws Exception {
+        final CourgetteStragglerSplitter splitter = new CourgetteStragglerSplitter(3, 0);
+        final CourgetteScenarioBoundary orders = startBatch(splitter, "orders", 6);
+        final CourgetteScenarioBoundary payments = startBatch(splitter, "payments", 4);
+        writeProgress(orders, CourgetteScenarioBoundaryHook.STARTED, 1, 2, 3, 4);
+
+        splitter.split();
+
+        assertFalse(orders.isStopRequested());
+        assertEquals(1, payments.getHandOffThreads());
+    }
+
+    @Test
+    public void waitsUntilNoRunsAreQueued() throws Exception {
+        final CourgetteStragglerSplitter splitter = new CourgetteStragglerSplitter(4, 0);
+        final CourgetteScenarioBoundary boundary = startBatch(splitter, "orders", 6);
+        splitter.track(() -> true);
+
+        splitter.split();
+
+        assertFalse(boundary.isStopRequested());
+    }
+
+    @Test
+    public void waitsUntilTheBatchHasRunForLongEnough() throws Exception {
+        final CourgetteStragglerSplitter splitter = new CourgetteStragglerSplitter(4, TimeUnit.MINUTES.toMillis(1));
+        final CourgetteScenarioBoundary boundary = startBatch(splitter, "orders", 6);
+
+        splitter.split();
+
+        assertFalse(boundary.isStopRequested());
+    }
+
+    @Test
+    public void keepsTheIdleThreadsReservedUntilTheStoppedBatchHasFinished() throws Exception {
+        final CourgetteStragglerSplitter splitter = new CourgetteStragglerSplitter(3, 0);
+        final CourgetteScenarioBoundary orders = startBatch(splitter, "orders", 6);
+        splitter.split();
+        assertEquals(2, orders.getHandOffThreads());
+
+        final CourgetteScenarioBoundary payments = startBatch(splitter, "payments", 6);
+        splitter.split();
+        assertFalse(payments.isStopRequested());
+
+        splitter.finish(orders);
+        splitter.split();
+        assertEquals(1, payments.getHandOffThreads());
+    }
+
+    @Test
+    public void partitionsScenariosIntoNoMorePartsThanThereAreScenarios() {
+        assertEquals(Arrays.asList(lines(1), lines(2)), CourgetteStragglerSplitter.partition(lines(1, 2), 4));
+        assertEquals(Collections.singletonList(lines(1, 2, 3)), CourgetteStragglerSplitter.partition(lines(1, 2, 3), 1));
+        assertEquals(Collections.emptyList(), CourgetteStragglerSplitter.partition(Collections.emptyList(), 2));
+    }
+
+    private CourgetteScenarioBoundary startBatch(CourgetteStragglerSplitter splitter, String name, int scenarios) throws Exception {
+        final File featureFile = CourgetteTestFixtures.writeFeature(folder.getRoot(), name, scenarios);
+        final CourgetteRunnerInfo runnerInfo = new CourgetteRunnerInfo(CourgetteTestFixtures.properties(Collections.emptyMap(), 4),
+                CourgetteTestFixtures.parseFeature(featureFile), lines(IntStream.rangeClosed(1, scenarios).toArray()));
+
+        final CourgetteScenarioBoundary boundary = splitter.register(runnerInfo);
+        boundaries.add(boundary);
+
+        final CountDownLatch started = new CountDownLatch(1);
+        executor.submit(splitter.track(() -> {
+            started.countDown();
+            return finishRuns.await(1, TimeUnit.MINUTES);
+        }));
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+        return boundary;
+    }
+
+    private static void writeProgress(CourgetteScenarioBoundary boundary, String prefix, int... scenarios) throws Exception {
+        final File progressFile = new File(boundary.getSystemProperties().get(CourgetteScenarioBoundaryHook.SYSTEM_PROPERTY), CourgetteScenarioBoundaryHook.PROGRESS_FILE);
+        final String progress = lines(scenarios).stream().map(line -> prefix + line + "\n").collect(Collectors.joining());
+
+        Files.write(progressFile.toPath(), progress.getBytes(StandardCharsets.UTF_8), StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    private static List<Integer> lines(int... scenarios) {
+        return Arrays.stream(scenarios).map(CourgetteTestFixtures::scenarioLine).boxed().collect(Collectors.toList());
+    }
+}
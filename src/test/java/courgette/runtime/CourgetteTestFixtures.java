@@ -0,0 +1,97 @@
+package courgette.runtime;
+
+import courgette.api.CourgetteOptions;
+import io.cucumber.core.feature.FeatureParser;
+import io.cucumber.core.gherkin.Feature;
+import io.cucumber.core.options.CommandlineOptionsParser;
+import io.cucumber.core.runtime.FeaturePathFeatureSupplier;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Courgette options, properties and features for unit tests.
+ */
+final class CourgetteTestFixtures {
+
+    private CourgetteTestFixtures() {
+    }
+
+    /**
+     * @return the annotation with the given element values and the default values of the other elements
+     */
+    @SuppressWarnings("unchecked")
+    static <A extends Annotation> A annotation(Class<A> annotationType, Map<String, Object> values) {
+        return (A) Proxy.newProxyInstance(annotationType.getClassLoader(), new Class<?>[]{annotationType}, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "annotationType":
+                    return annotationType;
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "equals":
+                    return proxy == args[0];
+                case "toString":
+                    return "@" + annotationType.getName() + values;
+            }
+
+            if (values.containsKey(method.getName())) {
+                return values.get(method.getName());
+            }
+
+            if (method.getDefaultValue() != null) {
+                return method.getDefaultValue();
+            }
+
+            if (method.getReturnType().isAnnotation()) {
+                return annotation((Class<? extends Annotation>) method.getReturnType(), Collections.emptyMap());
+            }
+            throw new UnsupportedOperationException(method.getName());
+        });
+    }
+
+    static CourgetteProperties properties(Map<String, Object> options, int threads) {
+        return new CourgetteProperties(annotation(CourgetteOptions.class, options), UUID.randomUUID().toString(), threads);
+    }
+
+    static File writeFeature(File directory, String name, int scenarios) throws IOException {
+        return writeFeature(directory, name, scenarios, "");
+    }
+
+    /**
+     * @return a feature file with the given tags and scenarios of one step each
+     */
+    static File writeFeature(File directory, String name, int scenarios, String tags) throws IOException {
+        final StringBuilder feature = new StringBuilder(tags.isEmpty() ? "# " + name + "\n" : tags + "\n");
+        feature.append("Feature: ").append(name).append("\n");
+
+        for (int i = 1; i <= scenarios; i++) {
+            feature.append("\n  Scenario: scenario ").append(i).append("\n    Given a step\n");
+        }
+
+        final File featureFile = new File(directory, name + ".feature");
+        Files.write(featureFile.toPath(), feature.toString().getBytes(StandardCharsets.UTF_8));
+        return featureFile;
+    }
+
+    /**
+     * @return the line of a scenario of a feature written by {@link #writeFeature(File, String, int, String)}
+     */
+    static int scenarioLine(int scenario) {
+        return 3 * scenario + 1;
+    }
+
+    static Feature parseFeature(File featureFile) {
+        final List<Feature> features = new FeaturePathFeatureSupplier(CourgetteTestFixtures.class::getClassLoader,
+                new CommandlineOptionsParser(System.out).parse(featureFile.getPath()).build(),
+                new FeatureParser(UUID::randomUUID)).get();
+        return features.get(0);
+    }
+}
@@ -0,0 +1,110 @@
+package courgette.runtime;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+
+public class CourgetteTestOutputArchiveTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File outputDirectory;
+    private CourgetteTestOutputArchive archive;
+
+    @Before
+    public void setUp() throws Exception {
+        final File reportTargetDir = folder.newFolder("target");
+        outputDirectory = new File(reportTargetDir, "courgette-test-output");
+        archive = CourgetteTestOutputArchive.create(CourgetteTestFixtures.properties(
+                Collections.singletonMap("reportTargetDir", reportTargetDir.getPath()), 2));
+    }
+
+    @Test
+    public void readsEachTestOutputFromItsOffsetAndLength() throws Exception {
+        final CourgetteTestOutputArchive.Entry orders = archive.add(stage("orders.log", "orders output\n"));
+        final CourgetteTestOutputArchive.Entry payments = archive.add(stage("payments.log", "payments output\n"));
+
+        final File archiveFile = new File(outputDirectory, orders.getArchive());
+        assertEquals(0, orders.getOffset());
+        assertEquals(orders.getLength(), payments.getOffset());
+        assertEquals(archiveFile.length(), payments.getOffset() + payments.getLength());
+
+        assertEquals("orders output\n", read(archiveFile, orders.getOffset(), orders.getLength()));
+        assertEquals("payments output\n", read(archiveFile, payments.getOffset(), payments.getLength()));
+        assertEquals("orders output\npayments output\n", gunzip(Files.newInputStream(archiveFile.toPath())));
+    }
+
+    @Test
+    public void writesTheEntriesToTheIndexOnClose() throws Exception {
+        final File stagingFile = stage("orders.log", "orders output\n");
+        final CourgetteTestOutputArchive.Entry orders = archive.add(stagingFile);
+        assertFalse(stagingFile.exists());
+
+        archive.close();
+
+        final File indexFile = new File(outputDirectory, orders.getArchive().replace(".log.gz", ".index.json"));
+        final JsonNode index = new ObjectMapper().readTree(indexFile);
+        assertEquals(1, index.size());
+        assertEquals(orders.getArchive(), index.get(0).get("archive").asText());
+        assertEquals("orders.log", index.get(0).get("name").asText());
+        assertEquals(orders.getOffset(), index.get(0).get("offset").asLong());
+        assertEquals(orders.getLength(), index.get(0).get("length").asLong());
+        assertEquals("orders output\n".length(), index.get(0).get("size").asLong());
+        assertFalse(stagingFile.getParentFile().exists());
+    }
+
+    @Test
+    public void addsNothingForARunWithoutTestOutput() {
+        assertNull(archive.add(archive.getStagingFile("missing.log")));
+
+        archive.close();
+
+        assertEquals(0, outputDirectory.list().length);
+    }
+
+    private File stage(String name, String output) throws IOException {
+        final File stagingFile = archive.getStagingFile(name);
+        Files.write(stagingFile.toPath(), output.getBytes(StandardCharsets.UTF_8));
+        return stagingFile;
+    }
+
+    private static String read(File archiveFile, long offset, long length) throws IOException {
+        final byte[] member = new byte[(int) length];
+        try (RandomAccessFile file = new RandomAccessFile(archiveFile, "r")) {
+            file.seek(offset);
+            file.readFully(member);
+        }
+        return gunzip(new ByteArrayInputStream(member));
+    }
+
+    private static String gunzip(InputStream in) throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (InputStream gzip = new GZIPInputStream(in)) {
+            final byte[] buffer = new byte[8192];
+            int read;
+            while ((read = gzip.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+        }
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+}
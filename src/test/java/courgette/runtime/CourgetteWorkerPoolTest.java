@@ -0,0 +1,76 @@
+package courgette.runtime;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class CourgetteWorkerPoolTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void failsNextJobsWhenAFailedWorkerCannotBeReplaced() throws Exception {
+        final AtomicInteger starts = new AtomicInteger();
+
+        // the first worker exits without running its job, and no replacement can be started
+        final CourgetteWorkerPool workerPool = new CourgetteWorkerPool(1,
+                () -> new ProcessBuilder(starts.getAndIncrement() == 0 ? "true" : "courgette-missing-worker"),
+                new CourgetteWorkerRecyclePolicy(0, 0, false));
+        workerPool.start();
+
+        try {
+            assertEquals(-1, workerPool.execute(createJob()).getExitStatus());
+            assertEquals(4, starts.get());
+
+            try {
+                workerPool.execute(createJob());
+                fail("Expected the job to fail");
+            } catch (CourgetteException e) {
+                assertEquals("Unable to run the job, a Courgette worker process could not be replaced", e.getMessage());
+            }
+        } finally {
+            workerPool.shutdown();
+        }
+    }
+
+    @Test
+    public void stopsAJobThatTakesLongerThanItsTimeout() throws Exception {
+        final AtomicInteger starts = new AtomicInteger();
+
+        // the worker reads the job but never replies
+        final CourgetteWorkerPool workerPool = new CourgetteWorkerPool(1, () -> {
+            starts.incrementAndGet();
+            return new ProcessBuilder("sh", "-c", "cat > /dev/null");
+        }, new CourgetteWorkerRecyclePolicy(0, 0, false));
+        workerPool.start();
+
+        try {
+            final CourgetteJob job = createJob();
+            job.setTimeout(1);
+            job.setThreadDumpFile(new File(folder.getRoot(), "thread-dump.txt").getPath());
+
+            final long startTime = System.nanoTime();
+            assertEquals(CourgetteFeatureRunner.TIMED_OUT_EXIT_STATUS, workerPool.execute(job).getExitStatus());
+            assertTrue(System.nanoTime() - startTime < TimeUnit.SECONDS.toNanos(30));
+
+            // the stopped worker is replaced, so the thread is free for the next job
+            assertEquals(2, starts.get());
+        } finally {
+            workerPool.shutdown();
+        }
+    }
+
+    private CourgetteJob createJob() {
+        return new CourgetteJob(Collections.emptyList(), Collections.emptyMap());
+    }
+}
@@ -0,0 +1,61 @@
+package courgette.runtime;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collections;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class CourgetteWorkerRecyclePolicyTest {
+    private static final long MEGABYTE = 1024L * 1024L;
+
+    private CourgetteWorkerProcess worker;
+
+    @Before
+    public void setUp() throws Exception {
+        // the worker replies to each job with a passed result
+        worker = new CourgetteWorkerProcess(new ProcessBuilder("sh", "-c", "while read job; do echo '{\"exitStatus\":0}'; done").start());
+    }
+
+    @After
+    public void tearDown() {
+        worker.stop();
+    }
+
+    @Test
+    public void recyclesAWorkerAfterItsMaximumNumberOfRuns() throws Exception {
+        final CourgetteWorkerRecyclePolicy recyclePolicy = new CourgetteWorkerRecyclePolicy(2, 0, false);
+
+        assertFalse(recyclePolicy.shouldRecycle(worker, worker.execute(createJob())));
+        assertTrue(recyclePolicy.shouldRecycle(worker, worker.execute(createJob())));
+    }
+
+    @Test
+    public void recyclesAWorkerThatUsesTooMuchMemory() {
+        final CourgetteWorkerRecyclePolicy recyclePolicy = new CourgetteWorkerRecyclePolicy(0, 512, false);
+
+        assertFalse(recyclePolicy.shouldRecycle(worker, new CourgetteWorkerResult(0, 100 * MEGABYTE, 400 * MEGABYTE, 0)));
+        assertTrue(recyclePolicy.shouldRecycle(worker, new CourgetteWorkerResult(0, 100 * MEGABYTE, 600 * MEGABYTE, 0)));
+        assertTrue(recyclePolicy.shouldRecycle(worker, new CourgetteWorkerResult(0, 512 * MEGABYTE, 0, 0)));
+    }
+
+    @Test
+    public void recyclesAWorkerAfterAFailedRunOnlyWhenEnabled() {
+        assertFalse(new CourgetteWorkerRecyclePolicy(0, 0, false).shouldRecycle(worker, new CourgetteWorkerResult(1)));
+        assertTrue(new CourgetteWorkerRecyclePolicy(0, 0, true).shouldRecycle(worker, new CourgetteWorkerResult(1)));
+        assertFalse(new CourgetteWorkerRecyclePolicy(0, 0, true).shouldRecycle(worker, new CourgetteWorkerResult(0)));
+    }
+
+    @Test
+    public void isDisabledWithoutALimit() {
+        assertFalse(new CourgetteWorkerRecyclePolicy(0, -1, false).isEnabled());
+        assertTrue(new CourgetteWorkerRecyclePolicy(10, 0, false).isEnabled());
+    }
+
+    private CourgetteJob createJob() {
+        return new CourgetteJob(Collections.emptyList(), Collections.emptyMap());
+    }
+}
@@ -0,0 +1,46 @@
+package courgette.runtime;
+
+import org.junit.Test;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class CucumberReportSplitterTest {
+
+    @Test
+    public void splitsJUnitReportByScenarioName() throws Exception {
+        final String report = "<testsuite name=\"io.cucumber.core.plugin.JUnitFormatter\" tests=\"3\">" +
+                "<testcase classname=\"Feature\" name=\"Outline\" time=\"1\"/>" +
+                "<testcase classname=\"Feature\" name=\"Outline_2\" time=\"1\"><failure message=\"failed\"/></testcase>" +
+                "<testcase classname=\"Feature\" name=\"Last\" time=\"1\"/>" +
+                "</testsuite>";
+
+        final Map<Integer, String> scenarioNames = new LinkedHashMap<>();
+        scenarioNames.put(30, "Last");
+        scenarioNames.put(12, "Outline");
+        scenarioNames.put(13, "Outline");
+        scenarioNames.put(20, "Filtered out");
+
+        final Map<Integer, String> scenarioReports = CucumberReportSplitter.splitXmlReport(report, scenarioNames);
+
+        assertEquals(3, scenarioReports.size());
+        assertFalse(CucumberReportSplitter.isFailedReport("report.xml", scenarioReports.get(12)));
+        assertTrue(CucumberReportSplitter.isFailedReport("report.xml", scenarioReports.get(13)));
+        assertTrue(scenarioReports.get(30).contains("name=\"Last\""));
+    }
+
+    @Test
+    public void findsFailedStepInJsonReport() throws Exception {
+        final String passed = "[{\"elements\":[{\"line\":3,\"steps\":[{\"result\":{\"status\":\"passed\"}},{\"result\":{\"status\":\"skipped\"}}]}]}]";
+        final String undefined = "[{\"elements\":[{\"line\":3,\"steps\":[{\"result\":{\"status\":\"undefined\"}}]}]}]";
+        final String failedHook = "[{\"elements\":[{\"line\":3,\"after\":[{\"result\":{\"status\":\"failed\"}}]}]}]";
+
+        assertFalse(CucumberReportSplitter.isFailedReport("report.json", passed));
+        assertTrue(CucumberReportSplitter.isFailedReport("report.json", undefined));
+        assertTrue(CucumberReportSplitter.isFailedReport("report.json", failedHook));
+    }
+}